@@ -0,0 +1,35 @@
+import chkMVC.chModel.Checkers.OpeningBookBuilder;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//Builds an opening book file (see OpeningBook) from the games in one or more PDN files.
+//Usage: StartBookBuilder out variant maxPly minGames pdnFile...
+//e.g. StartBookBuilder english.book ENGLISH 16 2 games.pdn
+public class StartBookBuilder {
+    public static void main (String[] args) throws IOException {
+        if (args.length < 5) {
+            System.err.println("Usage: StartBookBuilder out variant maxPly minGames pdnFile...");
+            System.exit(1);
+        }
+        Path out = Path.of(args[0]);
+        RULE_VARIANT variant = RULE_VARIANT.valueOf(args[1].toUpperCase());
+        int maxPly = Integer.parseInt(args[2]);
+        int minGames = Integer.parseInt(args[3]);
+
+        long start = System.nanoTime();
+        OpeningBookBuilder builder = new OpeningBookBuilder(variant, maxPly);
+        for (int i = 4; i < args.length; i++) {
+            try (Reader in = Files.newBufferedReader(Path.of(args[i]))) {
+                System.out.println(args[i] + ": " + builder.addPdn(in) + " games");
+            }
+        }
+        int entries = builder.write(out, minGames);
+        System.out.printf("%,d games (%,d rejected), %,d moves seen, %,d written to %s in %.1f s%n",
+                builder.getGamesAdded(), builder.getGamesRejected(), builder.getMovesSeen(), entries, out,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,17 @@
+import chkMVC.chModel.Checkers.EndgameDatabaseBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+//Builds the endgame database file (English rules) that EndgameDatabase maps at runtime.
+//Usage: StartEndgameBuilder [maxPieces] [file]
+public class StartEndgameBuilder {
+    public static void main (String[] args) throws IOException {
+        int maxPieces = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Path out = Path.of(args.length > 1 ? args[1] : "endgame" + maxPieces + ".db");
+
+        long start = System.nanoTime();
+        EndgameDatabaseBuilder.build(maxPieces, out, System.out);
+        System.out.printf("Done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+}
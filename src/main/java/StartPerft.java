@@ -0,0 +1,36 @@
+import chkMVC.chModel.Checkers.BoardCodec;
+import chkMVC.chModel.Checkers.BoardGeometry;
+import chkMVC.chModel.Checkers.BoardModel;
+import chkMVC.chModel.Checkers.CheckersGameModel;
+import chkMVC.chModel.Checkers.EnglishRuleSet;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+import chkMVC.chModel.Checkers.RuleSet;
+
+//Runs perft (counts every position reachable in n plies) to check the move generator and time it.
+//Usage: StartPerft [maxDepth] [variant|boardSize] [fen]
+//The variant is a RULE_VARIANT name (ENGLISH, INTERNATIONAL, ...), a plain number means English rules on that size.
+//Without a fen it starts from the normal starting position.
+public class StartPerft {
+    public static void main (String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        String rules = args.length > 1 ? args[1] : "8";
+        RuleSet ruleSet = Character.isDigit(rules.charAt(0))
+                ? new EnglishRuleSet(BoardGeometry.ofSize(Integer.parseInt(rules)))
+                : RULE_VARIANT.valueOf(rules.toUpperCase()).newRuleSet();
+
+        CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(ruleSet.getGeometry()), ruleSet, args.length <= 2);
+        if (args.length > 2) {
+            // Load the fen after making the model, the constructor puts white on move
+            BoardCodec.parseFen(args[2], gameModel.getBoardModel());
+        }
+
+        System.out.println("Perft (" + ruleSet + ") from " + BoardCodec.toFen(gameModel.getBoardModel()));
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = gameModel.perft(depth);
+            long elapsed = Math.max(1, System.nanoTime() - start);
+            System.out.printf("depth %2d  nodes %,15d  %,10.1f ms  %,14.0f nodes/s%n",
+                    depth, nodes, elapsed / 1e6, nodes * 1e9 / elapsed);
+        }
+    }
+}
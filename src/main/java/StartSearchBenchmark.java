@@ -0,0 +1,61 @@
+import chkEngine.ParallelSearch;
+import chkEngine.SearchLimits;
+import chkEngine.SearchResult;
+import chkEngine.TranspositionTable;
+import chkMVC.chModel.Checkers.BoardCodec;
+import chkMVC.chModel.Checkers.BoardGeometry;
+import chkMVC.chModel.Checkers.BoardModel;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+
+//Times the search to a fixed depth on a fixed set of English positions with 1, 2, 4 ... up to maxThreads threads,
+//and prints the time to depth, the nodes per second and the speedup over one thread.
+//Usage: StartSearchBenchmark [maxThreads] [depth] [tableMB]
+//The table is cleared before every position, so each run starts cold.
+public class StartSearchBenchmark {
+
+    private static final String[] POSITIONS = {
+            "W:W21,22,23,24,25,26,27,28,29,30,31,32:B1,2,3,4,5,6,7,8,9,10,11,12",
+            "W:W21,22,23,24,25,28,29,30,31,32:B1,2,4,5,7,8,10,14,15,16",
+            "W:W17,22,23,26,27,28,31,32:B1,2,5,8,9,10,12",
+            "W:W21,22,23,24,25,27,29,30,31,32:B1,3,5,7,8,9,10,11,12,14",
+            "W:W17,18,21,23,25,28,29,30,31,32:B1,2,4,5,6,8,9,11,14,16",
+            "B:W15,20,24,26,27,28,29,30:B1,2,3,4,5,8,9",
+            "W:W14,18,19,23,26,27,29,30,31,32:B1,2,4,5,6,7,8,9,11,16,24",
+    };
+
+    public static void main (String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        int tableMB = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        BoardModel[] boards = new BoardModel[POSITIONS.length];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = BoardCodec.fromFen(POSITIONS[i], BoardGeometry.EIGHT);
+        }
+
+        System.out.println("Search benchmark: " + boards.length + " positions to depth " + depth + ", "
+                + tableMB + " MB table, " + Runtime.getRuntime().availableProcessors() + " cores");
+        try (ParallelSearch search = new ParallelSearch(new TranspositionTable(tableMB), maxThreads - 1)) {
+            // Warm up the JIT first so one thread isn't timed cold
+            for (BoardModel board : boards) {
+                search.search(RULE_VARIANT.ENGLISH, board, SearchLimits.depth(Math.min(depth, 8)), maxThreads);
+            }
+
+            double singleThreadMs = 0;
+            for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+                long nodes = 0;
+                long elapsed = 0;
+                for (BoardModel board : boards) {
+                    search.getTable().clear();
+                    SearchResult result = search.search(RULE_VARIANT.ENGLISH, board, SearchLimits.depth(depth), threads);
+                    nodes += result.getNodes();
+                    elapsed += result.getElapsedNanos();
+                }
+                double ms = elapsed / 1e6;
+                if (threads == 1) singleThreadMs = ms;
+                System.out.printf("threads %2d  time %,10.1f ms  nodes %,14d  %,12.0f nodes/s  speedup %5.2fx%n",
+                        threads, ms, nodes, nodes * 1e9 / Math.max(1, elapsed), singleThreadMs / ms);
+            }
+        }
+    }
+}
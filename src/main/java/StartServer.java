@@ -1,11 +1,26 @@
+import chkMVC.chModel.Checkers.OpeningBook;
+import chkNetwork.Server.BotEngineExecutor;
 import chkNetwork.Server.CheckerNetworkService;
+import chkNetwork.Server.HintService;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 //Use the CheckerNetworkService to start a server @ the default port (5000)
+//Usage: StartServer [opening book files...], bots and hints use the books (see StartBookBuilder)
 public class StartServer {
     public static void main (String[] args) {
         final int DEFAULT_PORT = 5000;
+        for (String file : args) {
+            try {
+                OpeningBook book = OpeningBook.open(Path.of(file));
+                BotEngineExecutor.shared().useOpeningBook(book);
+                HintService.shared().useOpeningBook(book);
+                System.out.println("Loaded " + book.getVariant() + " opening book " + file + " (" + book.getEntryCount() + " moves).");
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Can't load opening book " + file + ": " + e.getMessage());
+            }
+        }
         CheckerNetworkService server = new CheckerNetworkService(DEFAULT_PORT);
         try {
             //Way to shut down the server from running.
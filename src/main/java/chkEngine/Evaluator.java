@@ -0,0 +1,100 @@
+package chkEngine;
+
+import chkMVC.chModel.Checkers.BoardGeometry;
+import chkMVC.chModel.Checkers.BoardModel;
+import chkMVC.chModel.Checkers.PIECE_TEAM;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+
+/**
+ * Evaluator
+ * <p>
+ * Static score of a position for the side to move, in hundredths of a man.
+ * Material first (kings are worth more where they fly), then small per square bonuses from tables worked out
+ * once per geometry: men are pushed forward but rewarded for guarding their back row, kings like the centre.
+ * The side that is ahead also gets a bonus for trading down, so a won position actually gets converted.
+ * <p>
+ * Only reads the masks, so a call is a handful of popcounts and table lookups. Immutable and thread safe.
+ */
+public final class Evaluator {
+
+    public static final int MAN = 100;
+
+    private final int kingValue;
+    private final int startingPieces;
+    private final int words;
+    // Per square bonuses, by square number
+    private final int[] whiteMan;
+    private final int[] blackMan;
+    private final int[] king;
+
+    public Evaluator (RULE_VARIANT variant) {
+        this(variant, variant.getGeometry());
+    }
+
+    public Evaluator (RULE_VARIANT variant, BoardGeometry geometry) {
+        // A flying king is worth a lot more than one that steps
+        this.kingValue = variant == RULE_VARIANT.ENGLISH || variant == RULE_VARIANT.ITALIAN ? 135 : 250;
+        this.startingPieces = geometry.getStartingRows() * geometry.getSize();
+        this.words = geometry.getWords();
+
+        int size = geometry.getSize();
+        int squares = geometry.getSquareCount();
+        whiteMan = new int[squares];
+        blackMan = new int[squares];
+        king = new int[squares];
+        for (int square = 0; square < squares; square++) {
+            int x = geometry.getX(square);
+            int y = geometry.getY(square);
+            whiteMan[square] = manBonus(y, size);
+            blackMan[square] = manBonus(size - 1 - y, size);
+            // Distance from the middle, counted in both directions
+            int dx = Math.abs(2 * x - (size - 1));
+            int dy = Math.abs(2 * y - (size - 1));
+            king[square] = size - (dx + dy) / 2;
+        }
+    }
+
+    // Bonus for a man rows rows away from its own back row. The row just before crowning is worth the most.
+    private static int manBonus (int rows, int size) {
+        if (rows == 0) return 6; // Guards the back row against kings
+        return rows + rows * rows * 24 / ((size - 1) * (size - 1));
+    }
+
+    public int getKingValue () {
+        return kingValue;
+    }
+
+    // Score for the side to move. Positive is good for them.
+    public int evaluate (BoardModel board) {
+        int white = 0, black = 0;
+        int whitePieces = 0, blackPieces = 0;
+        for (int w = 0; w < words; w++) {
+            long kings = board.getKingMask(w);
+            long whites = board.getWhiteMask(w);
+            long blacks = board.getBlackMask(w);
+            int base = w << 6;
+            whitePieces += Long.bitCount(whites);
+            blackPieces += Long.bitCount(blacks);
+            for (long rest = whites & ~kings; rest != 0; rest &= rest - 1) {
+                white += MAN + whiteMan[base + Long.numberOfTrailingZeros(rest)];
+            }
+            for (long rest = whites & kings; rest != 0; rest &= rest - 1) {
+                white += kingValue + king[base + Long.numberOfTrailingZeros(rest)];
+            }
+            for (long rest = blacks & ~kings; rest != 0; rest &= rest - 1) {
+                black += MAN + blackMan[base + Long.numberOfTrailingZeros(rest)];
+            }
+            for (long rest = blacks & kings; rest != 0; rest &= rest - 1) {
+                black += kingValue + king[base + Long.numberOfTrailingZeros(rest)];
+            }
+        }
+
+        int score = white - black;
+        // Trading down when ahead: the fewer pieces left, the more the same lead is worth
+        int lead = score / MAN;
+        if (lead != 0) {
+            score += lead * (startingPieces - whitePieces - blackPieces) * 2;
+        }
+        return board.getSideToMove() == PIECE_TEAM.BLACK ? -score : score;
+    }
+}
@@ -0,0 +1,141 @@
+package chkEngine;
+
+import chkMVC.chModel.Checkers.BoardModel;
+import chkMVC.chModel.Checkers.CheckersGameModel;
+import chkMVC.chModel.Checkers.OpeningBook;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ParallelSearch
+ * <p>
+ * Runs searches on more than one core with Lazy SMP: the calling thread and some helper threads all search the
+ * same position at the same time, sharing one TranspositionTable. Nothing else is shared or split up; the helpers
+ * just keep filling the table with results the main thread then finds instead of searching, and the main thread's
+ * result is the answer. Once it finishes the helpers are stopped.
+ * <p>
+ * Each search asks for a number of threads. Helpers come from maxHelpers permits shared by every search on this
+ * object, so however many searches run at once there are never more than maxHelpers helper threads. A search that
+ * can't get all the helpers it asked for runs with the ones it got (or none) rather than waiting.
+ * <p>
+ * With an OpeningBook for the variant (useOpeningBook), a position in the book is answered with a book move straight
+ * away and no threads are started.
+ * <p>
+ * Every thread keeps one SearchEngine per variant, all on the shared table. Thread safe.
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final int maxHelpers;
+    private final Semaphore helperPermits;
+    private final ExecutorService helpers;
+    private final Map<RULE_VARIANT, OpeningBook> books = new ConcurrentHashMap<>();
+    private final ThreadLocal<EnumMap<RULE_VARIANT, SearchEngine>> engines = ThreadLocal.withInitial(() -> new EnumMap<>(RULE_VARIANT.class));
+
+    public ParallelSearch (TranspositionTable table, int maxHelpers) {
+        if (maxHelpers < 0) {
+            throw new IllegalArgumentException("maxHelpers can't be negative: " + maxHelpers);
+        }
+        this.table = table;
+        this.maxHelpers = maxHelpers;
+        this.helperPermits = new Semaphore(maxHelpers);
+        AtomicInteger threadCount = new AtomicInteger();
+        // Never more threads than permits, so this can be a cached pool
+        this.helpers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "search-helper-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public TranspositionTable getTable () {
+        return table;
+    }
+
+    public int getMaxHelpers () {
+        return maxHelpers;
+    }
+
+    // Looks positions of the book's variant up in book before searching them, replacing any book that variant had.
+    public void useOpeningBook (OpeningBook book) {
+        books.put(book.getVariant(), book);
+    }
+
+    // Helper threads not taken by a running search right now.
+    public int getIdleHelpers () {
+        return helperPermits.availablePermits();
+    }
+
+    // Searches the game's current position with up to threads threads, the calling one included.
+    public SearchResult search (CheckersGameModel game, SearchLimits limits, int threads) {
+        return search(game.getVariant(), game.getBoardModel(), limits, threads);
+    }
+
+    /**
+     * Searches position under variant's rules with up to threads threads, the calling one included.
+     * The nodes in the result are every thread's together.
+     */
+    public SearchResult search (RULE_VARIANT variant, BoardModel position, SearchLimits limits, int threads) {
+        OpeningBook book = books.get(variant);
+        if (book != null) {
+            SearchResult bookMove = engineFor(variant).bookMove(position, book, ThreadLocalRandom.current());
+            if (bookMove != null) return bookMove;
+        }
+
+        int wanted = Math.max(0, threads - 1);
+        int granted = 0;
+        while (granted < wanted && helperPermits.tryAcquire()) {
+            granted++;
+        }
+
+        AtomicBoolean stopAll = new AtomicBoolean();
+        List<Future<SearchResult>> running = new ArrayList<>(granted);
+        try {
+            // Helpers work until the main thread is done, however deep it went
+            SearchLimits helperLimits = new SearchLimits(limits.getMaxDepth(), limits.getTimeMillis(), 0);
+            for (int helper = 1; helper <= granted; helper++) {
+                int id = helper;
+                running.add(helpers.submit(() -> engineFor(variant).search(position, helperLimits, id, stopAll)));
+            }
+
+            SearchResult result = engineFor(variant).search(position, limits, 0, stopAll);
+            stopAll.set(true);
+            long nodes = result.getNodes();
+            for (Future<SearchResult> future : running) {
+                nodes += future.get().getNodes();
+            }
+            return result.withNodes(nodes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for search helpers.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search helper failed.", e.getCause());
+        } finally {
+            stopAll.set(true);
+            helperPermits.release(granted);
+        }
+    }
+
+    private SearchEngine engineFor (RULE_VARIANT variant) {
+        return engines.get().computeIfAbsent(variant, v -> new SearchEngine(v, table));
+    }
+
+    // Stops the helper threads. Searches still running lose their helpers.
+    @Override
+    public void close () {
+        helpers.shutdownNow();
+    }
+}
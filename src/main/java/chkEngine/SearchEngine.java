@@ -0,0 +1,409 @@
+package chkEngine;
+
+import chkMVC.chModel.Checkers.BoardCodec;
+import chkMVC.chModel.Checkers.BoardGeometry;
+import chkMVC.chModel.Checkers.BoardModel;
+import chkMVC.chModel.Checkers.CheckersGameModel;
+import chkMVC.chModel.Checkers.MoveList;
+import chkMVC.chModel.Checkers.OpeningBook;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+/**
+ * SearchEngine
+ * <p>
+ * Finds a move for the side to move: iterative deepening alpha-beta (principal variation search) with a capture
+ * quiescence search at the leaves. Every iteration starts with the previous one's best line, then killer and
+ * history moves, so the deeper searches cut off early and cost little more than the last one.
+ * <p>
+ * Captures are forced in every variant, so a leaf where the side to move has a capture is not scored as it stands,
+ * the captures are played out first (quiescence). A move that is the only legal one doesn't use up depth either.
+ * <p>
+ * Results go into a TranspositionTable, which can be shared by many engines (on many threads): a position any of them
+ * has searched deep enough is not searched again, and its best move is tried first when it is.
+ * <p>
+ * Works on its own copy of the position with doMove/undoMove and reuses all of its buffers, so a search allocates
+ * next to nothing. One engine per thread, it is not thread safe; stop() is the one call another thread can make.
+ * <p>
+ * Draws by repetition are only seen inside the search (a position coming back on the current line scores 0),
+ * the game's earlier positions and the move limit are not known to it.
+ */
+public final class SearchEngine {
+
+    public static final int WIN = 30000;             // Score of a win right now, a win in n plies is WIN - n
+    static final int WIN_BOUND = WIN - 1000;          // Anything past this is a forced result, not an evaluation
+    private static final int INFINITY = WIN + 1;
+    private static final int MAX_PLY = 128;
+    private static final int CHECK_EVERY = 1023;      // Nodes between looks at the clock, minus one (power of two)
+    public static final int DEFAULT_TABLE_MB = 4;      // Table size when the engine makes its own
+    private static final int NO_CUTOFF = Integer.MIN_VALUE;
+
+    // Move ordering scores, higher is searched first
+    private static final int PV_MOVE = 1 << 30;
+    private static final int HASH_MOVE = 1 << 29;
+    private static final int CAPTURE = 1 << 24;
+    private static final int KILLER = 1 << 22;
+
+    private final RULE_VARIANT variant;
+    private final BoardGeometry geometry;
+    private final CheckersGameModel gameModel;
+    private final BoardModel board;
+    private final Evaluator evaluator;
+    private final byte[] positionBytes;
+    private final TranspositionTable table;
+    private final long keySalt; // Mixed into table keys, so variants sharing a table never see each other's entries
+
+    // Per ply buffers
+    private final MoveList[] moves = new MoveList[MAX_PLY];
+    private final MoveList[] lines = new MoveList[MAX_PLY + 1]; // Best line found from each ply
+    private final int[][] orderIndex = new int[MAX_PLY][];
+    private final int[][] orderScore = new int[MAX_PLY][];
+    private final long[] keys = new long[MAX_PLY + 1];
+    private final int[] lastIrreversible = new int[MAX_PLY + 1]; // Ply of the last capture or man move on the line
+    private final int[] killers = new int[MAX_PLY * 2];           // Two quiet moves per ply (from | to << 8) that cut off
+    private final int[] history;                                  // By from * squares + to, how often a quiet move cut off
+
+    private final MoveList previousLine;
+    private boolean followPv;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private int completedDepth;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private AtomicBoolean stopAll; // Set by ParallelSearch for the threads of one search, null otherwise
+
+    public SearchEngine (RULE_VARIANT variant) {
+        this(variant, new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+
+    public SearchEngine (RULE_VARIANT variant, TranspositionTable table) {
+        this.variant = variant;
+        this.table = table;
+        this.keySalt = (variant.ordinal() + 1) * 0x9E3779B97F4A7C15L;
+        this.geometry = variant.getGeometry();
+        this.gameModel = new CheckersGameModel(new BoardModel(geometry), variant.newRuleSet(), false);
+        this.board = gameModel.getBoardModel();
+        this.evaluator = new Evaluator(variant, geometry);
+        this.positionBytes = new byte[BoardCodec.binaryLength(geometry)];
+        this.history = new int[geometry.getSquareCount() * geometry.getSquareCount()];
+        this.previousLine = new MoveList(geometry, MAX_PLY);
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moves[ply] = new MoveList(geometry);
+            orderIndex[ply] = new int[32];
+            orderScore[ply] = new int[32];
+        }
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            lines[ply] = new MoveList(geometry, 16);
+        }
+    }
+
+    public RULE_VARIANT getVariant () {
+        return variant;
+    }
+
+    public TranspositionTable getTable () {
+        return table;
+    }
+
+    /**
+     * Searches the game's current position. The game itself is not touched.
+     *
+     * @throws IllegalArgumentException if the game is played with other rules than this engine.
+     */
+    public SearchResult search (CheckersGameModel game, SearchLimits limits) {
+        if (game.getVariant() != variant) {
+            throw new IllegalArgumentException("Engine plays " + variant + ", the game is " + game.getVariant());
+        }
+        return search(game.getBoardModel(), limits);
+    }
+
+    // Searches position under this engine's rules. The board itself is not touched.
+    public SearchResult search (BoardModel position, SearchLimits limits) {
+        stopRequested = false;
+        return search(position, limits, 0, null);
+    }
+
+    /**
+     * One thread of a Lazy SMP search (see ParallelSearch), helper 0 is the main one.
+     * Helpers leave the table's age alone and start one ply deeper every other thread, so the threads spread
+     * over different depths and fill the shared table for each other. All of them stop once stopAll is set.
+     */
+    SearchResult search (BoardModel position, SearchLimits limits, int helper, AtomicBoolean stopAll) {
+        if (position.getGeometry() != geometry) {
+            throw new IllegalArgumentException("Engine plays on " + geometry + ", the board is " + position.getGeometry());
+        }
+        long start = System.nanoTime();
+        BoardCodec.writeBinary(position, positionBytes, 0);
+        BoardCodec.readBinary(positionBytes, 0, board);
+
+        nodes = 0;
+        nodeLimit = limits.getMaxNodes() > 0 ? limits.getMaxNodes() : Long.MAX_VALUE;
+        deadline = limits.getTimeMillis() > 0 ? start + limits.getTimeMillis() * 1_000_000 : Long.MAX_VALUE;
+        completedDepth = 0;
+        aborted = false;
+        this.stopAll = stopAll;
+        previousLine.clear();
+        Arrays.fill(killers, 0);
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 2; // Keep a little of what the last search learned
+        }
+        lastIrreversible[0] = 0;
+        if (helper == 0) table.newSearch();
+
+        int score = 0;
+        for (int depth = 1 + (helper & 1); depth <= limits.getMaxDepth(); depth++) {
+            followPv = true;
+            int iterationScore = alphaBeta(depth, 0, -INFINITY, INFINITY);
+            if (aborted) break;
+            score = iterationScore;
+            completedDepth = depth;
+            previousLine.clear();
+            for (int i = 0; i < lines[0].size(); i++) {
+                previousLine.addCopy(lines[0], i);
+            }
+            // Nothing to think about, or the result is already forced
+            if (moves[0].size() <= 1 || Math.abs(score) >= WIN_BOUND) break;
+        }
+
+        MoveList line = new MoveList(geometry, Math.max(1, previousLine.size()));
+        for (int i = 0; i < previousLine.size(); i++) {
+            line.addCopy(previousLine, i);
+        }
+        return new SearchResult(line, score, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * The book's move for position as a one move result, picked at random weighted by games (see OpeningBook.pick),
+     * or null if the position isn't in the book. The score is the book's score scaled to a man for a sure win.
+     */
+    SearchResult bookMove (BoardModel position, OpeningBook book, RandomGenerator random) {
+        if (book.getVariant() != variant || position.getGeometry() != geometry) return null;
+        long start = System.nanoTime();
+        BoardCodec.writeBinary(position, positionBytes, 0);
+        BoardCodec.readBinary(positionBytes, 0, board);
+        MoveList list = moves[0];
+        gameModel.generateLegalMoves(list);
+        OpeningBook.BookMove move = OpeningBook.pick(book.lookup(board, list), random);
+        if (move == null) return null;
+        MoveList line = new MoveList(geometry, 1);
+        line.addCopy(list, move.getMoveIndex());
+        return new SearchResult(line, move.getScore() * Evaluator.MAN / 1000, 0, 0, System.nanoTime() - start, true);
+    }
+
+    // Asks a running search to stop as soon as it can. It still returns the last finished iteration.
+    public void stop () {
+        stopRequested = true;
+    }
+
+    private int alphaBeta (int depth, int ply, int alpha, int beta) {
+        lines[ply].clear();
+        if ((++nodes & CHECK_EVERY) == 0 || nodes >= nodeLimit) {
+            if (outOfBudget()) {
+                aborted = true;
+                return 0;
+            }
+        }
+
+        long key = board.positionKey();
+        keys[ply] = key;
+        // Same position with the same side to move earlier on this line: a repetition, call it a draw
+        for (int p = ply - 4; p >= lastIrreversible[ply]; p -= 2) {
+            if (keys[p] == key) return 0;
+        }
+
+        // Quiet leaves are never stored, so only look them up once the position turns out to have captures
+        long tableKey = key ^ keySalt;
+        long entry = 0;
+        if (depth > 0) {
+            entry = table.probe(tableKey);
+            int stored = tableCutoff(entry, depth, ply, alpha, beta);
+            if (stored != NO_CUTOFF) return stored;
+        }
+
+        MoveList list = moves[ply];
+        int count = gameModel.generateLegalMoves(list);
+        if (count == 0) return -WIN + ply;
+        boolean captures = list.isCapture(0);
+        // A quiet leaf: nothing is forced any more, so the evaluation can be trusted
+        if ((depth <= 0 && !captures) || ply >= MAX_PLY - 1) return evaluator.evaluate(board);
+        if (depth <= 0) {
+            entry = table.probe(tableKey);
+            int stored = tableCutoff(entry, depth, ply, alpha, beta);
+            if (stored != NO_CUTOFF) return stored;
+        }
+
+        // The only move doesn't count as a ply of depth
+        int childDepth = count == 1 && depth > 0 ? depth : depth - 1;
+        int[] index = orderIndex(ply, count);
+        int[] score = orderScore[ply];
+        int pvIndex = scoreMoves(list, count, ply, captures, entry == 0 ? 0 : TranspositionTable.getMove(entry), index, score);
+        boolean onPv = followPv;
+        followPv = false;
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = 0;
+        for (int n = 0; n < count; n++) {
+            int i = pickNext(index, score, n, count);
+            int from = list.getFrom(i);
+            boolean irreversible = captures || (board.getKingMask(from >>> 6) & (1L << from)) == 0;
+
+            gameModel.doMove(list, i);
+            lastIrreversible[ply + 1] = irreversible ? ply + 1 : lastIrreversible[ply];
+            followPv = onPv && i == pvIndex;
+            int value;
+            if (n == 0) {
+                value = -alphaBeta(childDepth, ply + 1, -beta, -alpha);
+            } else {
+                // Expect the first move to stay best, prove it with a null window and search again only if it doesn't
+                value = -alphaBeta(childDepth, ply + 1, -alpha - 1, -alpha);
+                if (value > alpha && value < beta && !aborted) {
+                    value = -alphaBeta(childDepth, ply + 1, -beta, -alpha);
+                }
+            }
+            followPv = false;
+            gameModel.undoMove();
+            if (aborted) return 0;
+
+            if (value > best) {
+                best = value;
+                bestMove = list.getFrom(i) | list.getTo(i) << 8;
+                if (value > alpha) {
+                    alpha = value;
+                    MoveList line = lines[ply];
+                    line.clear();
+                    line.addCopy(list, i);
+                    MoveList rest = lines[ply + 1];
+                    for (int r = 0; r < rest.size(); r++) {
+                        line.addCopy(rest, r);
+                    }
+                    if (value >= beta) {
+                        if (!captures) rememberCutoff(list, i, ply, depth);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(tableKey, bestMove, depth, bound, toTable(best, ply));
+        return best;
+    }
+
+    // The stored score if the entry settles this node (deep enough, and its bound fits the window), else NO_CUTOFF.
+    private static int tableCutoff (long entry, int depth, int ply, int alpha, int beta) {
+        // Only null window nodes cut off, so the principal variation is always searched out in full
+        if (entry == 0 || ply == 0 || beta - alpha != 1 || TranspositionTable.getDepth(entry) < Math.max(depth, 0)) {
+            return NO_CUTOFF;
+        }
+        int score = fromTable(TranspositionTable.getScore(entry), ply);
+        int bound = TranspositionTable.getBound(entry);
+        if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER && score >= beta)
+                || (bound == TranspositionTable.UPPER && score <= alpha)) {
+            return score;
+        }
+        return NO_CUTOFF;
+    }
+
+    // Wins are stored as plies from the stored position, not from the root, so they stay right wherever it turns up again.
+    private static int toTable (int score, int ply) {
+        if (score >= WIN_BOUND) return score + ply;
+        if (score <= -WIN_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int fromTable (int score, int ply) {
+        if (score >= WIN_BOUND) return score - ply;
+        if (score <= -WIN_BOUND) return score + ply;
+        return score;
+    }
+
+    private boolean outOfBudget () {
+        // The first iteration always finishes, so there is a move to return
+        if (completedDepth == 0) return false;
+        return stopRequested || (stopAll != null && stopAll.get()) || nodes >= nodeLimit || System.nanoTime() >= deadline;
+    }
+
+    private int[] orderIndex (int ply, int count) {
+        if (orderIndex[ply].length < count) {
+            orderIndex[ply] = new int[count * 2];
+            orderScore[ply] = new int[count * 2];
+        }
+        return orderIndex[ply];
+    }
+
+    // Fills the ordering scores, returns the index of the previous iteration's move at this ply if there is one.
+    private int scoreMoves (MoveList list, int count, int ply, boolean captures, int hashMove, int[] index, int[] score) {
+        int pvIndex = -1;
+        boolean onPv = followPv && ply < previousLine.size();
+        int squares = geometry.getSquareCount();
+        for (int i = 0; i < count; i++) {
+            index[i] = i;
+            int from = list.getFrom(i);
+            int to = list.getTo(i);
+            if (onPv && pvIndex < 0 && sameMove(list, i, previousLine, ply)) {
+                pvIndex = i;
+                score[i] = PV_MOVE;
+            } else if (hashMove != 0 && (from | to << 8) == hashMove) {
+                score[i] = HASH_MOVE;
+            } else if (captures) {
+                // Bigger captures first
+                int taken = 0;
+                for (int w = 0; w < geometry.getWords(); w++) {
+                    taken += Long.bitCount(list.getCapturedMask(i, w));
+                }
+                score[i] = CAPTURE + taken;
+            } else {
+                int move = from | to << 8;
+                if (move == killers[ply * 2]) score[i] = KILLER + 1;
+                else if (move == killers[ply * 2 + 1]) score[i] = KILLER;
+                else score[i] = Math.min(history[from * squares + to], KILLER - 1);
+            }
+        }
+        return pvIndex;
+    }
+
+    // Selection sort one step at a time, most nodes cut off after the first move or two.
+    private static int pickNext (int[] index, int[] score, int n, int count) {
+        int best = n;
+        for (int j = n + 1; j < count; j++) {
+            if (score[j] > score[best]) best = j;
+        }
+        if (best != n) {
+            int i = index[n];
+            index[n] = index[best];
+            index[best] = i;
+            int s = score[n];
+            score[n] = score[best];
+            score[best] = s;
+        }
+        return index[n];
+    }
+
+    private void rememberCutoff (MoveList list, int i, int ply, int depth) {
+        int from = list.getFrom(i);
+        int to = list.getTo(i);
+        int move = from | to << 8;
+        if (killers[ply * 2] != move) {
+            killers[ply * 2 + 1] = killers[ply * 2];
+            killers[ply * 2] = move;
+        }
+        if (depth > 0) {
+            history[from * geometry.getSquareCount() + to] += depth * depth;
+        }
+    }
+
+    // True if move i of a and move j of b are the same move (same squares and captures).
+    static boolean sameMove (MoveList a, int i, MoveList b, int j) {
+        if (a.getFrom(i) != b.getFrom(j) || a.getTo(i) != b.getTo(j)) return false;
+        for (int w = 0; w < a.getGeometry().getWords(); w++) {
+            if (a.getCapturedMask(i, w) != b.getCapturedMask(j, w)) return false;
+        }
+        return true;
+    }
+}
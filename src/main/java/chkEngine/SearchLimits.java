@@ -0,0 +1,54 @@
+package chkEngine;
+
+/**
+ * SearchLimits
+ * <p>
+ * When a search has to stop: a depth, a time budget and a node budget. Whichever runs out first ends it.
+ * A limit of 0 means no limit. The first iteration (depth 1) always finishes, so there is always a move.
+ */
+public final class SearchLimits {
+
+    public static final int MAX_DEPTH = 64;
+
+    private final int maxDepth;
+    private final long timeMillis;
+    private final long maxNodes;
+
+    public SearchLimits (int maxDepth, long timeMillis, long maxNodes) {
+        if (maxDepth < 0 || timeMillis < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("Search limits can't be negative.");
+        }
+        this.maxDepth = maxDepth == 0 ? MAX_DEPTH : Math.min(maxDepth, MAX_DEPTH);
+        this.timeMillis = timeMillis;
+        this.maxNodes = maxNodes;
+    }
+
+    public static SearchLimits depth (int maxDepth) {
+        return new SearchLimits(maxDepth, 0, 0);
+    }
+
+    public static SearchLimits time (long timeMillis) {
+        return new SearchLimits(0, timeMillis, 0);
+    }
+
+    public static SearchLimits nodes (long maxNodes) {
+        return new SearchLimits(0, 0, maxNodes);
+    }
+
+    public int getMaxDepth () {
+        return maxDepth;
+    }
+
+    public long getTimeMillis () {
+        return timeMillis;
+    }
+
+    public long getMaxNodes () {
+        return maxNodes;
+    }
+
+    @Override
+    public String toString () {
+        return "depth " + maxDepth + (timeMillis > 0 ? ", " + timeMillis + " ms" : "") + (maxNodes > 0 ? ", " + maxNodes + " nodes" : "");
+    }
+}
@@ -0,0 +1,122 @@
+package chkEngine;
+
+import chkMVC.chModel.Checkers.BoardGeometry;
+import chkMVC.chModel.Checkers.MoveList;
+import chkMVC.chModel.Checkers.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SearchResult
+ * <p>
+ * What a search found: the principal variation (the line both sides are expected to play, best move first),
+ * its score for the side to move and how much work it took. Immutable.
+ */
+public final class SearchResult {
+
+    private final MoveList principalVariation;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final boolean fromBook;
+
+    SearchResult (MoveList principalVariation, int score, int depth, long nodes, long elapsedNanos) {
+        this(principalVariation, score, depth, nodes, elapsedNanos, false);
+    }
+
+    SearchResult (MoveList principalVariation, int score, int depth, long nodes, long elapsedNanos, boolean fromBook) {
+        this.principalVariation = principalVariation;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.fromBook = fromBook;
+    }
+
+    // The same result with the node count of every thread that helped.
+    SearchResult withNodes (long totalNodes) {
+        return new SearchResult(principalVariation, score, depth, totalNodes, elapsedNanos, fromBook);
+    }
+
+    // False when the side to move had no legal move, there is nothing to play.
+    public boolean hasMove () {
+        return !principalVariation.isEmpty();
+    }
+
+    /**
+     * The best move as a path, from square first, the same form makeMove and the MOVE_PIECE message take.
+     *
+     * @throws IllegalStateException if there is no move (see hasMove).
+     */
+    public List<Position> getBestPath () {
+        if (!hasMove()) {
+            throw new IllegalStateException("No legal move in this position.");
+        }
+        return pathOf(0);
+    }
+
+    // The path of the ply'th move of the principal variation.
+    public List<Position> pathOf (int ply) {
+        BoardGeometry geometry = principalVariation.getGeometry();
+        List<Position> path = new ArrayList<>(principalVariation.getPathLength(ply) + 1);
+        path.add(geometry.positionOf(principalVariation.getFrom(ply)));
+        for (int step = 0; step < principalVariation.getPathLength(ply); step++) {
+            path.add(geometry.positionOf(principalVariation.getPathSquare(ply, step)));
+        }
+        return path;
+    }
+
+    // A copy of the principal variation, one move per ply.
+    public MoveList getPrincipalVariation () {
+        MoveList copy = new MoveList(principalVariation.getGeometry(), Math.max(1, principalVariation.size()));
+        for (int i = 0; i < principalVariation.size(); i++) {
+            copy.addCopy(principalVariation, i);
+        }
+        return copy;
+    }
+
+    public int getPrincipalVariationLength () {
+        return principalVariation.size();
+    }
+
+    // Score for the side to move, in hundredths of a man. See isWin / isLoss for forced results.
+    public int getScore () {
+        return score;
+    }
+
+    // True if the side to move can force a win (within the depth searched).
+    public boolean isWin () {
+        return score >= SearchEngine.WIN_BOUND;
+    }
+
+    public boolean isLoss () {
+        return score <= -SearchEngine.WIN_BOUND;
+    }
+
+    // Deepest iteration that finished.
+    public int getDepth () {
+        return depth;
+    }
+
+    public long getNodes () {
+        return nodes;
+    }
+
+    public long getElapsedNanos () {
+        return elapsedNanos;
+    }
+
+    // True if the move came from an OpeningBook and nothing was searched (depth and nodes are 0).
+    public boolean isFromBook () {
+        return fromBook;
+    }
+
+    @Override
+    public String toString () {
+        if (fromBook) return "SearchResult[book, score " + score + ", pv " + principalVariation + "]";
+        return "SearchResult[depth " + depth + ", score " + score + ", nodes " + nodes
+                + ", " + elapsedNanos / 1_000_000 + " ms, pv " + principalVariation + "]";
+    }
+}
@@ -0,0 +1,194 @@
+package chkEngine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TranspositionTable
+ * <p>
+ * Fixed size cache of search results by position key, so a position reached again (by another move order,
+ * the next iteration, another bot's search) is not searched again. Sized in megabytes when it's made.
+ * <p>
+ * Every entry is two longs in one long[]: the key XOR the data, then the data. The data packs the best move
+ * (from | to << 8), the depth, the bound, the search age and the score. Entries are written and read without any lock;
+ * a read only counts if the key XOR the data it read gives back the key it looked for, so an entry half written by
+ * another thread (or a different position in the same slot) just reads as a miss. That makes one table safe to share
+ * between any number of search threads.
+ * <p>
+ * Entries come in buckets of BUCKET_ENTRIES (one 64 byte cache line). A store replaces the same position if it is in
+ * the bucket, otherwise the entry worth the least: shallow ones, and ones left over from older searches (see newSearch).
+ */
+public final class TranspositionTable {
+
+    public static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_LONGS = BUCKET_ENTRIES * 2;
+
+    // Bounds
+    static final int UPPER = 1; // Score is at most this (nothing beat alpha)
+    static final int LOWER = 2; // Score is at least this (beta cut off)
+    static final int EXACT = 3;
+
+    // Data layout
+    private static final int DEPTH_SHIFT = 16;
+    private static final int BOUND_SHIFT = 24;
+    private static final int AGE_SHIFT = 26;
+    private static final int SCORE_SHIFT = 34;
+    private static final int SCORE_OFFSET = 1 << 15; // Scores are stored unsigned in 16 bits
+
+    private static final int FILL_SAMPLE_BUCKETS = 1000;
+
+    private final long[] slots;
+    private final long bucketMask;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    public TranspositionTable (int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("A transposition table needs at least 1 MB, not " + megabytes);
+        }
+        // Round down to a power of two number of buckets, so a bucket is picked with a mask
+        long buckets = Long.highestOneBit(megabytes * (1L << 20) / (BUCKET_LONGS * Long.BYTES));
+        if (buckets * BUCKET_LONGS > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Transposition table of " + megabytes + " MB is too big.");
+        }
+        this.slots = new long[(int) (buckets * BUCKET_LONGS)];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * The data stored for key, or 0 if there is none. Use the static getters to unpack it.
+     * A hit can still be a different position with the same 64 bit key, callers check the move is legal.
+     */
+    public long probe (long key) {
+        probes.increment();
+        int base = bucket(key);
+        long[] slots = this.slots;
+        for (int i = base; i < base + BUCKET_LONGS; i += 2) {
+            long data = slots[i + 1];
+            if ((slots[i] ^ data) == key && data != 0) {
+                hits.increment();
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    public void store (long key, int move, int depth, int bound, int score) {
+        stores.increment();
+        int base = bucket(key);
+        long[] slots = this.slots;
+        int currentAge = age;
+
+        int victim = base;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_LONGS; i += 2) {
+            long old = slots[i + 1];
+            if (old == 0 || (slots[i] ^ old) == key) {
+                // Same position: keep its move if this result didn't find one
+                if (move == 0 && old != 0) move = getMove(old);
+                victim = i;
+                break;
+            }
+            int stale = (currentAge - getAge(old)) & 0xFF;
+            int worth = getDepth(old) - 4 * stale;
+            if (worth < victimWorth) {
+                victimWorth = worth;
+                victim = i;
+            }
+        }
+
+        long data = (move & 0xFFFFL)
+                | (long) (Math.max(0, Math.min(depth, 0xFF))) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) (currentAge & 0xFF) << AGE_SHIFT
+                | (long) (score + SCORE_OFFSET & 0xFFFF) << SCORE_SHIFT;
+        slots[victim] = key ^ data;
+        slots[victim + 1] = data;
+    }
+
+    private int bucket (long key) {
+        // The low key bits pick the bucket, the whole key is still checked
+        return (int) (key & bucketMask) * BUCKET_LONGS;
+    }
+
+    // Call at the start of each new search (not for every helper thread), older entries then get replaced first.
+    public void newSearch () {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear () {
+        Arrays.fill(slots, 0L);
+        probes.reset();
+        hits.reset();
+        stores.reset();
+    }
+
+    static int getMove (long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    static int getDepth (long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    static int getBound (long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    static int getAge (long data) {
+        return (int) (data >>> AGE_SHIFT) & 0xFF;
+    }
+
+    static int getScore (long data) {
+        return (int) ((data >>> SCORE_SHIFT) & 0xFFFF) - SCORE_OFFSET;
+    }
+
+    // --- Counters
+
+    public long getSizeBytes () {
+        return (long) slots.length * Long.BYTES;
+    }
+
+    public long getEntries () {
+        return slots.length / 2;
+    }
+
+    public long getProbes () {
+        return probes.sum();
+    }
+
+    public long getHits () {
+        return hits.sum();
+    }
+
+    public long getStores () {
+        return stores.sum();
+    }
+
+    // Hits per probe since the table was made or cleared, 0 to 1.
+    public double getHitRate () {
+        long p = probes.sum();
+        return p == 0 ? 0 : (double) hits.sum() / p;
+    }
+
+    // Roughly how full the table is with entries from the current search, in thousandths. Looks at a sample of buckets.
+    public int getFillPermille () {
+        int buckets = (int) Math.min(FILL_SAMPLE_BUCKETS, bucketMask + 1);
+        int currentAge = age;
+        int used = 0;
+        for (int i = 0; i < buckets * BUCKET_LONGS; i += 2) {
+            long data = slots[i + 1];
+            if (data != 0 && getAge(data) == currentAge) used++;
+        }
+        return used * 1000 / (buckets * BUCKET_ENTRIES);
+    }
+
+    @Override
+    public String toString () {
+        return "TranspositionTable[" + getSizeBytes() / (1 << 20) + " MB, " + getProbes() + " probes, "
+                + String.format("%.1f%% hits, ", getHitRate() * 100) + getFillPermille() + "/1000 full]";
+    }
+}
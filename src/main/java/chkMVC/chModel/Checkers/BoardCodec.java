@@ -0,0 +1,253 @@
+package chkMVC.chModel.Checkers;
+
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
+
+/**
+ * BoardCodec
+ * <p>
+ * Turns a BoardModel (pieces plus side to move) into a compact canonical form and back.
+ * There are two forms:
+ * <p>
+ * PDN FEN, e.g. "W:W21,22,23,K32:B1,2,3" - the side to move, then the squares of each colour,
+ * with K in front of kings. Squares use the PDN numbering: 1 is the top left playable square
+ * (black's side) and the numbers go left to right, top to bottom, so white starts on the high numbers.
+ * <p>
+ * Binary - the white, black and king masks, ceil(squares / 8) bytes each (least significant byte first),
+ * then one byte for the side to move (0 white, 1 black). That is 13 bytes for an 8x8 board.
+ * <p>
+ * Both parsers read straight from the input, without regex, splitting or building collections.
+ */
+public final class BoardCodec {
+
+    private static final byte WHITE_TO_MOVE = 0;
+    private static final byte BLACK_TO_MOVE = 1;
+
+    private BoardCodec () {
+    }
+
+    // --- PDN FEN
+
+    public static String toFen (BoardModel board) {
+        return appendFen(board, new StringBuilder(128)).toString();
+    }
+
+    // Appends the FEN of the board to sb and returns sb.
+    public static StringBuilder appendFen (BoardModel board, StringBuilder sb) {
+        sb.append(board.getSideToMove() == PIECE_TEAM.BLACK ? 'B' : 'W');
+        appendFenColour(board, PIECE_TEAM.WHITE, sb);
+        appendFenColour(board, PIECE_TEAM.BLACK, sb);
+        return sb;
+    }
+
+    private static void appendFenColour (BoardModel board, PIECE_TEAM team, StringBuilder sb) {
+        BoardGeometry geometry = board.getGeometry();
+        sb.append(':').append(team == PIECE_TEAM.WHITE ? 'W' : 'B');
+        boolean first = true;
+        // Walk in PDN order so the output is canonical
+        for (int number = 1; number <= geometry.getSquareCount(); number++) {
+            byte code = board.getPieceCode(squareOfNumber(geometry, number));
+            if (code == PieceCode.EMPTY || PieceCode.team(code) != team) continue;
+            if (!first) sb.append(',');
+            if (PieceCode.isKing(code)) sb.append('K');
+            sb.append(number);
+            first = false;
+        }
+    }
+
+    /**
+     * Replaces the contents of board (pieces and side to move) with the position in fen.
+     * Accepts number ranges ("W1-4") and an optional trailing '.', which some PDN tools write.
+     * The board is only changed once the whole string has been read without errors.
+     *
+     * @throws IllegalArgumentException if fen is not a valid FEN for the board's geometry.
+     */
+    public static void parseFen (CharSequence fen, BoardModel board) {
+        BoardGeometry geometry = board.getGeometry();
+        int squareCount = geometry.getSquareCount();
+        int length = fen.length();
+        while (length > 0 && (fen.charAt(length - 1) == '.' || fen.charAt(length - 1) == ' ')) length--;
+
+        if (length < 1) throw badFen(fen, "empty");
+        PIECE_TEAM turn = fenColour(fen, 0);
+
+        // Two words cover every supported board (72 squares max)
+        long white0 = 0, white1 = 0, black0 = 0, black1 = 0, king0 = 0, king1 = 0;
+
+        int i = 1;
+        while (i < length) {
+            if (fen.charAt(i) != ':' || i + 1 >= length) throw badFen(fen, "expected ':' and a colour at " + i);
+            boolean white = fenColour(fen, i + 1) == PIECE_TEAM.WHITE;
+            i += 2;
+
+            // Comma separated list of [K]number or [K]number-number, may be empty
+            while (i < length && fen.charAt(i) != ':') {
+                if (fen.charAt(i) == ',') i++;
+                boolean king = i < length && fen.charAt(i) == 'K';
+                if (king) i++;
+
+                int start = i;
+                int first = 0;
+                while (i < length && isDigit(fen.charAt(i))) first = first * 10 + (fen.charAt(i++) - '0');
+                if (i == start) throw badFen(fen, "expected a square number at " + start);
+                int last = first;
+                if (i < length && fen.charAt(i) == '-') {
+                    start = ++i;
+                    last = 0;
+                    while (i < length && isDigit(fen.charAt(i))) last = last * 10 + (fen.charAt(i++) - '0');
+                    if (i == start) throw badFen(fen, "expected a square number at " + start);
+                }
+                if (first < 1 || last > squareCount || first > last) {
+                    throw badFen(fen, "square out of range " + first + "-" + last);
+                }
+                if (i < length && fen.charAt(i) != ',' && fen.charAt(i) != ':') {
+                    throw badFen(fen, "unexpected '" + fen.charAt(i) + "' at " + i);
+                }
+
+                for (int number = first; number <= last; number++) {
+                    int square = squareOfNumber(geometry, number);
+                    long bit = 1L << square;
+                    if (square < 64) {
+                        if (((white0 | black0) & bit) != 0) throw badFen(fen, "square " + number + " listed twice");
+                        if (white) white0 |= bit;
+                        else black0 |= bit;
+                        if (king) king0 |= bit;
+                    } else {
+                        if (((white1 | black1) & bit) != 0) throw badFen(fen, "square " + number + " listed twice");
+                        if (white) white1 |= bit;
+                        else black1 |= bit;
+                        if (king) king1 |= bit;
+                    }
+                }
+            }
+        }
+
+        board.load(white0, black0, king0, white1, black1, king1, turn);
+    }
+
+    // Makes a new board with the position in fen on it.
+    public static BoardModel fromFen (CharSequence fen, BoardGeometry geometry) {
+        BoardModel board = new BoardModel(geometry);
+        parseFen(fen, board);
+        return board;
+    }
+
+    private static PIECE_TEAM fenColour (CharSequence fen, int index) {
+        char c = fen.charAt(index);
+        if (c == 'W' || c == 'w') return PIECE_TEAM.WHITE;
+        if (c == 'B' || c == 'b') return PIECE_TEAM.BLACK;
+        throw badFen(fen, "expected W or B at " + index);
+    }
+
+    private static boolean isDigit (char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException badFen (CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN (" + reason + "): " + fen);
+    }
+
+    // PDN square number (1 based, from the top left) -> BoardModel square (0 based, from the bottom left)
+    static int squareOfNumber (BoardGeometry geometry, int number) {
+        int half = geometry.getSize() / 2;
+        int y = geometry.getSize() - 1 - (number - 1) / half;
+        return y * half + (number - 1) % half;
+    }
+
+    // BoardModel square -> PDN square number
+    static int numberOfSquare (BoardGeometry geometry, int square) {
+        int half = geometry.getSize() / 2;
+        int y = square / half;
+        return (geometry.getSize() - 1 - y) * half + square % half + 1;
+    }
+
+    // --- Binary
+
+    // Number of bytes the binary form takes for this geometry.
+    public static int binaryLength (BoardGeometry geometry) {
+        return 3 * maskBytes(geometry) + 1;
+    }
+
+    public static byte[] toBinary (BoardModel board) {
+        byte[] out = new byte[binaryLength(board.getGeometry())];
+        writeBinary(board, out, 0);
+        return out;
+    }
+
+    // Writes the binary form into dst at offset, returns the number of bytes written.
+    public static int writeBinary (BoardModel board, byte[] dst, int offset) {
+        int maskBytes = maskBytes(board.getGeometry());
+        int length = 3 * maskBytes + 1;
+        if (offset < 0 || offset + length > dst.length) {
+            throw new IndexOutOfBoundsException("Need " + length + " bytes at " + offset + ", array has " + dst.length);
+        }
+        for (int b = 0; b < maskBytes; b++) {
+            int word = b >>> 3;
+            int shift = (b & 7) << 3;
+            dst[offset + b] = (byte) (board.getWhiteMask(word) >>> shift);
+            dst[offset + maskBytes + b] = (byte) (board.getBlackMask(word) >>> shift);
+            dst[offset + 2 * maskBytes + b] = (byte) (board.getKingMask(word) >>> shift);
+        }
+        dst[offset + 3 * maskBytes] = board.getSideToMove() == PIECE_TEAM.BLACK ? BLACK_TO_MOVE : WHITE_TO_MOVE;
+        return length;
+    }
+
+    /**
+     * Replaces the contents of board with the binary form read from src at offset.
+     *
+     * @throws IllegalArgumentException if the bytes are not a valid position for the board's geometry.
+     */
+    public static void readBinary (byte[] src, int offset, BoardModel board) {
+        BoardGeometry geometry = board.getGeometry();
+        int maskBytes = maskBytes(geometry);
+        if (offset < 0 || offset + 3 * maskBytes + 1 > src.length) {
+            throw new IllegalArgumentException("Need " + (3 * maskBytes + 1) + " bytes at " + offset + ", array has " + src.length);
+        }
+
+        long white0 = 0, white1 = 0, black0 = 0, black1 = 0, king0 = 0, king1 = 0;
+        for (int b = 0; b < maskBytes; b++) {
+            int shift = (b & 7) << 3;
+            long white = (src[offset + b] & 0xFFL) << shift;
+            long black = (src[offset + maskBytes + b] & 0xFFL) << shift;
+            long king = (src[offset + 2 * maskBytes + b] & 0xFFL) << shift;
+            if (b < 8) {
+                white0 |= white;
+                black0 |= black;
+                king0 |= king;
+            } else {
+                white1 |= white;
+                black1 |= black;
+                king1 |= king;
+            }
+        }
+
+        int squareCount = geometry.getSquareCount();
+        long valid0 = squareCount >= 64 ? -1L : (1L << squareCount) - 1;
+        long valid1 = squareCount <= 64 ? 0L : (1L << (squareCount - 64)) - 1;
+        if ((white0 & black0) != 0 || (white1 & black1) != 0) {
+            throw new IllegalArgumentException("Invalid board bytes: a square is both white and black.");
+        }
+        if ((king0 & ~(white0 | black0)) != 0 || (king1 & ~(white1 | black1)) != 0) {
+            throw new IllegalArgumentException("Invalid board bytes: king on an empty square.");
+        }
+        if (((white0 | black0) & ~valid0) != 0 || ((white1 | black1) & ~valid1) != 0) {
+            throw new IllegalArgumentException("Invalid board bytes: piece past the last square.");
+        }
+
+        byte turn = src[offset + 3 * maskBytes];
+        if (turn != WHITE_TO_MOVE && turn != BLACK_TO_MOVE) {
+            throw new IllegalArgumentException("Invalid board bytes: side to move " + turn);
+        }
+
+        board.load(white0, black0, king0, white1, black1, king1, turn == BLACK_TO_MOVE ? PIECE_TEAM.BLACK : PIECE_TEAM.WHITE);
+    }
+
+    public static BoardModel fromBinary (byte[] src, BoardGeometry geometry) {
+        BoardModel board = new BoardModel(geometry);
+        readBinary(src, 0, board);
+        return board;
+    }
+
+    private static int maskBytes (BoardGeometry geometry) {
+        return (geometry.getSquareCount() + 7) >>> 3;
+    }
+}
@@ -0,0 +1,203 @@
+package chkMVC.chModel.Checkers;
+
+/**
+ * BoardGeometry
+ * <p>
+ * Describes the shape of a board: how big it is, which squares can be played on,
+ * and how those playable (dark) squares are numbered.
+ * <p>
+ * Playable squares are the ones where x + y is odd, and they are numbered row by row
+ * from the bottom: square = y * (size / 2) + x / 2.
+ * BoardModel keeps one bit per playable square, spread over 64 bit words.
+ * <p>
+ * It also has lookup tables, built once per size, for each square's diagonal neighbours and
+ * the squares a jump in each direction lands on, both as square indexes and as masks.
+ * <p>
+ * There is one shared instance per supported size:
+ * 8x8 (English/American), 10x10 (International) and 12x12 (Canadian).
+ */
+public final class BoardGeometry {
+
+    // The biggest board we support, Position has an instance for every square of it.
+    public static final int MAX_SIZE = 12;
+    public static final int MAX_SQUARES = MAX_SIZE * MAX_SIZE / 2;
+
+    // Diagonal directions. Up is towards the higher rows, which is forward for white.
+    public static final int UP_RIGHT = 0;
+    public static final int UP_LEFT = 1;
+    public static final int DOWN_RIGHT = 2;
+    public static final int DOWN_LEFT = 3;
+    public static final int DIRECTIONS = 4;
+    private static final int[] DX = {1, -1, 1, -1};
+    private static final int[] DY = {1, 1, -1, -1};
+
+    // Built after the direction tables above, the constructor needs them.
+    public static final BoardGeometry EIGHT = new BoardGeometry(8);
+    public static final BoardGeometry TEN = new BoardGeometry(10);
+    public static final BoardGeometry TWELVE = new BoardGeometry(12);
+
+    private final int size;
+    private final int squareCount;
+    private final int words;        // Number of 64 bit words needed for a mask of every square
+    private final int startingRows; // Rows each side fills at the start of a game
+
+    private final Position[] squarePositions; // square -> Position
+    private final int[] squareX;
+    private final int[] squareY;
+    private final int[] squareByIndex;        // Position.getIndex() -> square, or -1 if not playable here
+
+    private final int[] neighbours; // square * DIRECTIONS + dir -> next square that way, or -1
+    private final int[] jumps;      // square * DIRECTIONS + dir -> square two steps that way, or -1
+    private final long[] upSteps;   // square * words + word -> mask of the up neighbours
+    private final long[] downSteps;
+    private final long[] upJumps;   // square * words + word -> mask of the up jump landings
+    private final long[] downJumps;
+
+    private BoardGeometry (int size) {
+        this.size = size;
+        this.squareCount = size * size / 2;
+        this.words = (squareCount + 63) / 64;
+        this.startingRows = size / 2 - 1;
+
+        this.squarePositions = new Position[squareCount];
+        this.squareX = new int[squareCount];
+        this.squareY = new int[squareCount];
+        this.squareByIndex = new int[MAX_SIZE * MAX_SIZE];
+        java.util.Arrays.fill(squareByIndex, -1);
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if ((x + y) % 2 != 0) {
+                    int square = y * (size / 2) + x / 2;
+                    Position position = Position.of(x, y);
+                    squarePositions[square] = position;
+                    squareX[square] = x;
+                    squareY[square] = y;
+                    squareByIndex[position.getIndex()] = square;
+                }
+            }
+        }
+
+        this.neighbours = new int[squareCount * DIRECTIONS];
+        this.jumps = new int[squareCount * DIRECTIONS];
+        this.upSteps = new long[squareCount * words];
+        this.downSteps = new long[squareCount * words];
+        this.upJumps = new long[squareCount * words];
+        this.downJumps = new long[squareCount * words];
+        for (int square = 0; square < squareCount; square++) {
+            for (int dir = 0; dir < DIRECTIONS; dir++) {
+                int step = squareOf(squareX[square] + DX[dir], squareY[square] + DY[dir]);
+                int jump = squareOf(squareX[square] + 2 * DX[dir], squareY[square] + 2 * DY[dir]);
+                neighbours[square * DIRECTIONS + dir] = step;
+                jumps[square * DIRECTIONS + dir] = jump;
+
+                long[] stepMasks = DY[dir] > 0 ? upSteps : downSteps;
+                long[] jumpMasks = DY[dir] > 0 ? upJumps : downJumps;
+                if (step >= 0) stepMasks[square * words + (step >>> 6)] |= 1L << step;
+                if (jump >= 0) jumpMasks[square * words + (jump >>> 6)] |= 1L << jump;
+            }
+        }
+    }
+
+    // Gets the geometry for a board size, throws if that size isnt supported.
+    public static BoardGeometry ofSize (int size) {
+        return switch (size) {
+            case 8 -> EIGHT;
+            case 10 -> TEN;
+            case 12 -> TWELVE;
+            default -> throw new IllegalArgumentException("Unsupported board size: " + size + ". Must be 8, 10 or 12.");
+        };
+    }
+
+    public int getSize () {
+        return size;
+    }
+
+    public int getSquareCount () {
+        return squareCount;
+    }
+
+    public int getWords () {
+        return words;
+    }
+
+    public int getStartingRows () {
+        return startingRows;
+    }
+
+    // True if (x, y) is on this board at all.
+    public boolean contains (int x, int y) {
+        return x >= 0 && x < size && y >= 0 && y < size;
+    }
+
+    public boolean contains (Position position) {
+        return contains(position.getX(), position.getY());
+    }
+
+    // Square index of a position, or -1 if it is a light square or off this board.
+    public int squareOf (Position position) {
+        return squareByIndex[position.getIndex()];
+    }
+
+    // Square index of (x, y), or -1 if it is a light square or off this board.
+    public int squareOf (int x, int y) {
+        if (!contains(x, y) || ((x + y) & 1) == 0) return -1;
+        return y * (size / 2) + (x >> 1);
+    }
+
+    public Position positionOf (int square) {
+        return squarePositions[square];
+    }
+
+    public int getX (int square) {
+        return squareX[square];
+    }
+
+    public int getY (int square) {
+        return squareY[square];
+    }
+
+    // Next square from square in direction dir, or -1 off the board.
+    public int neighbour (int square, int dir) {
+        return neighbours[square * DIRECTIONS + dir];
+    }
+
+    // Square a jump from square in direction dir lands on, or -1 off the board.
+    public int jumpLanding (int square, int dir) {
+        return jumps[square * DIRECTIONS + dir];
+    }
+
+    // Square jumped over going from -> to, or -1 if that is not a jump.
+    public int jumpedSquare (int from, int to) {
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            if (jumps[from * DIRECTIONS + dir] == to) return neighbours[from * DIRECTIONS + dir];
+        }
+        return -1;
+    }
+
+    // One word of the mask of squares a single step forward for team (both ways for SPECTATOR, i.e. a king).
+    public long stepMask (int square, PIECE_TEAM team, int word) {
+        int i = square * words + word;
+        if (team == PIECE_TEAM.WHITE) return upSteps[i];
+        if (team == PIECE_TEAM.BLACK) return downSteps[i];
+        return upSteps[i] | downSteps[i];
+    }
+
+    // Same as stepMask, for the squares a jump lands on.
+    public long jumpMask (int square, PIECE_TEAM team, int word) {
+        int i = square * words + word;
+        if (team == PIECE_TEAM.WHITE) return upJumps[i];
+        if (team == PIECE_TEAM.BLACK) return downJumps[i];
+        return upJumps[i] | downJumps[i];
+    }
+
+    // Row a man of this team gets promoted on.
+    public int promotionRow (PIECE_TEAM team) {
+        return team == PIECE_TEAM.WHITE ? size - 1 : 0;
+    }
+
+    @Override
+    public String toString () {
+        return size + "x" + size;
+    }
+}
@@ -1,68 +1,158 @@
 package chkMVC.chModel.Checkers;
 
 import chkMVC.chModel.Checkers.Pieces.AbstractPiece;
-import chkMVC.chModel.Math.Vector2i;
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
 
 import java.util.*;
 
 
 //This will not run a full game but it does provide data for working well.
+//The board is stored as three bit masks (white, black, kings) over the playable (dark) squares.
+//Square numbering comes from the BoardGeometry, bit i of the masks is square i.
+//Masks are split into 64 bit words: one word for 8x8 (32 squares) and 10x10 (50 squares), two for 12x12 (72 squares).
+//Light squares can never hold a piece.
 public class BoardModel {
 
-    private final Map<Position, AbstractPiece> boardSpace; // Use Map To work.
-    private final int width;
-    private final int height;
+    // Zobrist keys, one random number per (piece kind, square) plus one for black to move.
+    // Kinds are white man, white king, black man, black king (see zobristIndex).
+    // The seed is fixed so a position gets the same key in every run.
+    private static final long[] ZOBRIST_PIECES = new long[4 * BoardGeometry.MAX_SQUARES];
+    private static final long ZOBRIST_BLACK_TO_MOVE;
 
-    public BoardModel (int width, int height) {
-        if (width < 8 || height < 8) {
-            throw new IllegalArgumentException("Board dimensions must be positive.");
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < ZOBRIST_PIECES.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            ZOBRIST_PIECES[i] = mix64(seed);
         }
-        this.width = width;
-        this.height = height;
-        this.boardSpace = new HashMap<>();
-        // TODO: Add initial piece setup
+        seed += 0x9E3779B97F4A7C15L;
+        ZOBRIST_BLACK_TO_MOVE = mix64(seed);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix64 (long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int zobristIndex (boolean white, boolean king, int square) {
+        return ((white ? 0 : 2) + (king ? 1 : 0)) * BoardGeometry.MAX_SQUARES + square;
+    }
+
+    private final BoardGeometry geometry;
+    private final long[] whiteMask; // Bit set -> white piece on that square
+    private final long[] blackMask; // Bit set -> black piece on that square
+    private final long[] kingMask;  // Bit set -> piece on that square is a king
+
+    private PIECE_TEAM sideToMove = PIECE_TEAM.WHITE;
+    private long positionKey = 0L; // Zobrist key of the pieces and side to move, kept up to date on every change
+
+    private Map<Position, AbstractPiece> pieceView; // Built on first getAllPieces() call
+
+    public BoardModel (BoardGeometry geometry) {
+        this.geometry = Objects.requireNonNull(geometry, "Board geometry cannot be null");
+        this.whiteMask = new long[geometry.getWords()];
+        this.blackMask = new long[geometry.getWords()];
+        this.kingMask = new long[geometry.getWords()];
+    }
+
+    public BoardModel (int width, int height) {
+        this(squareGeometry(width, height));
     }
 
     public BoardModel (int size) {
-        this(size, size); // Square board constructor
+        this(BoardGeometry.ofSize(size)); // Square board constructor
+    }
+
+    private static BoardGeometry squareGeometry (int width, int height) {
+        if (width != height) {
+            throw new IllegalArgumentException("Board must be square, got " + width + "x" + height + ".");
+        }
+        return BoardGeometry.ofSize(width);
+    }
+
+    public BoardGeometry getGeometry () {
+        return this.geometry;
     }
 
     public int getWidth () {
-        return this.width;
+        return geometry.getSize();
     }
 
     public int getHeight () {
-        return this.height;
+        return geometry.getSize();
     }
 
     public int getNumberOfPieces () {
-        return boardSpace.size();
+        int count = 0;
+        for (int w = 0; w < whiteMask.length; w++) {
+            count += Long.bitCount(whiteMask[w] | blackMask[w]);
+        }
+        return count;
     }
 
     // Get piece using Optional to avoid null checks elsewhere
     public Optional<AbstractPiece> getPieceOptional (Position position) {
-        return Optional.ofNullable(boardSpace.get(position));
+        return Optional.ofNullable(getPieceAt(position));
     }
 
     // Get piece, returning null (less safe, but sometimes needed)
+    // The piece objects are shared views of the piece code (see AbstractPiece.of).
     public AbstractPiece getPieceAt (Position position) {
-        return boardSpace.get(position);
+        return AbstractPiece.of(getPieceCode(position));
+    }
+
+    // PieceCode of whatever is on the position, PieceCode.EMPTY if nothing (or a light square).
+    public byte getPieceCode (Position position) {
+        int square = squareOf(position);
+        return square < 0 ? PieceCode.EMPTY : getPieceCode(square);
+    }
+
+    public byte getPieceCode (int square) {
+        // The code bits line up with the masks: white = bit 0, black = bit 1, king = bit 2.
+        int w = square >>> 6;
+        return (byte) (((whiteMask[w] >>> square) & 1)
+                | (((blackMask[w] >>> square) & 1) << 1)
+                | (((kingMask[w] >>> square) & 1) << 2));
     }
 
 
     public boolean isOccupied (Position position) {
-        return boardSpace.containsKey(position);
+        int square = squareOf(position);
+        return square >= 0 && isOccupied(square);
+    }
+
+    public boolean isOccupied (int square) {
+        int w = square >>> 6;
+        return ((whiteMask[w] | blackMask[w]) & (1L << square)) != 0;
     }
 
     // Internal method to place a piece - used during setup or potentially moves
     public void addPiece (AbstractPiece piece, Position position) {
-        boardSpace.put(position, piece);
+        addPiece(piece.getCode(), position);
+    }
+
+    public void addPiece (byte pieceCode, Position position) {
+        if (pieceCode == PieceCode.EMPTY || !PieceCode.isValid(pieceCode)) {
+            throw new IllegalArgumentException("Not a piece code: " + pieceCode);
+        }
+        int square = squareOf(position);
+        if (square < 0) {
+            throw new IllegalArgumentException("Pieces can only be placed on playable squares: " + position);
+        }
+        clearSquare(square);
+        placeOnSquare(pieceCode, square);
     }
 
     // Removes a piece - returns true if a piece was removed
     public boolean removePiece (Position position) {
-
-        return boardSpace.remove(position) != null;
+        int square = squareOf(position);
+        if (square < 0 || !isOccupied(square)) {
+            return false;
+        }
+        clearSquare(square);
+        return true;
     }
 
     // Moves a piece - handles removal and placement, checks if 'from' is occupied
@@ -72,18 +162,218 @@ public class BoardModel {
             throw new IllegalArgumentException("Cannot move piece to the same position: " + from);
         }
 
-        AbstractPiece piece = getPieceAt(from);
+        byte piece = getPieceCode(from);
 
-        if (piece == null) {
+        if (piece == PieceCode.EMPTY) {
             throw new IllegalStateException("No piece found at starting position: " + from);
         }
         if (isOccupied(to)) {
             throw new IllegalStateException("Cannot move to occupied position: " + to);
         }
 
-        // Remove from old, place at new, update piece's internal state
-        boardSpace.remove(from);
-        boardSpace.put(to, piece);
+        int toSquare = squareOf(to);
+        if (toSquare < 0) {
+            throw new IllegalArgumentException("Pieces can only be moved to playable squares: " + to);
+        }
+
+        // Remove from old, place at new
+        clearSquare(squareOf(from));
+        placeOnSquare(piece, toSquare);
+    }
+
+    // Square index of a position, or -1 if it is a light square or off the board.
+    public int squareOf (Position position) {
+        return geometry.squareOf(position);
+    }
+
+    // Position of a square index, the reverse of squareOf.
+    public Position positionOf (int square) {
+        return geometry.positionOf(square);
+    }
+
+    // Number of 64 bit words in each mask.
+    public int getWords () {
+        return whiteMask.length;
+    }
+
+    public long getWhiteMask (int word) {
+        return whiteMask[word];
+    }
+
+    public long getBlackMask (int word) {
+        return blackMask[word];
+    }
+
+    public long getKingMask (int word) {
+        return kingMask[word];
+    }
+
+    // Piece counts are a popcount of the masks, so they are O(1) and never drift from the board.
+    public int getPieceCount (PIECE_TEAM team) {
+        long[] mask = teamMask(team);
+        if (mask == null) return 0;
+        int count = 0;
+        for (int w = 0; w < mask.length; w++) {
+            count += Long.bitCount(mask[w]);
+        }
+        return count;
+    }
+
+    public int getKingCount (PIECE_TEAM team) {
+        long[] mask = teamMask(team);
+        if (mask == null) return 0;
+        int count = 0;
+        for (int w = 0; w < mask.length; w++) {
+            count += Long.bitCount(mask[w] & kingMask[w]);
+        }
+        return count;
+    }
+
+    // Number of white pieces minus the number of black pieces.
+    public int getMaterialBalance () {
+        return getPieceCount(PIECE_TEAM.WHITE) - getPieceCount(PIECE_TEAM.BLACK);
+    }
+
+    private long[] teamMask (PIECE_TEAM team) {
+        if (team == PIECE_TEAM.WHITE) return whiteMask;
+        if (team == PIECE_TEAM.BLACK) return blackMask;
+        return null;
+    }
+
+    public PIECE_TEAM getSideToMove () {
+        return sideToMove;
+    }
+
+    public void setSideToMove (PIECE_TEAM team) {
+        if (team != PIECE_TEAM.WHITE && team != PIECE_TEAM.BLACK) {
+            throw new IllegalArgumentException("Only white or black can be on move: " + team);
+        }
+        if (team != sideToMove) {
+            sideToMove = team;
+            positionKey ^= ZOBRIST_BLACK_TO_MOVE;
+        }
+    }
+
+    /**
+     * 64 bit Zobrist key of the position (pieces and side to move).
+     * It is updated along with every change, so this is O(1).
+     * Equal positions always have equal keys, different positions almost never do.
+     */
+    public long positionKey () {
+        return positionKey;
+    }
+
+    // Works out the key from the masks, positionKey() should always match this.
+    public long computePositionKey () {
+        long key = sideToMove == PIECE_TEAM.BLACK ? ZOBRIST_BLACK_TO_MOVE : 0L;
+        for (int w = 0; w < whiteMask.length; w++) {
+            for (long rest = whiteMask[w] | blackMask[w]; rest != 0; rest &= rest - 1) {
+                int square = (w << 6) + Long.numberOfTrailingZeros(rest);
+                long bit = 1L << square;
+                key ^= ZOBRIST_PIECES[zobristIndex((whiteMask[w] & bit) != 0, (kingMask[w] & bit) != 0, square)];
+            }
+        }
+        return key;
+    }
+
+    // --- Square level changes. These skip all the checks, they are used by
+    // CheckersGameModel.doMove / undoMove which already know the move is possible.
+
+    void moveSquare (int from, int to) {
+        int fromWord = from >>> 6;
+        int toWord = to >>> 6;
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        boolean white = (whiteMask[fromWord] & fromBit) != 0;
+        boolean king = (kingMask[fromWord] & fromBit) != 0;
+        long[] colour = white ? whiteMask : blackMask;
+        colour[fromWord] &= ~fromBit;
+        colour[toWord] |= toBit;
+        if (king) {
+            kingMask[fromWord] &= ~fromBit;
+            kingMask[toWord] |= toBit;
+        }
+        positionKey ^= ZOBRIST_PIECES[zobristIndex(white, king, from)] ^ ZOBRIST_PIECES[zobristIndex(white, king, to)];
+    }
+
+    void promoteSquare (int square) {
+        int w = square >>> 6;
+        boolean white = (whiteMask[w] & (1L << square)) != 0;
+        kingMask[w] |= 1L << square;
+        positionKey ^= ZOBRIST_PIECES[zobristIndex(white, false, square)] ^ ZOBRIST_PIECES[zobristIndex(white, true, square)];
+    }
+
+    void demoteSquare (int square) {
+        int w = square >>> 6;
+        boolean white = (whiteMask[w] & (1L << square)) != 0;
+        kingMask[w] &= ~(1L << square);
+        positionKey ^= ZOBRIST_PIECES[zobristIndex(white, true, square)] ^ ZOBRIST_PIECES[zobristIndex(white, false, square)];
+    }
+
+    // Clears every square in the mask (one word of it).
+    void removeSquares (int word, long mask) {
+        long whites = whiteMask[word];
+        long kings = kingMask[word];
+        for (long rest = mask & (whites | blackMask[word]); rest != 0; rest &= rest - 1) {
+            int bitIndex = Long.numberOfTrailingZeros(rest);
+            long bit = 1L << bitIndex;
+            positionKey ^= ZOBRIST_PIECES[zobristIndex((whites & bit) != 0, (kings & bit) != 0, (word << 6) + bitIndex)];
+        }
+        whiteMask[word] &= ~mask;
+        blackMask[word] &= ~mask;
+        kingMask[word] &= ~mask;
+    }
+
+    // Puts back squares cleared by removeSquares. whites and kings are the subsets of mask that held those pieces.
+    void restoreSquares (int word, long mask, long whites, long kings) {
+        whiteMask[word] |= whites;
+        blackMask[word] |= mask & ~whites;
+        kingMask[word] |= kings;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            int bitIndex = Long.numberOfTrailingZeros(rest);
+            long bit = 1L << bitIndex;
+            positionKey ^= ZOBRIST_PIECES[zobristIndex((whites & bit) != 0, (kings & bit) != 0, (word << 6) + bitIndex)];
+        }
+    }
+
+    // Replaces the whole position with the given masks (word 0 and word 1) and side to move.
+    // The masks have to be valid for this geometry, the callers (BoardCodec, GameStateArena) check that.
+    void load (long white0, long black0, long king0, long white1, long black1, long king1, PIECE_TEAM turn) {
+        for (int w = 0; w < whiteMask.length; w++) {
+            removeSquares(w, -1L);
+        }
+        restoreSquares(0, white0 | black0, white0, king0);
+        if (whiteMask.length > 1) {
+            restoreSquares(1, white1 | black1, white1, king1);
+        }
+        setSideToMove(turn);
+    }
+
+    private void placeOnSquare (byte piece, int square) {
+        int w = square >>> 6;
+        long bit = 1L << square;
+        boolean white = PieceCode.isWhite(piece);
+        boolean king = PieceCode.isKing(piece);
+        if (white) {
+            whiteMask[w] |= bit;
+        } else {
+            blackMask[w] |= bit;
+        }
+        if (king) {
+            kingMask[w] |= bit;
+        }
+        positionKey ^= ZOBRIST_PIECES[zobristIndex(white, king, square)];
+    }
+
+    private void clearSquare (int square) {
+        int w = square >>> 6;
+        long bit = 1L << square;
+        if (((whiteMask[w] | blackMask[w]) & bit) != 0) {
+            positionKey ^= ZOBRIST_PIECES[zobristIndex((whiteMask[w] & bit) != 0, (kingMask[w] & bit) != 0, square)];
+        }
+        whiteMask[w] &= ~bit;
+        blackMask[w] &= ~bit;
+        kingMask[w] &= ~bit;
     }
 
 
@@ -91,23 +381,25 @@ public class BoardModel {
     public String toString () {
         // Basic toString, printBoard is better for visualization
         return "BoardModel{" +
-                "width=" + width +
-                ", height=" + height +
-                ", pieces=" + boardSpace.size() +
+                "width=" + getWidth() +
+                ", height=" + getHeight() +
+                ", pieces=" + getNumberOfPieces() +
                 '}';
     }
 
     // Using for debugging... (Keep this for testing/console use)
     public void printBoard () {
+        int width = getWidth();
+        int height = getHeight();
         System.out.println("Board State (" + width + "x" + height + "):");
         // Assuming (0,0) is top-left for printing
         // Column Headers (A, B, C...)
-        System.out.print("  ");
+        System.out.print("   ");
         for (int j = 0; j < width; j++) {
             System.out.print(" " + (char) ('A' + j));
         }
         System.out.println();
-        System.out.print("  ");
+        System.out.print("   ");
         for (int j = 0; j < width; j++) {
             System.out.print("--");
         }
@@ -115,11 +407,11 @@ public class BoardModel {
 
 
         for (int i = 0; i < height; i++) { // Rows 1 to height
-            System.out.printf("%d|", i + 1); // Row label
+            System.out.printf("%2d|", i + 1); // Row label
 
             for (int j = 0; j < width; j++) { // Columns 1 to width
                 try {
-                    Position currentPos = new Position(j, i);
+                    Position currentPos = Position.of(j, i);
                     Optional<AbstractPiece> pieceOpt = getPieceOptional(currentPos);
                     if (pieceOpt.isPresent()) {
                         AbstractPiece piece = pieceOpt.get();
@@ -133,7 +425,7 @@ public class BoardModel {
             }
             System.out.println(" |"); // End of row
         }
-        System.out.print("  ");
+        System.out.print("   ");
         for (int j = 0; j < width; j++) {
             System.out.print("--");
         }
@@ -141,19 +433,78 @@ public class BoardModel {
     }
 
     public Position createPosition (int x, int y) throws IllegalArgumentException {
-        Position newPos = null;
-        try {
-            newPos = new Position(x, y);
-        } catch (IllegalArgumentException e) {
+        if (!geometry.contains(x, y)) {
             System.err.println("Warning: Trying to Initialize A position out of bounds");
-            e.printStackTrace();
             throw new IllegalArgumentException("Invalid Positon Initialized.");
         }
-        return newPos;
+        return Position.of(x, y);
     }
 
 
+    // Immutable copy of the board as it is right now, safe to hand to other threads.
+    public BoardSnapshot snapshot () {
+        return new BoardSnapshot(this);
+    }
+
+    // Read only view of the pieces on the board. it reads the masks directly so it always
+    // reflects the current board, it is only built once.
     public Map<Position, AbstractPiece> getAllPieces () {
-        return this.boardSpace;
+        if (pieceView == null) {
+            pieceView = new PieceView();
+        }
+        return pieceView;
+    }
+
+    private final class PieceView extends AbstractMap<Position, AbstractPiece> {
+
+        @Override
+        public int size () {
+            return getNumberOfPieces();
+        }
+
+        @Override
+        public boolean containsKey (Object key) {
+            return key instanceof Position && isOccupied((Position) key);
+        }
+
+        @Override
+        public AbstractPiece get (Object key) {
+            return key instanceof Position ? getPieceAt((Position) key) : null;
+        }
+
+        @Override
+        public Set<Entry<Position, AbstractPiece>> entrySet () {
+            return new AbstractSet<>() {
+                @Override
+                public int size () {
+                    return getNumberOfPieces();
+                }
+
+                @Override
+                public Iterator<Entry<Position, AbstractPiece>> iterator () {
+                    return new Iterator<>() {
+                        private int word = 0;
+                        private long remaining = whiteMask[0] | blackMask[0];
+
+                        @Override
+                        public boolean hasNext () {
+                            while (remaining == 0 && word + 1 < whiteMask.length) {
+                                word++;
+                                remaining = whiteMask[word] | blackMask[word];
+                            }
+                            return remaining != 0;
+                        }
+
+                        @Override
+                        public Entry<Position, AbstractPiece> next () {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            int square = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                            remaining &= remaining - 1;
+                            return new SimpleImmutableEntry<>(geometry.positionOf(square), AbstractPiece.of(getPieceCode(square)));
+                        }
+                    };
+                }
+            };
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package chkMVC.chModel.Checkers;
+
+import chkMVC.chModel.Checkers.Pieces.AbstractPiece;
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
+
+/**
+ * BoardSnapshot
+ * <p>
+ * An immutable copy of a board at one moment: the masks, the side to move and the Zobrist key.
+ * It is only a few longs, so the game model publishes a fresh one after every move, and readers
+ * (the GUI on the EDT, broadcasts, saving) can keep it around and read it from any thread without locks.
+ */
+public final class BoardSnapshot {
+
+    private final BoardGeometry geometry;
+    private final long[] masks; // white words, then black words, then king words. Never changed after construction.
+    private final int words;
+    private final PIECE_TEAM sideToMove;
+    private final long positionKey;
+
+    BoardSnapshot (BoardModel board) {
+        this.geometry = board.getGeometry();
+        this.words = board.getWords();
+        this.masks = new long[3 * words];
+        for (int w = 0; w < words; w++) {
+            masks[w] = board.getWhiteMask(w);
+            masks[words + w] = board.getBlackMask(w);
+            masks[2 * words + w] = board.getKingMask(w);
+        }
+        this.sideToMove = board.getSideToMove();
+        this.positionKey = board.positionKey();
+    }
+
+    public BoardGeometry getGeometry () {
+        return geometry;
+    }
+
+    public PIECE_TEAM getSideToMove () {
+        return sideToMove;
+    }
+
+    public long positionKey () {
+        return positionKey;
+    }
+
+    public int getWords () {
+        return words;
+    }
+
+    public long getWhiteMask (int word) {
+        return masks[word];
+    }
+
+    public long getBlackMask (int word) {
+        return masks[words + word];
+    }
+
+    public long getKingMask (int word) {
+        return masks[2 * words + word];
+    }
+
+    // True if board is in exactly this position (same pieces and side to move).
+    public boolean matches (BoardModel board) {
+        if (board.getGeometry() != geometry || board.getSideToMove() != sideToMove) return false;
+        for (int w = 0; w < words; w++) {
+            if (board.getWhiteMask(w) != masks[w]
+                    || board.getBlackMask(w) != masks[words + w]
+                    || board.getKingMask(w) != masks[2 * words + w]) return false;
+        }
+        return true;
+    }
+
+    // Same bit layout as BoardModel.getPieceCode.
+    public byte getPieceCode (int square) {
+        int w = square >>> 6;
+        return (byte) (((masks[w] >>> square) & 1)
+                | (((masks[words + w] >>> square) & 1) << 1)
+                | (((masks[2 * words + w] >>> square) & 1) << 2));
+    }
+
+    public byte getPieceCode (Position position) {
+        int square = geometry.squareOf(position);
+        return square < 0 ? PieceCode.EMPTY : getPieceCode(square);
+    }
+
+    // Shared piece view, or null if the square is empty.
+    public AbstractPiece getPieceAt (Position position) {
+        return AbstractPiece.of(getPieceCode(position));
+    }
+
+    public boolean isOccupied (Position position) {
+        return getPieceCode(position) != PieceCode.EMPTY;
+    }
+
+    public int getPieceCount (PIECE_TEAM team) {
+        int offset = team == PIECE_TEAM.WHITE ? 0 : team == PIECE_TEAM.BLACK ? words : -1;
+        if (offset < 0) return 0;
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(masks[offset + w]);
+        }
+        return count;
+    }
+
+    public int getNumberOfPieces () {
+        return getPieceCount(PIECE_TEAM.WHITE) + getPieceCount(PIECE_TEAM.BLACK);
+    }
+
+    @Override
+    public String toString () {
+        return "BoardSnapshot{" + geometry + ", sideToMove=" + sideToMove + ", pieces=" + getNumberOfPieces() + "}";
+    }
+}
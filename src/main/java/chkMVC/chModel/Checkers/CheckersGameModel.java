@@ -3,16 +3,42 @@ package chkMVC.chModel.Checkers;
 import chkMVC.chModel.Checkers.Pieces.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Consumer;
 
 
-public class CheckersGameModel {
+public final class CheckersGameModel {
 
     private List<GameEventListener> listeners = new ArrayList<>();
-    private PIECE_TEAM currentTurn;
     private final BoardModel boardModel;
+    private final RuleSet ruleSet;     // Only ever one class per game, so generate() stays a monomorphic call
+    private final MoveList legalMoves; // Reused by every canMakeMove / makeMove
+    private MoveList[] perftLists;     // One list per ply, made on the first perft call
+
+    // Latest published copy of the board. Writers replace it after every change, readers never need a lock.
+    private volatile BoardSnapshot snapshot;
+
+    // Undo stack for doMove/undoMove. Each entry is UNDO_RECORD ints:
+    // from | to << 8 | promoted flag, previous turn value.
+    // The captured mask, captured whites and captured kings go in undoMasks, words longs each.
+    private static final int UNDO_RECORD = 2;
+    private int[] undoStack = new int[64 * UNDO_RECORD];
+    private long[] undoMasks;
+    private int undoSize = 0;
+
+    // Draw rules. A game is drawn when the same position (same side to move) comes up a third time,
+    // or when DRAW_MOVE_LIMIT moves each go by without a capture or a man moving.
+    // Neither of those can be undone, so positions from before one can never repeat. The ring only
+    // holds keys since the last one, which the move limit keeps under KEY_HISTORY entries.
+    public static final int DRAW_MOVE_LIMIT = 40;
+    private static final int QUIET_PLY_LIMIT = 2 * DRAW_MOVE_LIMIT;
+    private static final int KEY_HISTORY = 128; // Power of two, more than QUIET_PLY_LIMIT
+    private final long[] keyHistory = new long[KEY_HISTORY];
+    private int historyHead = 0;  // Keys pushed so far, the newest is at (historyHead - 1) & (KEY_HISTORY - 1)
+    private int historyCount = 0; // Keys since the last irreversible move, the position right after it included
+    private int quietPliesBefore = 0; // Quiet plies from before the ring started, see resetDrawHistory(int)
+    private int pliesPlayed = 0;
 
     // Setter for the View (GUI)
     public void addListener (GameEventListener listener) {
@@ -35,181 +61,494 @@ public class CheckersGameModel {
     }
 
     public CheckersGameModel (BoardModel boardModel, boolean initialSetup) {
-        this.currentTurn = PIECE_TEAM.WHITE; // White moves first
+        this(boardModel, new EnglishRuleSet(boardModel.getGeometry()), initialSetup);
+    }
+
+    // A new game of the variant, on its own board size.
+    public CheckersGameModel (RULE_VARIANT variant) {
+        this(new BoardModel(variant.getGeometry()), variant.newRuleSet(), true);
+    }
+
+    public CheckersGameModel (BoardModel boardModel, RuleSet ruleSet, boolean initialSetup) {
+        if (ruleSet.getGeometry() != boardModel.getGeometry()) {
+            throw new IllegalArgumentException(ruleSet + " can't be used on a " + boardModel.getGeometry() + " board.");
+        }
         this.boardModel = boardModel;
+        this.ruleSet = ruleSet;
+        this.legalMoves = new MoveList(boardModel.getGeometry());
+        this.undoMasks = new long[64 * 3 * boardModel.getWords()];
+        this.boardModel.setSideToMove(PIECE_TEAM.WHITE); // White moves first
         if (initialSetup) setupInitialBoard();
+        else this.snapshot = boardModel.snapshot();
     }
 
     private void setupInitialBoard () {
-        int boardSize = 8;
-        setupBoardSideHelper(0, 2, PIECE_TEAM.WHITE);
-        setupBoardSideHelper(5, 7, PIECE_TEAM.BLACK);
-        notifyGameListeners(l -> l.onBoardUpdate(this.boardModel.getAllPieces()));
+        int boardSize = boardModel.getWidth();
+        int rows = boardModel.getGeometry().getStartingRows();
+        setupBoardSideHelper(0, rows - 1, PIECE_TEAM.WHITE);
+        setupBoardSideHelper(boardSize - rows, boardSize - 1, PIECE_TEAM.BLACK);
+        publishSnapshot();
     }
 
     //This does the checker board pattern for placing pieces. starts @ the start (inclusive) and goes until the end. (inclusice)
     private void setupBoardSideHelper (int startRow, int endRow, PIECE_TEAM team) {
-        int BOARD_SIZE_TEMP = 8;
+        int BOARD_SIZE_TEMP = boardModel.getWidth();
 
         for (int y = startRow; y <= endRow; y++) {
             for (int x = 0; x < BOARD_SIZE_TEMP; x++) {
 
                 if ((x + y) % 2 != 0) {
-                    boardModel.addPiece(new SerfPiece(team), new Position(x, y));
+                    boardModel.addPiece(PieceCode.of(team, false), Position.of(x, y));
                 }
             }
         }
     }
 
 
-    public boolean makeMove (Position from, Position to) {
-        Optional<AbstractPiece> pieceOpt = boardModel.getPieceOptional(from);
-        if (pieceOpt.isEmpty()) {
+    /**
+     * Plays a whole move, given as its path: the square the piece starts on, then every square it lands on
+     * (so a triple jump is four positions). The path has to be exactly one of the legal moves,
+     * otherwise nothing changes and false is returned. Jumped pieces are removed and men crowned as part of the move.
+     */
+    public boolean makeMove (List<Position> path) {
+        int index = findLegalPath(path, false);
+        if (index < 0) {
             return false;
         }
+        playMove(legalMoves, index, List.copyOf(path));
+        return true;
+    }
 
-        AbstractPiece piece = pieceOpt.get();
-        if (piece.getTeam() != currentTurn) {
-            return false;
+    /**
+     * Plays move index of moves like makeMove(path) does, listeners and draw rules included, without generating
+     * the legal moves again to look for it. The move is trusted: moves has to hold the legal moves of the current
+     * position (LegalMoveCache keeps them per position).
+     */
+    public void makeMove (MoveList moves, int index) {
+        BoardGeometry geometry = boardModel.getGeometry();
+        Position[] path = new Position[moves.getPathLength(index) + 1];
+        path[0] = geometry.positionOf(moves.getFrom(index));
+        for (int step = 1; step < path.length; step++) {
+            path[step] = geometry.positionOf(moves.getPathSquare(index, step - 1));
         }
+        playMove(moves, index, List.of(path));
+    }
 
-        // Perform the move
-        boardModel.movePiece(from, to);
-
-        boolean isJumpMove = Math.abs(to.getX() - from.getX()) == 2;
+    private void playMove (MoveList moves, int index, List<Position> played) {
+        PIECE_TEAM team = getCurrentTurn();
 
+        if (historyCount == 0) pushKey(boardModel.positionKey()); // First move since the board was set up
+        int from = moves.getFrom(index);
+        boolean irreversible = moves.isCapture(index) || !PieceCode.isKing(boardModel.getPieceCode(from));
 
-        if (isJumpMove) {
-            Position jumpedPositon = boardModel.createPosition((from.getX() + to.getX()) / 2, (from.getY() + to.getY()) / 2);
+        doMove(moves, index);
+        undoSize -= UNDO_RECORD; // The live game never takes a move back, drop the record again
+        if (irreversible) {
+            historyCount = 0;
+            quietPliesBefore = 0;
+        }
+        pushKey(boardModel.positionKey());
+        pliesPlayed++;
 
-            boardModel.removePiece(jumpedPositon);
-            notifyGameListeners(l -> l.onPieceRemoved(jumpedPositon));
+        PIECE_TEAM nextTurn = getCurrentTurn();
+        notifyGameListeners(l -> l.onTurnChange(nextTurn));
+        notifyGameListeners(l -> l.onMoveMade(played));
+        publishSnapshot();
+
+        // A side with no pieces, or no legal move, has lost.
+        PIECE_TEAM winner = getWinner();
+        if (winner == null && !ruleSet.hasLegalMove(boardModel)) winner = team;
+        if (winner != null) {
+            PIECE_TEAM finalWinner = winner;
+            notifyGameListeners(l -> l.onGameComplete(finalWinner));
+        } else if (isDraw()) {
+            notifyGameListeners(l -> l.onGameComplete(null)); // null winner means a draw
+        }
+    }
 
-            System.out.println("Removed @ " + jumpedPositon.toString());
+    private void pushKey (long key) {
+        keyHistory[historyHead & (KEY_HISTORY - 1)] = key;
+        historyHead++;
+        if (historyCount < KEY_HISTORY) historyCount++;
+    }
 
-            notifyGameListeners(l -> l.onMoveMade(from, to));
+    // Plies played with makeMove since the last capture or man move.
+    public int getQuietPlies () {
+        return quietPliesBefore + Math.max(0, historyCount - 1);
+    }
 
-            if (getWinner() != null) notifyGameListeners(l -> l.onGameComplete(currentTurn));
+    // Plies played with makeMove on this model so far.
+    public int getPliesPlayed () {
+        return pliesPlayed;
+    }
 
-            return true;
+    // True if the current position has come up three times since the last irreversible move.
+    // Only positions with the same side to move can match, so it looks at every other key, at most KEY_HISTORY / 2.
+    public boolean isThreefoldRepetition () {
+        if (historyCount < 5) return false; // Needs at least four plies in between
+        int mask = KEY_HISTORY - 1;
+        long key = keyHistory[(historyHead - 1) & mask];
+        int seen = 1;
+        for (int back = 2; back < historyCount; back += 2) {
+            if (keyHistory[(historyHead - 1 - back) & mask] == key && ++seen == 3) return true;
         }
+        return false;
+    }
 
-        currentTurn = (currentTurn == PIECE_TEAM.WHITE) ? PIECE_TEAM.BLACK : PIECE_TEAM.WHITE;
+    // True if the game is drawn by repetition or by the move limit.
+    public boolean isDraw () {
+        return getQuietPlies() >= QUIET_PLY_LIMIT || isThreefoldRepetition();
+    }
 
-        notifyGameListeners(l -> l.onTurnChange(currentTurn));
-        notifyGameListeners(l -> l.onMoveMade(from, to));
+    // Forgets the positions played so far, for when the board is replaced with a new position.
+    public void resetDrawHistory () {
+        resetDrawHistory(0);
+    }
 
-        return true;
+    // Same, for a position reached after quietPlies quiet plies that were played elsewhere (GameStateArena).
+    // The move limit counts on from there, repetitions only see positions played from now on.
+    public void resetDrawHistory (int quietPlies) {
+        historyCount = 0;
+        quietPliesBefore = quietPlies;
     }
 
+    public boolean makeMove (Position from, Position to) {
+        return makeMove(List.of(from, to));
+    }
+
+    // True if path is a legal move for the side to move.
+    public boolean canMakeMove (List<Position> path) {
+        return findLegalPath(path, false) >= 0;
+    }
 
-    private void checkJump (List<Position> validMoves, Position from, int dx, int dy) {
+    public boolean canMakeMove (Position from, Position to) {
+        return canMakeMove(List.of(from, to));
+    }
 
-        Position middle = boardModel.createPosition(from.getX() + dx, from.getY() + dy);
+    // True if path is a legal move or the start of one (a multi jump that isn't finished yet).
+    public boolean isLegalPathPrefix (List<Position> path) {
+        return findLegalPath(path, true) >= 0;
+    }
 
-        Position to = boardModel.createPosition(from.getX() + 2 * dx, from.getY() + 2 * dy);
+    // Index in legalMoves of the legal move along path (or starting with path, if prefix is set), or -1.
+    private int findLegalPath (List<Position> path, boolean prefix) {
+        if (path == null || path.size() < 2) {
+            return -1;
+        }
+        int hops = path.size() - 1;
+        int fromSquare = squareOnBoard(path.get(0));
+        if (fromSquare < 0) {
+            return -1;
+        }
 
-        if (middle == null || to == null) return; // Return iff either the jump or move is out of bounds!
+        ruleSet.generate(boardModel, legalMoves);
+        moves:
+        for (int i = 0; i < legalMoves.size(); i++) {
+            if (legalMoves.getFrom(i) != fromSquare) continue;
+            int length = legalMoves.getPathLength(i);
+            if (prefix ? length < hops : length != hops) continue;
+            for (int step = 0; step < hops; step++) {
+                if (legalMoves.getPathSquare(i, step) != squareOnBoard(path.get(step + 1))) continue moves;
+            }
+            return i;
+        }
+        return findCaptureRoute(legalMoves, path, prefix);
+    }
 
+    /**
+     * Index of the capture in moves (the legal moves of the current position) that path is another route of, or -1.
+     * The move generator keeps one route per start square, end square and pieces taken (RuleSet.record), so a piece
+     * that can reach the same end over the same pieces another way, a flying king stopping on a different square
+     * in between or a man or king going round a ring the other way, only has one of its routes in the list.
+     */
+    public int findCaptureRoute (MoveList moves, List<Position> path) {
+        return findCaptureRoute(moves, path, false);
+    }
 
-        if (isValidPosition(to) && !boardModel.isOccupied(to) && boardModel.isOccupied(middle)) {
-            Optional<AbstractPiece> middlePieceOpt = boardModel.getPieceOptional(middle);
-            if (middlePieceOpt.isPresent() && middlePieceOpt.get().getTeam() != currentTurn) {
-                validMoves.add(to);
+    private int findCaptureRoute (MoveList moves, List<Position> path, boolean prefix) {
+        if (path == null || path.size() < 2) return -1;
+        int[] squares = new int[path.size()];
+        for (int i = 0; i < squares.length; i++) {
+            squares[i] = squareOnBoard(path.get(i));
+            if (squares[i] < 0) return -1;
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            if (isCaptureRoute(moves, i, squares, squares.length, prefix)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * True if squares[0 .. count - 1] (start square, then landing squares) is a route for capture index of moves:
+     * every hop takes exactly one of the move's pieces, none twice, along an otherwise empty diagonal, and lands
+     * on an empty square. Only flying kings hop further than one square past the piece.
+     * Without prefix it also has to take all of them and end where the move ends.
+     */
+    boolean isCaptureRoute (MoveList moves, int index, int[] squares, int count, boolean prefix) {
+        int hops = count - 1;
+        int start = squares[0];
+        int length = moves.getPathLength(index);
+        if (moves.getFrom(index) != start || !moves.isCapture(index)) return false;
+        if (prefix ? hops > length : hops != length || squares[hops] != moves.getTo(index)) return false;
+
+        BoardGeometry geometry = boardModel.getGeometry();
+        // Men (and kings without flying rules) jump one square at a time
+        boolean flying = PieceCode.isKing(boardModel.getPieceCode(start)) && ruleSet.getVariant().hasFlyingKings();
+        long[] taken = new long[2];
+        for (int hop = 0; hop < hops; hop++) {
+            int at = squares[hop];
+            int to = squares[hop + 1];
+            int over = pieceJumped(geometry, at, to, start);
+            if (over < 0 || (!flying && geometry.jumpedSquare(at, to) != over)) return false;
+            long bit = 1L << over;
+            if ((moves.getCapturedMask(index, over >>> 6) & bit) == 0 || (taken[over >>> 6] & bit) != 0) return false;
+            taken[over >>> 6] |= bit;
+        }
+        return true;
+    }
+
+    // The one piece between at and to on a diagonal, or -1 if they aren't on one, there isn't exactly one piece
+    // in between or to is taken. The moving piece has left start, so that square counts as empty.
+    private int pieceJumped (BoardGeometry geometry, int at, int to, int start) {
+        if (to != start && boardModel.getPieceCode(to) != PieceCode.EMPTY) return -1;
+        for (int dir = 0; dir < BoardGeometry.DIRECTIONS; dir++) {
+            int over = -1;
+            for (int square = geometry.neighbour(at, dir); square >= 0; square = geometry.neighbour(square, dir)) {
+                if (square == to) return over;
+                if (square != start && boardModel.getPieceCode(square) != PieceCode.EMPTY) {
+                    if (over >= 0) break; // A second piece in the way
+                    over = square;
+                }
             }
         }
+        return -1;
     }
 
-    private boolean isValidPosition (Position pos) {
-        return pos.getX() >= 0 && pos.getX() < 8 && pos.getY() >= 0 && pos.getY() < 8;
+    // Square of the position on this board, -1 if it is off the board (positions go up to 12x12) or a light square.
+    private int squareOnBoard (Position position) {
+        if (position == null || !isValidPosition(position)) return -1;
+        return boardModel.squareOf(position);
     }
 
-    public PIECE_TEAM getCurrentTurn () {
-        return currentTurn;
+    // Fills moves with every legal move for the side to move, returns how many there are.
+    public int generateLegalMoves (MoveList moves) {
+        return ruleSet.generate(boardModel, moves);
     }
 
-    public boolean isGameOver () {
-        return getPiecesOfTeam(PIECE_TEAM.WHITE).isEmpty() ||
-                getPiecesOfTeam(PIECE_TEAM.BLACK).isEmpty();
+    /**
+     * Plays a move without telling any listeners, so it can be taken back with undoMove().
+     * Meant for analysis code (searching, hints) that needs to try out lots of moves on one model.
+     * <p>
+     * The move is trusted, it has to be possible in the current position (see generateLegalMoves).
+     * Moves are whole turns, multi jumps included, so the turn always passes.
+     */
+    public void doMove (MoveList moves, int index) {
+        int from = moves.getFrom(index);
+        int to = moves.getTo(index);
+        boolean promotes = moves.isPromotion(index) && (boardModel.getKingMask(from >>> 6) & (1L << from)) == 0;
+        int words = boardModel.getWords();
+
+        if (undoSize + UNDO_RECORD > undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+            undoMasks = Arrays.copyOf(undoMasks, undoMasks.length * 2);
+        }
+        int[] stack = undoStack;
+        int base = undoSize;
+        stack[base] = from | (to << MoveList.TO_SHIFT) | (promotes ? MoveList.PROMOTION_FLAG : 0);
+        stack[base + 1] = boardModel.getSideToMove().getValue();
+        undoSize = base + UNDO_RECORD;
+
+        long[] masks = undoMasks;
+        int maskBase = (base / UNDO_RECORD) * 3 * words;
+        boolean isCapture = false;
+        for (int w = 0; w < words; w++) {
+            long captured = moves.getCapturedMask(index, w);
+            masks[maskBase + w] = captured;
+            masks[maskBase + words + w] = captured & boardModel.getWhiteMask(w);
+            masks[maskBase + 2 * words + w] = captured & boardModel.getKingMask(w);
+            isCapture |= captured != 0;
+        }
+
+        boardModel.moveSquare(from, to);
+        if (isCapture) {
+            for (int w = 0; w < words; w++) {
+                boardModel.removeSquares(w, masks[maskBase + w]);
+            }
+        }
+        boardModel.setSideToMove(boardModel.getSideToMove() == PIECE_TEAM.WHITE ? PIECE_TEAM.BLACK : PIECE_TEAM.WHITE);
+        if (promotes) {
+            boardModel.promoteSquare(to);
+        }
     }
 
-    private List<AbstractPiece> getPiecesOfTeam (PIECE_TEAM team) {
+    // Takes back the last move played with doMove. Also silent.
+    public void undoMove () {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No moves to undo.");
+        }
+        int[] stack = undoStack;
+        int base = undoSize - UNDO_RECORD;
+        undoSize = base;
 
-        List<AbstractPiece> pieceList = new ArrayList<>();
+        int header = stack[base];
+        int from = header & MoveList.SQUARE_BITS;
+        int to = (header >>> MoveList.TO_SHIFT) & MoveList.SQUARE_BITS;
 
-        for (Position p : boardModel.getAllPieces().keySet()) {
-            if (boardModel.getPieceAt(p).getTeam() == team) {
-                pieceList.add(boardModel.getPieceAt(p));
+        if ((header & MoveList.PROMOTION_FLAG) != 0) {
+            boardModel.demoteSquare(to);
+        }
+        boardModel.moveSquare(to, from);
+        int words = boardModel.getWords();
+        long[] masks = undoMasks;
+        int maskBase = (base / UNDO_RECORD) * 3 * words;
+        for (int w = 0; w < words; w++) {
+            if (masks[maskBase + w] != 0) {
+                boardModel.restoreSquares(w, masks[maskBase + w], masks[maskBase + words + w], masks[maskBase + 2 * words + w]);
             }
         }
+        boardModel.setSideToMove(stack[base + 1] == PIECE_TEAM.WHITE.getValue() ? PIECE_TEAM.WHITE : PIECE_TEAM.BLACK);
+    }
 
-        return pieceList;
+    // Number of moves that undoMove can still take back.
+    public int getUndoDepth () {
+        return undoSize / UNDO_RECORD;
     }
 
-    public BoardModel getBoardModel () {
-        return this.boardModel;
+    /**
+     * Counts the leaf nodes of the legal move tree depth plies deep (perft), using doMove/undoMove.
+     * The standard way to check a move generator: the counts for known positions are published.
+     * The position is the same afterwards.
+     */
+    public long perft (int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Perft depth cannot be negative: " + depth);
+        }
+        if (depth == 0) return 1;
+        if (perftLists == null || perftLists.length < depth) {
+            perftLists = new MoveList[depth];
+            for (int i = 0; i < depth; i++) perftLists[i] = new MoveList(boardModel.getGeometry());
+        }
+        return perft(depth, perftLists);
     }
 
-    public void setCurrentTurn (PIECE_TEAM peiceTeam) {
-        currentTurn = peiceTeam;
-        notifyGameListeners(l -> l.onTurnChange(peiceTeam));
+    private long perft (int depth, MoveList[] lists) {
+        MoveList moves = lists[depth - 1];
+        int count = ruleSet.generate(boardModel, moves);
+        if (depth == 1) return count; // Bulk count the last ply
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            doMove(moves, i);
+            nodes += perft(depth - 1, lists);
+            undoMove();
+        }
+        return nodes;
     }
 
-    public PIECE_TEAM getWinner () {
-        if (isGameOver()) {
-            notifyGameListeners(l -> l.onGameComplete(this.currentTurn));
-            return this.currentTurn;
-        } else return null;
+    // Forgets every move on the undo stack, for when the board gets replaced underneath the model.
+    void clearUndo () {
+        undoSize = 0;
     }
 
-    public boolean canMakeMove (Position from, Position to) {
-        if (!boardModel.isOccupied(from) || boardModel.isOccupied(to)) {
-            return false;
-        }
 
-        int dx = to.getX() - from.getX();
-        int dy = to.getY() - from.getY();
+    private boolean isValidPosition (Position pos) {
+        return boardModel.getGeometry().contains(pos);
+    }
 
-        // Simple move: one diagonal step
-        if (Math.abs(dx) == 1 && Math.abs(dy) == 1) {
-            return true;
-        }
+    public PIECE_TEAM getCurrentTurn () {
+        return boardModel.getSideToMove();
+    }
 
-        // Jump move: two diagonal steps
-        if (Math.abs(dx) == 2 && Math.abs(dy) == 2) {
-            int midX = from.getX() + dx / 2;
-            int midY = from.getY() + dy / 2;
-            Position middle = new Position(midX, midY);
+    // The game is over once a team has no pieces left.
+    public boolean isGameOver () {
+        return boardModel.getPieceCount(PIECE_TEAM.WHITE) == 0 ||
+                boardModel.getPieceCount(PIECE_TEAM.BLACK) == 0;
+    }
 
-            return boardModel.isOccupied(middle);
-        }
+    // Takes a new snapshot of the board, makes it the current one and hands it to the listeners.
+    // doMove/undoMove never publish, analysis code would only be publishing positions nobody asked for.
+    public BoardSnapshot publishSnapshot () {
+        BoardSnapshot published = boardModel.snapshot();
+        this.snapshot = published;
+        notifyGameListeners(l -> l.onBoardUpdate(published));
+        return published;
+    }
 
-        // Invalid move otherwise
-        return false;
+    // Latest published snapshot, can be called from any thread.
+    public BoardSnapshot getSnapshot () {
+        return snapshot;
     }
 
-    public void applyServerConfirmedMove (Position from, Position to) {
-        this.boardModel.movePiece(from, to);
+    public RuleSet getRuleSet () {
+        return ruleSet;
+    }
 
-        notifyGameListeners(l -> l.onBoardUpdate(boardModel.getAllPieces()));
+    public RULE_VARIANT getVariant () {
+        return ruleSet.getVariant();
+    }
 
-        System.out.println("Current Turn: " + currentTurn.toString());
+    public BoardModel getBoardModel () {
+        return this.boardModel;
+    }
 
+    public void setCurrentTurn (PIECE_TEAM peiceTeam) {
+        boardModel.setSideToMove(peiceTeam);
+        snapshot = boardModel.snapshot(); // Keep the published side to move current
+        notifyGameListeners(l -> l.onTurnChange(peiceTeam));
     }
 
-    public void applyServerRemovePiece (Position position) {
+    // The team left with pieces, or null if the game is not over. Does not notify anyone.
+    public PIECE_TEAM getWinner () {
+        if (boardModel.getPieceCount(PIECE_TEAM.WHITE) == 0) return PIECE_TEAM.BLACK;
+        if (boardModel.getPieceCount(PIECE_TEAM.BLACK) == 0) return PIECE_TEAM.WHITE;
+        return null;
+    }
 
-        System.out.println("Removing piece @ " + position.toString());
-        this.boardModel.removePiece(position);
+    // Applies a move the server already checked. The path is the same as for makeMove,
+    // anything between two landing squares was jumped and gets removed, and a man that lands on its far row is crowned.
+    public void applyServerConfirmedMove (List<Position> path) {
+        Position from = path.getFirst();
+        byte piece = boardModel.getPieceCode(from);
+        if (piece == PieceCode.EMPTY) {
+            throw new IllegalStateException("No piece found at starting position: " + from);
+        }
+        boolean crowned = false;
+
+        // Lifted off first: a flying king can pass back over its own start square, which must not count as a capture
+        boardModel.removePiece(from);
+        Position at = from;
+        for (int i = 1; i < path.size(); i++) {
+            Position next = path.get(i);
+            removeBetween(at, next);
+            // Only the last square counts, unless the rules crown in the middle of a capture (Russian)
+            if (next.getY() == boardModel.getGeometry().promotionRow(PieceCode.team(piece))
+                    && (i == path.size() - 1 || ruleSet.crownsDuringCapture())) {
+                crowned = true;
+            }
+            at = next;
+        }
 
-        notifyGameListeners(l -> l.onBoardUpdate(boardModel.getAllPieces()));
+        boardModel.addPiece(piece, at); // A capture can also end back where it started
+        if (crowned && !PieceCode.isKing(piece)) {
+            boardModel.promoteSquare(boardModel.squareOf(at));
+        }
 
+        publishSnapshot();
+    }
 
+    // Removes every piece on the diagonal strictly between a and b.
+    private void removeBetween (Position a, Position b) {
+        int dx = Integer.signum(b.getX() - a.getX());
+        int dy = Integer.signum(b.getY() - a.getY());
+        for (int x = a.getX() + dx, y = a.getY() + dy; x != b.getX() && y != b.getY(); x += dx, y += dy) {
+            boardModel.removePiece(Position.of(x, y));
+        }
     }
 
     public void updateNewTurn (PIECE_TEAM nextTurn) {
         //Updating the new turn..
-        this.currentTurn = nextTurn;
+        this.boardModel.setSideToMove(nextTurn);
+        snapshot = boardModel.snapshot();
         notifyGameListeners(l -> l.onTurnChange(nextTurn));
     }
 }
@@ -0,0 +1,10 @@
+package chkMVC.chModel.Checkers;
+
+
+//Result of a position in the endgame database, for the side to move. UNKNOWN means the position isn't in the database.
+public enum ENDGAME_RESULT {
+    WIN,
+    DRAW,
+    LOSS,
+    UNKNOWN
+}
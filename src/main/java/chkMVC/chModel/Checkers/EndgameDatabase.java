@@ -0,0 +1,153 @@
+package chkMVC.chModel.Checkers;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * EndgameDatabase
+ * <p>
+ * Win/draw/loss lookup for every English 8x8 position with a few pieces, read from a file made by EndgameDatabaseBuilder.
+ * The file is mapped with FileChannel.map and never read onto the heap, so opening it only reads the small header
+ * and a probe touches one byte. The OS pages the rest in as it is used.
+ * <p>
+ * Results ignore the draw rules (repetition, move limit), they are what the position is worth with perfect play.
+ * <p>
+ * File layout (big endian):
+ * MAGIC, version, board size, max pieces, slice count, then one SLICE_ENTRY_BYTES entry per slice
+ * (white men, white kings, black men, black kings as bytes, 4 unused bytes, data offset, number of positions),
+ * then the slice data: 2 bits per position, four positions per byte, lowest bits first.
+ * <p>
+ * Thread safe, the mapping is shared and read only.
+ */
+public final class EndgameDatabase implements AutoCloseable {
+
+    static final long MAGIC = 0x434B454744420001L; // "CKEGDB" then 0x0001
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    static final int SLICE_ENTRY_BYTES = 24;
+
+    // 2 bit codes in the data
+    static final int CODE_DRAW = 0;
+    static final int CODE_WIN = 1;
+    static final int CODE_LOSS = 2;
+    static final int CODE_UNUSED = 3; // Men on their crowning row, never looked up
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment file;
+    private final int maxPieces;
+    private final long[] sliceOffsets; // By sliceKey, -1 if the slice isn't in the file
+
+    private EndgameDatabase (Arena arena, MemorySegment file) {
+        this.arena = arena;
+        this.file = file;
+        if (file.byteSize() < HEADER_BYTES || file.get(LONG, 0) != MAGIC) {
+            throw new IllegalArgumentException("Not an endgame database file.");
+        }
+        if (file.get(INT, 8) != VERSION || file.get(INT, 12) != 8) {
+            throw new IllegalArgumentException("Unsupported endgame database (version " + file.get(INT, 8) + ", board " + file.get(INT, 12) + ").");
+        }
+        this.maxPieces = file.get(INT, 16);
+        int sliceCount = file.get(INT, 20);
+        if (maxPieces < 2 || maxPieces > EndgameIndex.MAX_PIECES || sliceCount < 0) {
+            throw new IllegalArgumentException("Corrupt endgame database header.");
+        }
+
+        this.sliceOffsets = new long[sliceKeyCount(maxPieces)];
+        Arrays.fill(sliceOffsets, -1L);
+        for (int i = 0; i < sliceCount; i++) {
+            long entry = HEADER_BYTES + (long) i * SLICE_ENTRY_BYTES;
+            int wm = file.get(ValueLayout.JAVA_BYTE, entry);
+            int wk = file.get(ValueLayout.JAVA_BYTE, entry + 1);
+            int bm = file.get(ValueLayout.JAVA_BYTE, entry + 2);
+            int bk = file.get(ValueLayout.JAVA_BYTE, entry + 3);
+            long offset = file.get(LONG, entry + 8);
+            long positions = file.get(LONG, entry + 16);
+            if (positions != EndgameIndex.sliceSize(wm, wk, bm, bk) || offset + (positions + 3) / 4 > file.byteSize()) {
+                throw new IllegalArgumentException("Corrupt endgame database slice " + wm + "," + wk + "," + bm + "," + bk + ".");
+            }
+            sliceOffsets[sliceKey(maxPieces, wm, wk, bm, bk)] = offset;
+        }
+    }
+
+    /**
+     * Maps the database file read only. Takes about as long as reading its header.
+     *
+     * @throws IOException              if the file can't be opened.
+     * @throws IllegalArgumentException if it isn't a database file this version can read.
+     */
+    public static EndgameDatabase open (Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new EndgameDatabase(arena, file);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    public int getMaxPieces () {
+        return maxPieces;
+    }
+
+    // Result for the side to move in the game's position, UNKNOWN if it isn't English rules or has too many pieces.
+    public ENDGAME_RESULT probe (CheckersGameModel gameModel) {
+        if (gameModel.getVariant() != RULE_VARIANT.ENGLISH) return ENDGAME_RESULT.UNKNOWN;
+        return probe(gameModel.getBoardModel());
+    }
+
+    // Result for the side to move, assuming English rules. UNKNOWN if the board isn't 8x8 or has too many pieces.
+    public ENDGAME_RESULT probe (BoardModel board) {
+        if (board.getGeometry() != BoardGeometry.EIGHT) return ENDGAME_RESULT.UNKNOWN;
+        long white = board.getWhiteMask(0);
+        long black = board.getBlackMask(0);
+        long kings = board.getKingMask(0);
+        boolean blackToMove = board.getSideToMove() == PIECE_TEAM.BLACK;
+        // The side to move has nothing left, that game is already over
+        if ((blackToMove ? black : white) == 0) return ENDGAME_RESULT.LOSS;
+        return probe(white & ~kings, white & kings, black & ~kings, black & kings, blackToMove);
+    }
+
+    ENDGAME_RESULT probe (long whiteMen, long whiteKings, long blackMen, long blackKings, boolean blackToMove) {
+        int wm = Long.bitCount(whiteMen), wk = Long.bitCount(whiteKings);
+        int bm = Long.bitCount(blackMen), bk = Long.bitCount(blackKings);
+        if (wm + wk + bm + bk > maxPieces || wm + wk == 0 || bm + bk == 0) return ENDGAME_RESULT.UNKNOWN;
+        long offset = sliceOffsets[sliceKey(maxPieces, wm, wk, bm, bk)];
+        if (offset < 0) return ENDGAME_RESULT.UNKNOWN;
+
+        long index = EndgameIndex.index(whiteMen, whiteKings, blackMen, blackKings, blackToMove);
+        int code = (file.get(ValueLayout.JAVA_BYTE, offset + (index >>> 2)) >>> ((index & 3) << 1)) & 3;
+        return switch (code) {
+            case CODE_WIN -> ENDGAME_RESULT.WIN;
+            case CODE_LOSS -> ENDGAME_RESULT.LOSS;
+            case CODE_DRAW -> ENDGAME_RESULT.DRAW;
+            default -> ENDGAME_RESULT.UNKNOWN;
+        };
+    }
+
+    // Unmaps the file. Probing after this throws.
+    @Override
+    public void close () {
+        arena.close();
+    }
+
+    static int sliceKeyCount (int maxPieces) {
+        int side = maxPieces + 1;
+        return side * side * side * side;
+    }
+
+    static int sliceKey (int maxPieces, int wm, int wk, int bm, int bk) {
+        int side = maxPieces + 1;
+        return ((wm * side + wk) * side + bm) * side + bk;
+    }
+}
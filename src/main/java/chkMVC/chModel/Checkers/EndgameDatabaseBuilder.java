@@ -0,0 +1,242 @@
+package chkMVC.chModel.Checkers;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * EndgameDatabaseBuilder
+ * <p>
+ * Works out win/draw/loss for every English 8x8 position with up to maxPieces pieces and writes the file EndgameDatabase reads.
+ * <p>
+ * Slices are solved smallest first: fewer pieces, then fewer men. A capture always leads to fewer pieces and a crowning
+ * to fewer men, so every move out of a slice lands in a slice that is already done, and only quiet king and man moves
+ * stay inside it. Each slice gets one forward pass that settles whatever the finished slices decide, then the results
+ * are passed backwards (retrograde): a loss makes every position that can move into it a win, and a position whose
+ * quiet moves all turn out to reach wins for the opponent is a loss. Un-making a quiet move is just stepping a piece
+ * back, so that needs no move generator. Whatever is never settled can't be forced either way and is a draw.
+ * <p>
+ * Everything is kept in memory while building (a byte per position), so it is meant for small piece counts, 4 or 5.
+ */
+public final class EndgameDatabaseBuilder {
+
+    // Largest piece count this will try, the 6 piece slices already need gigabytes
+    public static final int MAX_BUILD_PIECES = 5;
+
+    // Working values, one byte per position. The final ones match the 2 bit file codes.
+    private static final byte UNKNOWN = 4;
+    // Added to a pending count that must never reach 0, because some move already draws
+    private static final int DRAWN_MOVE = 64;
+
+    private final int maxPieces;
+    private final PrintStream log;
+    private final byte[][] values; // By EndgameDatabase.sliceKey, null until that slice is solved
+
+    private final CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(BoardGeometry.EIGHT), new EnglishRuleSet(BoardGeometry.EIGHT), false);
+    private final MoveList moves = new MoveList(BoardGeometry.EIGHT);
+    private final long[] groups = new long[4];
+
+    private EndgameDatabaseBuilder (int maxPieces, PrintStream log) {
+        this.maxPieces = maxPieces;
+        this.log = log;
+        this.values = new byte[EndgameDatabase.sliceKeyCount(maxPieces)][];
+    }
+
+    /**
+     * Builds the database for up to maxPieces pieces and writes it to out.
+     *
+     * @param log where to print progress, or null.
+     */
+    public static void build (int maxPieces, Path out, PrintStream log) throws IOException {
+        if (maxPieces < 2 || maxPieces > MAX_BUILD_PIECES) {
+            throw new IllegalArgumentException("Endgame databases can be built for 2 to " + MAX_BUILD_PIECES + " pieces, not " + maxPieces);
+        }
+        EndgameDatabaseBuilder builder = new EndgameDatabaseBuilder(maxPieces, log);
+        List<int[]> slices = slices(maxPieces);
+        for (int[] slice : slices) {
+            builder.solve(slice);
+        }
+        builder.write(slices, out);
+    }
+
+    // Every material split with at least one piece a side, in the order they have to be solved.
+    private static List<int[]> slices (int maxPieces) {
+        List<int[]> slices = new ArrayList<>();
+        for (int wm = 0; wm <= maxPieces; wm++) {
+            for (int wk = 0; wm + wk <= maxPieces; wk++) {
+                for (int bm = 0; wm + wk + bm <= maxPieces; bm++) {
+                    for (int bk = 0; wm + wk + bm + bk <= maxPieces; bk++) {
+                        if (wm + wk > 0 && bm + bk > 0) slices.add(new int[]{wm, wk, bm, bk});
+                    }
+                }
+            }
+        }
+        slices.sort(Comparator.<int[]>comparingInt(s -> s[0] + s[1] + s[2] + s[3]).thenComparingInt(s -> s[0] + s[2]));
+        return slices;
+    }
+
+    private void solve (int[] slice) {
+        long start = System.nanoTime();
+        long size = EndgameIndex.sliceSize(slice[0], slice[1], slice[2], slice[3]);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Slice " + describe(slice) + " is too big to build in memory.");
+        }
+        byte[] slot = new byte[(int) size];
+        byte[] pending = new byte[slot.length]; // Quiet moves of each unsolved position whose result isn't known yet, plus DRAWN_MOVE
+        int[] queue = new int[slot.length];     // Solved wins and losses still to pass back to their predecessors
+        int queued = 0;
+        values[EndgameDatabase.sliceKey(maxPieces, slice[0], slice[1], slice[2], slice[3])] = slot;
+
+        // One forward pass: everything that can be decided from the finished slices is, the rest waits on its quiet moves
+        for (int i = 0; i < slot.length; i++) {
+            boolean blackToMove = EndgameIndex.unrank(i, slice[0], slice[1], slice[2], slice[3], groups);
+            if ((groups[0] & EndgameIndex.WHITE_MAN_ILLEGAL) != 0 || (groups[2] & EndgameIndex.BLACK_MAN_ILLEGAL) != 0) {
+                slot[i] = EndgameDatabase.CODE_UNUSED;
+                continue;
+            }
+            slot[i] = evaluate(groups, blackToMove, pending, i);
+            if (slot[i] == EndgameDatabase.CODE_WIN || slot[i] == EndgameDatabase.CODE_LOSS) queue[queued++] = i;
+        }
+
+        // Retrograde: a loss makes every position that can move into it a win, a win takes one quiet move off
+        // each position that can move into it, and a position with none left (and no drawing move) is a loss.
+        for (int head = 0; head < queued; head++) {
+            int solved = queue[head];
+            boolean blackToMove = EndgameIndex.unrank(solved, slice[0], slice[1], slice[2], slice[3], groups);
+            boolean loss = slot[solved] == EndgameDatabase.CODE_LOSS;
+            // The side that just moved is the other one
+            int moverMen = blackToMove ? 0 : 2;
+            long empty = ~(groups[0] | groups[1] | groups[2] | groups[3]) & 0xFFFFFFFFL;
+
+            for (int kind = moverMen; kind <= moverMen + 1; kind++) {
+                boolean king = kind == moverMen + 1;
+                for (long rest = groups[kind]; rest != 0; rest &= rest - 1) {
+                    int to = Long.numberOfTrailingZeros(rest);
+                    for (int dir = 0; dir < BoardGeometry.DIRECTIONS; dir++) {
+                        // A man came from behind it: white men move up, so they came from below
+                        if (!king && (dir >= BoardGeometry.DOWN_RIGHT) != blackToMove) continue;
+                        int from = BoardGeometry.EIGHT.neighbour(to, dir);
+                        if (from < 0 || (empty & (1L << from)) == 0) continue;
+
+                        long moved = groups[kind];
+                        groups[kind] = (moved & ~(1L << to)) | (1L << from);
+                        int before = (int) EndgameIndex.index(groups[0], groups[1], groups[2], groups[3], !blackToMove);
+                        groups[kind] = moved;
+
+                        if (slot[before] != UNKNOWN) continue;
+                        if (loss) {
+                            slot[before] = EndgameDatabase.CODE_WIN;
+                            queue[queued++] = before;
+                        } else if (--pending[before] == 0) {
+                            slot[before] = EndgameDatabase.CODE_LOSS;
+                            queue[queued++] = before;
+                        }
+                    }
+                }
+            }
+        }
+
+        long wins = 0, losses = 0, draws = 0;
+        for (int i = 0; i < slot.length; i++) {
+            if (slot[i] == UNKNOWN) slot[i] = EndgameDatabase.CODE_DRAW;
+            if (slot[i] == EndgameDatabase.CODE_WIN) wins++;
+            else if (slot[i] == EndgameDatabase.CODE_LOSS) losses++;
+            else if (slot[i] == EndgameDatabase.CODE_DRAW) draws++;
+        }
+        if (log != null) {
+            log.printf("slice %s: %,d positions, %,d wins, %,d losses, %,d draws, %.1f ms%n",
+                    describe(slice), size, wins, losses, draws, (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    /**
+     * Looks at every move of the position. Moves out of the slice are looked up, quiet moves inside it are counted
+     * into pending[index] (with DRAWN_MOVE added if some move already reaches a draw, so the count never gets to 0).
+     *
+     * @return WIN, LOSS or DRAW if that's already certain, otherwise UNKNOWN.
+     */
+    private byte evaluate (long[] groups, boolean blackToMove, byte[] pending, int index) {
+        BoardModel board = gameModel.getBoardModel();
+        board.load(groups[0] | groups[1], groups[2] | groups[3], groups[1] | groups[3], 0L, 0L, 0L,
+                blackToMove ? PIECE_TEAM.BLACK : PIECE_TEAM.WHITE);
+
+        int count = gameModel.generateLegalMoves(moves);
+        if (count == 0) return EndgameDatabase.CODE_LOSS;
+
+        int quiet = 0;
+        boolean drawn = false;
+        for (int i = 0; i < count; i++) {
+            if (!moves.isCapture(i) && !moves.isPromotion(i)) {
+                quiet++; // Stays in this slice, not known yet
+                continue;
+            }
+            gameModel.doMove(moves, i);
+            int reply = lookup(board);
+            gameModel.undoMove();
+            if (reply == EndgameDatabase.CODE_LOSS) return EndgameDatabase.CODE_WIN;
+            if (reply != EndgameDatabase.CODE_WIN) drawn = true;
+        }
+        if (quiet == 0) return (byte) (drawn ? EndgameDatabase.CODE_DRAW : EndgameDatabase.CODE_LOSS);
+        pending[index] = (byte) (quiet + (drawn ? DRAWN_MOVE : 0));
+        return UNKNOWN;
+    }
+
+    // Value for the side to move of a position reached by a move, from the slices solved so far.
+    private int lookup (BoardModel board) {
+        long white = board.getWhiteMask(0);
+        long black = board.getBlackMask(0);
+        long kings = board.getKingMask(0);
+        boolean blackToMove = board.getSideToMove() == PIECE_TEAM.BLACK;
+        if ((blackToMove ? black : white) == 0) return EndgameDatabase.CODE_LOSS; // Everything got captured
+
+        long whiteMen = white & ~kings, whiteKings = white & kings, blackMen = black & ~kings, blackKings = black & kings;
+        byte[] slot = values[EndgameDatabase.sliceKey(maxPieces, Long.bitCount(whiteMen), Long.bitCount(whiteKings),
+                Long.bitCount(blackMen), Long.bitCount(blackKings))];
+        if (slot == null) {
+            throw new IllegalStateException("Move leads to a slice that isn't solved yet: " + BoardCodec.toFen(board));
+        }
+        return slot[(int) EndgameIndex.index(whiteMen, whiteKings, blackMen, blackKings, blackToMove)];
+    }
+
+    private void write (List<int[]> slices, Path out) throws IOException {
+        long offset = EndgameDatabase.HEADER_BYTES + (long) slices.size() * EndgameDatabase.SLICE_ENTRY_BYTES;
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out), 1 << 16))) {
+            data.writeLong(EndgameDatabase.MAGIC);
+            data.writeInt(EndgameDatabase.VERSION);
+            data.writeInt(8);
+            data.writeInt(maxPieces);
+            data.writeInt(slices.size());
+            for (int[] slice : slices) {
+                long size = EndgameIndex.sliceSize(slice[0], slice[1], slice[2], slice[3]);
+                for (int count : slice) data.writeByte(count);
+                data.writeInt(0);
+                data.writeLong(offset);
+                data.writeLong(size);
+                offset += (size + 3) / 4;
+            }
+            for (int[] slice : slices) {
+                byte[] slot = values[EndgameDatabase.sliceKey(maxPieces, slice[0], slice[1], slice[2], slice[3])];
+                for (int i = 0; i < slot.length; i += 4) {
+                    int packed = 0;
+                    for (int j = 0; j < 4 && i + j < slot.length; j++) {
+                        packed |= slot[i + j] << (j << 1);
+                    }
+                    data.writeByte(packed);
+                }
+            }
+        }
+        if (log != null) {
+            log.printf("wrote %s, %,d bytes%n", out, offset);
+        }
+    }
+
+    private static String describe (int[] slice) {
+        return slice[0] + "m" + slice[1] + "k v " + slice[2] + "m" + slice[3] + "k";
+    }
+}
@@ -0,0 +1,131 @@
+package chkMVC.chModel.Checkers;
+
+/**
+ * EndgameIndex
+ * <p>
+ * The index scheme of the endgame database, shared by the builder and the lookup.
+ * Positions are grouped in slices by their material (white men, white kings, black men, black kings).
+ * Inside a slice a position is numbered by placing each group in turn on the squares still free:
+ * the white men as a combination of the 32 squares, then the white kings as a combination of what is left, and so on,
+ * with the side to move as the lowest bit. Every index in a slice is some placement, so nothing is wasted on
+ * impossible overlaps (only men standing on their own crowning row are left unused).
+ * <p>
+ * 8x8 boards only, every mask fits in one word.
+ */
+final class EndgameIndex {
+
+    static final int SQUARES = 32;
+    static final int MAX_PIECES = 8;
+
+    // BINOMIAL[n][k] = n choose k
+    private static final long[][] BINOMIAL = new long[SQUARES + 1][MAX_PIECES + 1];
+
+    static {
+        for (int n = 0; n <= SQUARES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, MAX_PIECES); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    // Masks of the rows men can't stand on: white men are crowned on the top row, black men on the bottom one.
+    static final long WHITE_MAN_ILLEGAL = 0xF0000000L;
+    static final long BLACK_MAN_ILLEGAL = 0x0000000FL;
+
+    private EndgameIndex () {
+    }
+
+    static long choose (int n, int k) {
+        return k < 0 || k > n ? 0 : BINOMIAL[n][k];
+    }
+
+    // Number of indexes in the slice, both sides to move.
+    static long sliceSize (int whiteMen, int whiteKings, int blackMen, int blackKings) {
+        int free = SQUARES;
+        long size = choose(free, whiteMen);
+        free -= whiteMen;
+        size *= choose(free, whiteKings);
+        free -= whiteKings;
+        size *= choose(free, blackMen);
+        free -= blackMen;
+        size *= choose(free, blackKings);
+        return size * 2;
+    }
+
+    /**
+     * Index of the position inside its slice.
+     * The groups are white men, white kings, black men, black kings, as masks over the 32 squares.
+     */
+    static long index (long whiteMen, long whiteKings, long blackMen, long blackKings, boolean blackToMove) {
+        long taken = whiteMen;
+        long index = rank(whiteMen, 0L);
+        index = index * choose(SQUARES - Long.bitCount(taken), Long.bitCount(whiteKings)) + rank(whiteKings, taken);
+        taken |= whiteKings;
+        index = index * choose(SQUARES - Long.bitCount(taken), Long.bitCount(blackMen)) + rank(blackMen, taken);
+        taken |= blackMen;
+        index = index * choose(SQUARES - Long.bitCount(taken), Long.bitCount(blackKings)) + rank(blackKings, taken);
+        return index * 2 + (blackToMove ? 1 : 0);
+    }
+
+    // Rank of group among the k-subsets of the squares not in taken (combinatorial number system).
+    private static long rank (long group, long taken) {
+        long rank = 0;
+        int j = 1;
+        for (long rest = group; rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            int compressed = square - Long.bitCount(taken & ((1L << square) - 1));
+            rank += choose(compressed, j++);
+        }
+        return rank;
+    }
+
+    /**
+     * Inverse of index(): writes the four group masks into out and returns true if black is to move.
+     */
+    static boolean unrank (long index, int whiteMen, int whiteKings, int blackMen, int blackKings, long[] out) {
+        boolean blackToMove = (index & 1) != 0;
+        index >>>= 1;
+        int free1 = SQUARES - whiteMen;
+        int free2 = free1 - whiteKings;
+        int free3 = free2 - blackMen;
+
+        // Split the index into one rank per group, last group first
+        long size = choose(free3, blackKings);
+        long blackKingRank = index % size;
+        index /= size;
+        size = choose(free2, blackMen);
+        long blackManRank = index % size;
+        index /= size;
+        size = choose(free1, whiteKings);
+        long whiteKingRank = index % size;
+        index /= size;
+
+        out[0] = unrankGroup(index, whiteMen, SQUARES, 0L);
+        out[1] = unrankGroup(whiteKingRank, whiteKings, free1, out[0]);
+        out[2] = unrankGroup(blackManRank, blackMen, free2, out[0] | out[1]);
+        out[3] = unrankGroup(blackKingRank, blackKings, free3, out[0] | out[1] | out[2]);
+        return blackToMove;
+    }
+
+    private static long unrankGroup (long rank, int k, int free, long taken) {
+        long group = 0;
+        int c = free;
+        for (int j = k; j >= 1; j--) {
+            c--;
+            while (choose(c, j) > rank) c--;
+            rank -= choose(c, j);
+            group |= 1L << nthFree(taken, c);
+        }
+        return group;
+    }
+
+    // The n'th (0 based) square not in taken.
+    private static int nthFree (long taken, int n) {
+        for (int square = 0; square < SQUARES; square++) {
+            if ((taken & (1L << square)) != 0) continue;
+            if (n-- == 0) return square;
+        }
+        throw new IllegalArgumentException("Not enough free squares.");
+    }
+}
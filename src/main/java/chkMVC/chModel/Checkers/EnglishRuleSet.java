@@ -0,0 +1,103 @@
+package chkMVC.chModel.Checkers;
+
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
+
+/**
+ * EnglishRuleSet
+ * <p>
+ * The English (American) rules: men move and capture forward only, kings one square in any direction,
+ * capturing is mandatory, a capture always continues until the piece can't jump any more, and a man that reaches
+ * the last row is crowned and its move ends there. Any capture may be chosen, not just the longest.
+ * <p>
+ * Each move is a whole turn, a multi jump is one move with every landing square in its path.
+ * Pieces that were jumped stay on the board until the move is over, so they can't be jumped twice or landed on.
+ * <p>
+ * Works on any board size, the model uses it for plain 8x8 games and for bigger boards that weren't given a variant.
+ */
+public final class EnglishRuleSet extends RuleSet {
+
+    private int firstDirection;
+    private int lastDirection;
+
+    public EnglishRuleSet (BoardGeometry geometry) {
+        super(RULE_VARIANT.ENGLISH, geometry);
+    }
+
+    /**
+     * Clears out and fills it with the legal moves for the side to move.
+     * If any capture is possible only captures are generated.
+     *
+     * @return the number of moves.
+     */
+    @Override
+    public int generate (BoardModel board, MoveList out) {
+        PIECE_TEAM side = board.getSideToMove();
+        prepare(board, side, out);
+
+        int words = board.getWords();
+        for (int w = 0; w < words; w++) {
+            for (long rest = own(board, side, w); rest != 0; rest &= rest - 1) {
+                int square = (w << 6) + Long.numberOfTrailingZeros(rest);
+                addCaptures(board, square);
+            }
+        }
+        if (out.size() > 0) return out.size();
+
+        for (int w = 0; w < words; w++) {
+            for (long rest = own(board, side, w); rest != 0; rest &= rest - 1) {
+                int square = (w << 6) + Long.numberOfTrailingZeros(rest);
+                addSteps(board, square);
+            }
+        }
+        return out.size();
+    }
+
+    private void setDirections (boolean king, PIECE_TEAM team) {
+        if (king) {
+            firstDirection = BoardGeometry.UP_RIGHT;
+            lastDirection = BoardGeometry.DOWN_LEFT;
+        } else if (team == PIECE_TEAM.WHITE) {
+            firstDirection = BoardGeometry.UP_RIGHT;
+            lastDirection = BoardGeometry.UP_LEFT;
+        } else {
+            firstDirection = BoardGeometry.DOWN_RIGHT;
+            lastDirection = BoardGeometry.DOWN_LEFT;
+        }
+    }
+
+    private void addCaptures (BoardModel board, int square) {
+        byte piece = board.getPieceCode(square);
+        boolean king = PieceCode.isKing(piece);
+        setDirections(king, PieceCode.team(piece));
+        fromSquare = square;
+        chainStart = out.size();
+        // The piece has left its square, a chain is allowed to pass back over it
+        occupied[square >>> 6] &= ~(1L << square);
+        searchCaptures(square, 0, king);
+        occupied[square >>> 6] |= 1L << square;
+    }
+
+    // Depth first search over the jumps, every chain that can't be extended any more is a move.
+    private void searchCaptures (int square, int depth, boolean king) {
+        boolean extended = false;
+        for (int dir = firstDirection; dir <= lastDirection; dir++) {
+            int over = geometry.neighbour(square, dir);
+            if (over < 0 || !isSet(enemies, over) || isSet(captured, over)) continue;
+            int land = geometry.jumpLanding(square, dir);
+            if (land < 0 || isSet(occupied, land)) continue;
+
+            extended = true;
+            captured[over >>> 6] |= 1L << over;
+            path[depth] = land;
+            if (!king && geometry.getY(land) == promotionRow) {
+                record(depth + 1, true); // Crowning ends the move
+            } else {
+                searchCaptures(land, depth + 1, king);
+            }
+            captured[over >>> 6] &= ~(1L << over);
+        }
+        if (!extended && depth > 0) {
+            record(depth, false);
+        }
+    }
+}
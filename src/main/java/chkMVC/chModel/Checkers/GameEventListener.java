@@ -1,8 +1,6 @@
 package chkMVC.chModel.Checkers;
 
-import chkMVC.chModel.Checkers.Pieces.AbstractPiece;
-
-import java.util.Map;
+import java.util.List;
 
 //Game Event Listener, Should update on important thigns like when the game is done etc.
 public interface GameEventListener {
@@ -10,12 +8,12 @@ public interface GameEventListener {
 
     void onGameComplete (PIECE_TEAM currentTurn);
 
-    void onMoveMade (Position from, Position to);
+    // path is the start square followed by every square the piece landed on.
+    void onMoveMade (List<Position> path);
 
 
-    void onBoardUpdate (Map<Position, AbstractPiece> boardState);
+    // The snapshot is immutable, listeners can keep it and read it on any thread.
+    void onBoardUpdate (BoardSnapshot boardState);
 
     void onTurnChange (PIECE_TEAM currentTurn);
-
-    void onPieceRemoved (Position position);
 }
@@ -0,0 +1,334 @@
+package chkMVC.chModel.Checkers;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * GameReplayValidator
+ * <p>
+ * Replays recorded games (a start position plus a list of PDN moves) and finds the first illegal ply of each one,
+ * for importing archives or checking saved games in bulk.
+ * <p>
+ * Games are spread over a ForkJoinPool. Every worker thread keeps one CheckersGameModel (without listeners) per variant
+ * and plays the moves on it with doMove, so a game costs a FEN parse and a move generation per ply,
+ * not a new model and a round of listener calls and printing per move like makeMove.
+ * <p>
+ * Moves are PDN style square numbers (see BoardCodec), "22-18" or "25x18x11". A capture can also be given as just
+ * its start and end ("25x11") as long as only one legal move fits.
+ */
+public final class GameReplayValidator {
+
+    // Games handed to the pool at a time by validate(Stream, ...), so a huge stream never sits in memory at once.
+    public static final int STREAM_BATCH = 4096;
+    // Games below this are replayed by one task instead of split further.
+    private static final int LEAF_GAMES = 16;
+
+    private final ForkJoinPool pool;
+    // Per thread replayers, one per variant. Only ever used by the thread that owns them.
+    private final ThreadLocal<EnumMap<RULE_VARIANT, Replayer>> replayers = ThreadLocal.withInitial(() -> new EnumMap<>(RULE_VARIANT.class));
+
+    public GameReplayValidator () {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public GameReplayValidator (ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * Validates every game, in parallel.
+     *
+     * @return one result per game, in the same order as games.
+     */
+    public List<Result> validate (List<Game> games) {
+        Result[] results = new Result[games.size()];
+        if (!games.isEmpty()) {
+            pool.invoke(new ReplayTask(this, games, results, 0, games.size()));
+        }
+        return Arrays.asList(results);
+    }
+
+    // Validates a stream of games of any length, STREAM_BATCH at a time. sink gets the results in stream order, on this thread.
+    public void validate (Stream<Game> games, Consumer<Result> sink) {
+        List<Game> batch = new ArrayList<>(STREAM_BATCH);
+        Iterator<Game> it = games.iterator();
+        while (it.hasNext()) {
+            batch.add(it.next());
+            if (batch.size() == STREAM_BATCH || !it.hasNext()) {
+                validate(batch).forEach(sink);
+                batch.clear();
+            }
+        }
+    }
+
+    // Validates a single game on the calling thread.
+    public Result validate (Game game) {
+        return replayerFor(game.getVariant()).replay(game, null);
+    }
+
+    // Same as validate(Game), showing visitor every legal ply before it is played.
+    Result validate (Game game, PlyVisitor visitor) {
+        return replayerFor(game.getVariant()).replay(game, visitor);
+    }
+
+    // Sees each ply of a replayed game before it is played, for collecting positions (see OpeningBookBuilder).
+    interface PlyVisitor {
+        // board is the position before move index of moves. Return false to stop the replay there, the game still counts as valid.
+        boolean visit (int ply, BoardModel board, MoveList moves, int index);
+    }
+
+    private Replayer replayerFor (RULE_VARIANT variant) {
+        return replayers.get().computeIfAbsent(variant, Replayer::new);
+    }
+
+    // ForkJoinTasks are Serializable, this one is never serialized, so its fields are transient.
+    private static final class ReplayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient GameReplayValidator validator;
+        private final transient List<Game> games;
+        private final transient Result[] results;
+        private final int start;
+        private final int end;
+
+        ReplayTask (GameReplayValidator validator, List<Game> games, Result[] results, int start, int end) {
+            this.validator = validator;
+            this.games = games;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute () {
+            if (end - start <= LEAF_GAMES) {
+                for (int i = start; i < end; i++) {
+                    results[i] = validator.validate(games.get(i));
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new ReplayTask(validator, games, results, start, middle), new ReplayTask(validator, games, results, middle, end));
+        }
+    }
+
+    // One model and move list, reused for every game of one variant on one thread.
+    private static final class Replayer {
+        private final RULE_VARIANT variant;
+        private final CheckersGameModel gameModel;
+        private final MoveList moves;
+        private final String startFen;
+        private final int[] squares; // Numbers in the move being read, as board squares
+
+        Replayer (RULE_VARIANT variant) {
+            this.variant = variant;
+            this.startFen = BoardCodec.toFen(new CheckersGameModel(variant).getBoardModel());
+            this.gameModel = new CheckersGameModel(new BoardModel(variant.getGeometry()), variant.newRuleSet(), false);
+            this.moves = new MoveList(variant.getGeometry());
+            this.squares = new int[variant.getGeometry().getSquareCount() + 1];
+        }
+
+        Result replay (Game game, PlyVisitor visitor) {
+            BoardModel board = gameModel.getBoardModel();
+            try {
+                BoardCodec.parseFen(game.getStartFen() != null ? game.getStartFen() : startFen, board);
+            } catch (IllegalArgumentException e) {
+                return new Result(game, 0, e.getMessage());
+            }
+            gameModel.clearUndo();
+
+            List<String> plies = game.getMoves();
+            for (int ply = 0; ply < plies.size(); ply++) {
+                String move = plies.get(ply);
+                int count = readSquares(move, board.getGeometry());
+                if (count < 2) {
+                    return new Result(game, ply, "Can't read move '" + move + "'.");
+                }
+                gameModel.generateLegalMoves(moves);
+                int index = findMove(count);
+                if (index == -1) {
+                    return new Result(game, ply, "Illegal move " + move + " in " + BoardCodec.toFen(board) + ".");
+                }
+                if (index == -2) {
+                    return new Result(game, ply, "Ambiguous move " + move + " in " + BoardCodec.toFen(board) + ", give every landing square.");
+                }
+                if (visitor != null && !visitor.visit(ply, board, moves, index)) break;
+                gameModel.doMove(moves, index);
+            }
+            gameModel.clearUndo();
+            return new Result(game, -1, null);
+        }
+
+        // Reads "a-b" / "axbxc" into squares, returns how many there are, or -1 if move is not a valid square list.
+        private int readSquares (String move, BoardGeometry geometry) {
+            int count = 0;
+            int i = 0;
+            int length = move.length();
+            while (i < length) {
+                int start = i;
+                int number = 0;
+                while (i < length && move.charAt(i) >= '0' && move.charAt(i) <= '9' && i - start < 3) {
+                    number = number * 10 + (move.charAt(i++) - '0');
+                }
+                if (i == start || number < 1 || number > geometry.getSquareCount() || count == squares.length) return -1;
+                squares[count++] = BoardCodec.squareOfNumber(geometry, number);
+                if (i == length) break;
+                char separator = move.charAt(i++);
+                if ((separator != '-' && separator != 'x' && separator != 'X') || i == length) return -1;
+            }
+            return count;
+        }
+
+        // Index of the one legal move matching squares, -1 if none does, -2 if a from/to shorthand fits more than one.
+        private int findMove (int count) {
+            int found = -1;
+            for (int i = 0; i < moves.size(); i++) {
+                if (moves.getFrom(i) != squares[0] || moves.getTo(i) != squares[count - 1]) continue;
+                int length = moves.getPathLength(i);
+                if (count - 1 == length) {
+                    boolean same = true;
+                    for (int step = 0; step < length && same; step++) {
+                        same = moves.getPathSquare(i, step) == squares[step + 1];
+                    }
+                    if (same) return i; // Every landing square given, there is only one such move
+                } else if (count == 2) {
+                    if (found >= 0) return -2;
+                    found = i;
+                }
+            }
+            if (found < 0 && count > 2) {
+                // Another route of a king capture than the one the generator kept
+                for (int i = 0; i < moves.size(); i++) {
+                    if (gameModel.isCaptureRoute(moves, i, squares, count, false)) return i;
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * A recorded game: an id for the caller, the rules, the start position (null for the normal start),
+     * the moves in order and the PDN result ("1-0", "0-1", "1/2-1/2" ...) or null if it isn't known.
+     */
+    public static final class Game {
+        private final String id;
+        private final RULE_VARIANT variant;
+        private final String startFen;
+        private final List<String> moves;
+        private final String result;
+
+        public Game (String id, RULE_VARIANT variant, String startFen, List<String> moves) {
+            this(id, variant, startFen, moves, null);
+        }
+
+        public Game (String id, RULE_VARIANT variant, String startFen, List<String> moves, String result) {
+            this.id = id;
+            this.variant = Objects.requireNonNull(variant);
+            this.startFen = startFen;
+            this.moves = List.copyOf(moves);
+            this.result = result;
+        }
+
+        /**
+         * Builds a game from PDN move text, e.g. "1. 22-18 11-15 2. 18x11 8x15 1-0".
+         * Move numbers and {comments} are skipped, a result at the end is kept as the game's result.
+         */
+        public static Game fromPdn (String id, RULE_VARIANT variant, String startFen, String moveText) {
+            List<String> moves = new ArrayList<>();
+            String result = null;
+            int depth = 0; // Inside {comment} braces
+            for (String token : moveText.trim().split("\\s+")) {
+                if (token.isEmpty()) continue;
+                if (token.startsWith("{")) depth++;
+                if (depth > 0) {
+                    if (token.endsWith("}")) depth--;
+                    continue;
+                }
+                if (isResult(token)) {
+                    result = token.equals("*") ? null : token;
+                    continue;
+                }
+                if (token.endsWith(".")) continue;
+                moves.add(token);
+            }
+            return new Game(id, variant, startFen, moves, result);
+        }
+
+        private static boolean isResult (String token) {
+            return token.equals("*") || token.equals("1-0") || token.equals("0-1")
+                    || token.equals("2-0") || token.equals("0-2") || token.equals("1-1") || token.equals("1/2-1/2");
+        }
+
+        public String getId () {
+            return id;
+        }
+
+        public RULE_VARIANT getVariant () {
+            return variant;
+        }
+
+        public String getStartFen () {
+            return startFen;
+        }
+
+        public List<String> getMoves () {
+            return moves;
+        }
+
+        public String getResult () {
+            return result;
+        }
+
+        // The winner by the result, null for a draw or an unknown result (see isDraw).
+        public PIECE_TEAM getWinner () {
+            if (result == null) return null;
+            return switch (result) {
+                case "1-0", "2-0" -> PIECE_TEAM.WHITE;
+                case "0-1", "0-2" -> PIECE_TEAM.BLACK;
+                default -> null;
+            };
+        }
+
+        public boolean isDraw () {
+            return "1-1".equals(result) || "1/2-1/2".equals(result);
+        }
+    }
+
+    // The outcome for one game: either every move was legal, or the first ply (0 based) that wasn't and why.
+    public static final class Result {
+        private final Game game;
+        private final int firstIllegalPly;
+        private final String reason;
+
+        Result (Game game, int firstIllegalPly, String reason) {
+            this.game = game;
+            this.firstIllegalPly = firstIllegalPly;
+            this.reason = reason;
+        }
+
+        public Game getGame () {
+            return game;
+        }
+
+        public boolean isValid () {
+            return firstIllegalPly < 0;
+        }
+
+        // -1 if the whole game is legal. A bad start position is reported as ply 0.
+        public int getFirstIllegalPly () {
+            return firstIllegalPly;
+        }
+
+        public String getReason () {
+            return reason;
+        }
+
+        @Override
+        public String toString () {
+            return isValid() ? game.getId() + ": ok" : game.getId() + ": ply " + firstIllegalPly + ", " + reason;
+        }
+    }
+}
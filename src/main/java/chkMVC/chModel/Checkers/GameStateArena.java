@@ -0,0 +1,227 @@
+package chkMVC.chModel.Checkers;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * GameStateArena
+ * <p>
+ * Keeps the state of lots of games (masks, side to move, move counters and Zobrist key)
+ * in one block of off-heap memory, so games that are open but idle cost a fixed number of bytes
+ * each and nothing for the garbage collector to walk.
+ * <p>
+ * Each game lives in a fixed size slot (SLOT_BYTES). To actually play on one, bind a View to it:
+ * the view loads the slot into a CheckersGameModel that it reuses for every slot, and flush() writes it back.
+ * Moves are played with the model's makeMove, which keeps the ply and quiet ply counts, so isDraw() sees
+ * the move limit across binds. Repetitions only count positions played since the last bind.
+ * <p>
+ * Allocating and releasing slots is thread safe. Reading or writing one slot is not,
+ * that should happen under whatever lock guards that game (one View per thread).
+ */
+public final class GameStateArena implements AutoCloseable {
+
+    // Slot layout, in bytes. Masks always get two words so every geometry fits.
+    private static final long KEY = 0;
+    private static final long WHITE = 8;
+    private static final long BLACK = 24;
+    private static final long KING = 40;
+    private static final long TURN = 56;        // int, 1 white / -1 black (PIECE_TEAM values)
+    private static final long SIZE = 60;        // int, board size, 0 if the slot is free
+    private static final long PLY_COUNT = 64;   // int, plies played in the game
+    private static final long QUIET_PLIES = 68; // int, plies since the last capture or man move
+    public static final int SLOT_BYTES = 72;
+
+    private final Arena arena;
+    private final MemorySegment memory;
+    private final int capacity;
+
+    // Free slots, used as a stack. Only touched under synchronized (this).
+    private final int[] freeSlots;
+    private int freeCount;
+
+    public GameStateArena (int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Arena capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.arena = Arena.ofShared();
+        this.memory = arena.allocate((long) capacity * SLOT_BYTES, Long.BYTES);
+        this.memory.fill((byte) 0);
+        this.freeSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i; // Hand out slot 0 first
+        }
+        this.freeCount = capacity;
+    }
+
+    public int getCapacity () {
+        return capacity;
+    }
+
+    public synchronized int getUsedSlots () {
+        return capacity - freeCount;
+    }
+
+    // Off-heap bytes used by the slots.
+    public long getFootprintBytes () {
+        return memory.byteSize();
+    }
+
+    /**
+     * Takes a free slot and puts the starting position for the geometry in it.
+     *
+     * @return the slot index.
+     * @throws IllegalStateException if every slot is in use.
+     */
+    public int allocate (BoardGeometry geometry) {
+        int slot;
+        synchronized (this) {
+            if (freeCount == 0) {
+                throw new IllegalStateException("Game state arena is full (" + capacity + " slots).");
+            }
+            slot = freeSlots[--freeCount];
+        }
+        // A fresh model is only built here, not per move.
+        write(slot, new CheckersGameModel(new BoardModel(geometry)), 0, 0);
+        return slot;
+    }
+
+    /**
+     * Clears the slot and hands it back.
+     *
+     * @throws IllegalStateException if the slot isn't in use, releasing it twice would hand it to two games later.
+     */
+    public void release (int slot) {
+        long base = checkSlot(slot);
+        synchronized (this) {
+            if (memory.get(ValueLayout.JAVA_INT, base + SIZE) == 0) {
+                throw new IllegalStateException("Slot " + slot + " is not in use.");
+            }
+            memory.asSlice(base, SLOT_BYTES).fill((byte) 0);
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    public boolean isInUse (int slot) {
+        return memory.get(ValueLayout.JAVA_INT, checkSlot(slot) + SIZE) != 0;
+    }
+
+    public long getPositionKey (int slot) {
+        return memory.get(ValueLayout.JAVA_LONG, checkSlot(slot) + KEY);
+    }
+
+    public PIECE_TEAM getSideToMove (int slot) {
+        return memory.get(ValueLayout.JAVA_INT, checkSlot(slot) + TURN) == PIECE_TEAM.BLACK.getValue()
+                ? PIECE_TEAM.BLACK : PIECE_TEAM.WHITE;
+    }
+
+    public int getPlyCount (int slot) {
+        return memory.get(ValueLayout.JAVA_INT, checkSlot(slot) + PLY_COUNT);
+    }
+
+    public int getQuietPlies (int slot) {
+        return memory.get(ValueLayout.JAVA_INT, checkSlot(slot) + QUIET_PLIES);
+    }
+
+    private void write (int slot, CheckersGameModel model, int plyCount, int quietPlies) {
+        long base = checkSlot(slot);
+        BoardModel board = model.getBoardModel();
+        int words = board.getWords();
+        for (int w = 0; w < 2; w++) {
+            memory.set(ValueLayout.JAVA_LONG, base + WHITE + w * 8L, w < words ? board.getWhiteMask(w) : 0L);
+            memory.set(ValueLayout.JAVA_LONG, base + BLACK + w * 8L, w < words ? board.getBlackMask(w) : 0L);
+            memory.set(ValueLayout.JAVA_LONG, base + KING + w * 8L, w < words ? board.getKingMask(w) : 0L);
+        }
+        memory.set(ValueLayout.JAVA_LONG, base + KEY, board.positionKey());
+        memory.set(ValueLayout.JAVA_INT, base + TURN, board.getSideToMove().getValue());
+        memory.set(ValueLayout.JAVA_INT, base + SIZE, board.getWidth());
+        memory.set(ValueLayout.JAVA_INT, base + PLY_COUNT, plyCount);
+        memory.set(ValueLayout.JAVA_INT, base + QUIET_PLIES, quietPlies);
+    }
+
+    private long checkSlot (int slot) {
+        if (slot < 0 || slot >= capacity) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " out of bounds for " + capacity + " slots.");
+        }
+        return (long) slot * SLOT_BYTES;
+    }
+
+    // Frees the off-heap memory. Any View or slot index is useless after this.
+    @Override
+    public void close () {
+        arena.close();
+    }
+
+    // One reusable view per board size, meant to be kept per thread.
+    public View newView (BoardGeometry geometry) {
+        return new View(geometry);
+    }
+
+    /**
+     * A flyweight over one slot at a time. It owns a single CheckersGameModel (without listeners)
+     * which bind() fills from the slot, so moving between thousands of games costs no allocation.
+     * Changes made through getGameModel() only reach the arena on flush().
+     */
+    public final class View {
+
+        private final CheckersGameModel gameModel;
+        private int slot = -1;
+        private int plyCount;  // The slot's count when it was bound
+        private int pliesAtBind;
+
+        private View (BoardGeometry geometry) {
+            this.gameModel = new CheckersGameModel(new BoardModel(geometry), false);
+        }
+
+        public View bind (int slot) {
+            long base = checkSlot(slot);
+            BoardModel board = gameModel.getBoardModel();
+            int size = memory.get(ValueLayout.JAVA_INT, base + SIZE);
+            if (size != board.getWidth()) {
+                throw new IllegalStateException("Slot " + slot + " holds a " + size + "x" + size + " board, this view is " + board.getGeometry() + ".");
+            }
+            board.load(memory.get(ValueLayout.JAVA_LONG, base + WHITE),
+                    memory.get(ValueLayout.JAVA_LONG, base + BLACK),
+                    memory.get(ValueLayout.JAVA_LONG, base + KING),
+                    memory.get(ValueLayout.JAVA_LONG, base + WHITE + 8),
+                    memory.get(ValueLayout.JAVA_LONG, base + BLACK + 8),
+                    memory.get(ValueLayout.JAVA_LONG, base + KING + 8),
+                    getSideToMove(slot));
+            gameModel.clearUndo(); // Moves from the last slot can't be taken back here
+            gameModel.resetDrawHistory(memory.get(ValueLayout.JAVA_INT, base + QUIET_PLIES));
+            this.plyCount = memory.get(ValueLayout.JAVA_INT, base + PLY_COUNT);
+            this.pliesAtBind = gameModel.getPliesPlayed();
+            this.slot = slot;
+            return this;
+        }
+
+        // Writes the model (and its move counters) back into the bound slot.
+        public void flush () {
+            if (slot < 0) {
+                throw new IllegalStateException("View is not bound to a slot.");
+            }
+            int played = getPlyCount();
+            write(slot, gameModel, played, gameModel.getQuietPlies());
+            plyCount = played;
+            pliesAtBind = gameModel.getPliesPlayed();
+        }
+
+        public int getSlot () {
+            return slot;
+        }
+
+        public CheckersGameModel getGameModel () {
+            return gameModel;
+        }
+
+        // Plies played in the bound game, the ones played through makeMove since bind included.
+        public int getPlyCount () {
+            return plyCount + gameModel.getPliesPlayed() - pliesAtBind;
+        }
+
+        public int getQuietPlies () {
+            return gameModel.getQuietPlies();
+        }
+    }
+}
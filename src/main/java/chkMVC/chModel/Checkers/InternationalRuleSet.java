@@ -0,0 +1,123 @@
+package chkMVC.chModel.Checkers;
+
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
+
+/**
+ * InternationalRuleSet
+ * <p>
+ * The International (10x10) rules, also used for Brazilian games which are the same rules on an 8x8 board.
+ * Men move forward but capture both ways, kings fly (move and capture along a whole diagonal),
+ * and the capture that takes the most pieces has to be played (majority rule, kings count the same as men).
+ * A man is only crowned if its move ends on the far row, passing over it in the middle of a capture does nothing.
+ * <p>
+ * Jumped pieces stay on the board until the move is over (Turkish strike), so they block the way and can't be jumped twice.
+ */
+public final class InternationalRuleSet extends RuleSet {
+
+    private int bestCount; // Most pieces taken by any capture found so far this call
+
+    InternationalRuleSet (RULE_VARIANT variant, BoardGeometry geometry) {
+        super(variant, geometry);
+    }
+
+    @Override
+    public int generate (BoardModel board, MoveList out) {
+        PIECE_TEAM side = board.getSideToMove();
+        prepare(board, side, out);
+        bestCount = 0;
+
+        int words = board.getWords();
+        for (int w = 0; w < words; w++) {
+            for (long rest = own(board, side, w); rest != 0; rest &= rest - 1) {
+                int square = (w << 6) + Long.numberOfTrailingZeros(rest);
+                addCaptures(board, square);
+            }
+        }
+        if (out.size() > 0) return out.size();
+
+        for (int w = 0; w < words; w++) {
+            for (long rest = own(board, side, w); rest != 0; rest &= rest - 1) {
+                int square = (w << 6) + Long.numberOfTrailingZeros(rest);
+                if ((board.getKingMask(w) & (1L << square)) != 0) {
+                    addSlides(square);
+                } else {
+                    addSteps(board, square);
+                }
+            }
+        }
+        return out.size();
+    }
+
+    private void addCaptures (BoardModel board, int square) {
+        fromSquare = square;
+        chainStart = out.size();
+        // The piece has left its square, a chain is allowed to pass back over it
+        occupied[square >>> 6] &= ~(1L << square);
+        if (PieceCode.isKing(board.getPieceCode(square))) {
+            searchKingCaptures(square, 0);
+        } else {
+            searchManCaptures(square, 0);
+        }
+        occupied[square >>> 6] |= 1L << square;
+    }
+
+    private void searchManCaptures (int square, int depth) {
+        boolean extended = false;
+        for (int dir = 0; dir < BoardGeometry.DIRECTIONS; dir++) {
+            int over = geometry.neighbour(square, dir);
+            if (over < 0 || !isSet(enemies, over) || isSet(captured, over)) continue;
+            int land = geometry.jumpLanding(square, dir);
+            if (land < 0 || isSet(occupied, land)) continue;
+
+            extended = true;
+            captured[over >>> 6] |= 1L << over;
+            path[depth] = land;
+            searchManCaptures(land, depth + 1);
+            captured[over >>> 6] &= ~(1L << over);
+        }
+        if (!extended && depth > 0) {
+            addCapture(depth, geometry.getY(square) == promotionRow);
+        }
+    }
+
+    private void searchKingCaptures (int square, int depth) {
+        boolean extended = false;
+        for (int dir = 0; dir < BoardGeometry.DIRECTIONS; dir++) {
+            int over = firstPieceFrom(square, dir);
+            if (over < 0 || !isSet(enemies, over) || isSet(captured, over)) continue;
+            int first = geometry.neighbour(over, dir);
+            if (first < 0 || isSet(occupied, first)) continue;
+
+            extended = true;
+            captured[over >>> 6] |= 1L << over;
+            // If the capture can go on from some of the squares behind the piece, the king has to stop on one of those
+            boolean canContinue = false;
+            for (int land = first; land >= 0 && !isSet(occupied, land) && !canContinue; land = geometry.neighbour(land, dir)) {
+                canContinue = flyingKingCanCapture(land);
+            }
+            for (int land = first; land >= 0 && !isSet(occupied, land); land = geometry.neighbour(land, dir)) {
+                path[depth] = land;
+                if (!canContinue) {
+                    addCapture(depth + 1, false);
+                } else if (flyingKingCanCapture(land)) {
+                    searchKingCaptures(land, depth + 1);
+                }
+            }
+            captured[over >>> 6] &= ~(1L << over);
+        }
+        if (!extended && depth > 0) {
+            addCapture(depth, false);
+        }
+    }
+
+    // Majority rule: shorter captures than the best so far are dropped, a longer one throws out everything before it.
+    private void addCapture (int count, boolean promotes) {
+        if (count < bestCount) return;
+        if (count > bestCount) {
+            out.clear();
+            chainStart = 0;
+            bestCount = count;
+        }
+        record(count, promotes);
+    }
+}
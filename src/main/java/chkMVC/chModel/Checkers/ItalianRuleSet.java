@@ -0,0 +1,120 @@
+package chkMVC.chModel.Checkers;
+
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
+
+/**
+ * ItalianRuleSet
+ * <p>
+ * The Italian rules: men move and capture forward only and can never capture a king, kings move one square
+ * any way, and a man that is crowned stops there. When there is a choice of captures the rules pick it, in order:
+ * the one taking the most pieces, then the one made with a king, then the one taking the most kings,
+ * then the one that meets a king earliest. Every capture left after that is legal.
+ * <p>
+ * The real Italian board is the mirror image of ours (double corner on the other side), that is left to the GUI.
+ */
+public final class ItalianRuleSet extends RuleSet {
+
+    private static final int COUNT_SHIFT = 40;
+    private static final long KING_CAPTURING = 1L << 39;
+    private static final int KINGS_SHIFT = 32;
+    private static final int ORDER_TOP_BIT = 30; // Bit for a king taken on the first jump, the next jump is one lower
+
+    private final long[] enemyKings = new long[2];
+    private int firstDirection;
+    private int lastDirection;
+    private boolean movingKing;
+    private long bestScore; // Priority of the best capture found so far this call, -1 for none
+
+    ItalianRuleSet (BoardGeometry geometry) {
+        super(RULE_VARIANT.ITALIAN, geometry);
+    }
+
+    @Override
+    public int generate (BoardModel board, MoveList out) {
+        PIECE_TEAM side = board.getSideToMove();
+        prepare(board, side, out);
+        bestScore = -1;
+        for (int w = 0; w < board.getWords(); w++) {
+            enemyKings[w] = enemies[w] & board.getKingMask(w);
+        }
+
+        int words = board.getWords();
+        for (int w = 0; w < words; w++) {
+            for (long rest = own(board, side, w); rest != 0; rest &= rest - 1) {
+                int square = (w << 6) + Long.numberOfTrailingZeros(rest);
+                addCaptures(board, square);
+            }
+        }
+        if (out.size() > 0) return out.size();
+
+        for (int w = 0; w < words; w++) {
+            for (long rest = own(board, side, w); rest != 0; rest &= rest - 1) {
+                int square = (w << 6) + Long.numberOfTrailingZeros(rest);
+                addSteps(board, square);
+            }
+        }
+        return out.size();
+    }
+
+    private void addCaptures (BoardModel board, int square) {
+        byte piece = board.getPieceCode(square);
+        movingKing = PieceCode.isKing(piece);
+        if (movingKing) {
+            firstDirection = BoardGeometry.UP_RIGHT;
+            lastDirection = BoardGeometry.DOWN_LEFT;
+        } else if (PieceCode.team(piece) == PIECE_TEAM.WHITE) {
+            firstDirection = BoardGeometry.UP_RIGHT;
+            lastDirection = BoardGeometry.UP_LEFT;
+        } else {
+            firstDirection = BoardGeometry.DOWN_RIGHT;
+            lastDirection = BoardGeometry.DOWN_LEFT;
+        }
+        fromSquare = square;
+        chainStart = out.size();
+        // The piece has left its square, a chain is allowed to pass back over it
+        occupied[square >>> 6] &= ~(1L << square);
+        searchCaptures(square, 0, 0, 0L);
+        occupied[square >>> 6] |= 1L << square;
+    }
+
+    // kingsTaken and kingOrder describe the chain so far, for the priority rules.
+    private void searchCaptures (int square, int depth, int kingsTaken, long kingOrder) {
+        boolean extended = false;
+        for (int dir = firstDirection; dir <= lastDirection; dir++) {
+            int over = geometry.neighbour(square, dir);
+            if (over < 0 || !isSet(enemies, over) || isSet(captured, over)) continue;
+            boolean overKing = isSet(enemyKings, over);
+            if (overKing && !movingKing) continue; // Men can't take kings
+            int land = geometry.jumpLanding(square, dir);
+            if (land < 0 || isSet(occupied, land)) continue;
+
+            extended = true;
+            captured[over >>> 6] |= 1L << over;
+            path[depth] = land;
+            int kings = overKing ? kingsTaken + 1 : kingsTaken;
+            long order = overKing ? kingOrder | (1L << (ORDER_TOP_BIT - depth)) : kingOrder;
+            if (!movingKing && geometry.getY(land) == promotionRow) {
+                addCapture(depth + 1, true, kings, order); // Crowning ends the move
+            } else {
+                searchCaptures(land, depth + 1, kings, order);
+            }
+            captured[over >>> 6] &= ~(1L << over);
+        }
+        if (!extended && depth > 0) {
+            addCapture(depth, false, kingsTaken, kingOrder);
+        }
+    }
+
+    // The priority rules folded into one number, a bigger score always wins.
+    private void addCapture (int count, boolean promotes, int kingsTaken, long kingOrder) {
+        long score = ((long) count << COUNT_SHIFT) | (movingKing ? KING_CAPTURING : 0L)
+                | ((long) kingsTaken << KINGS_SHIFT) | kingOrder;
+        if (score < bestScore) return;
+        if (score > bestScore) {
+            out.clear();
+            chainStart = 0;
+            bestScore = score;
+        }
+        record(count, promotes);
+    }
+}
@@ -0,0 +1,211 @@
+package chkMVC.chModel.Checkers;
+
+import java.util.Arrays;
+
+/**
+ * MoveList
+ * <p>
+ * A reusable buffer of moves stored as plain ints and longs, so that code walking lots of
+ * positions (searching, hints, etc.) does not have to create a Move object for every move.
+ * <p>
+ * Each move has one int header holding the from square (bits 0-7), the to square (bits 8-15) and the flags,
+ * plus the mask of squares captured by the move, one long per mask word (see BoardGeometry.getWords).
+ * Moves also keep their path, the squares the piece lands on in order (just the to square unless it is a multi jump).
+ * Squares are the BoardModel square indexes (see BoardModel.squareOf).
+ */
+public final class MoveList {
+
+    static final int SQUARE_BITS = 0xFF;
+    static final int TO_SHIFT = 8;
+    static final int PROMOTION_FLAG = 1 << 16;
+
+    private final BoardGeometry geometry;
+    private final int words;
+    private int[] headers;
+    private long[] captured; // words longs per move
+    private int[] pathStart; // Index into pathSquares of each move's path
+    private int[] pathSquares;
+    private int pathSize;
+    private int size;
+
+    public MoveList () {
+        this(BoardGeometry.EIGHT);
+    }
+
+    public MoveList (BoardGeometry geometry) {
+        this(geometry, 32);
+    }
+
+    public MoveList (BoardGeometry geometry, int initialCapacity) {
+        this.geometry = geometry;
+        this.words = geometry.getWords();
+        this.headers = new int[Math.max(1, initialCapacity)];
+        this.captured = new long[headers.length * words];
+        this.pathStart = new int[headers.length];
+        this.pathSquares = new int[headers.length * 2];
+    }
+
+    public BoardGeometry getGeometry () {
+        return geometry;
+    }
+
+    // Adds a move, returns its index in the list. Only for boards that fit in one mask word.
+    public int add (int fromSquare, int toSquare, long capturedMask, boolean promotes) {
+        return add(fromSquare, toSquare, capturedMask, 0L, promotes);
+    }
+
+    // Adds a move with a two word captured mask (capturedHigh is ignored on one word boards).
+    public int add (int fromSquare, int toSquare, long capturedLow, long capturedHigh, boolean promotes) {
+        int index = addHeader(fromSquare, toSquare, capturedLow, capturedHigh, promotes);
+        addPathSquare(toSquare);
+        return index;
+    }
+
+    // Adds a move along a path of landing squares (path[0 .. pathLength - 1]), the last one is the to square.
+    public int add (int fromSquare, int[] path, int pathLength, long capturedLow, long capturedHigh, boolean promotes) {
+        if (pathLength < 1) {
+            throw new IllegalArgumentException("A move needs at least one square in its path.");
+        }
+        int index = addHeader(fromSquare, path[pathLength - 1], capturedLow, capturedHigh, promotes);
+        for (int i = 0; i < pathLength; i++) {
+            addPathSquare(path[i]);
+        }
+        return index;
+    }
+
+    /**
+     * Appends a copy of move index of src (squares, path, captures and promotion) without building a path array,
+     * so the search can collect its lines without allocating. src may be this list.
+     */
+    public int addCopy (MoveList src, int index) {
+        if (src.words != words) {
+            throw new IllegalArgumentException("Can't copy a move between a " + src.geometry + " and a " + geometry + " list.");
+        }
+        int length = src.getPathLength(index);
+        int start = src.pathStart[index];
+        int base = index * src.words;
+        int copy = addHeader(src.getFrom(index), src.getTo(index), src.captured[base],
+                words > 1 ? src.captured[base + 1] : 0L, src.isPromotion(index));
+        for (int step = 0; step < length; step++) {
+            addPathSquare(src.pathSquares[start + step]);
+        }
+        return copy;
+    }
+
+    private int addHeader (int fromSquare, int toSquare, long capturedLow, long capturedHigh, boolean promotes) {
+        if (size == headers.length) {
+            headers = Arrays.copyOf(headers, headers.length * 2);
+            captured = Arrays.copyOf(captured, headers.length * words);
+            pathStart = Arrays.copyOf(pathStart, headers.length);
+        }
+        pathStart[size] = pathSize;
+        headers[size] = fromSquare | (toSquare << TO_SHIFT) | (promotes ? PROMOTION_FLAG : 0);
+        int base = size * words;
+        captured[base] = capturedLow;
+        if (words > 1) {
+            captured[base + 1] = capturedHigh;
+        }
+        return size++;
+    }
+
+    private void addPathSquare (int square) {
+        if (pathSize == pathSquares.length) {
+            pathSquares = Arrays.copyOf(pathSquares, pathSquares.length * 2);
+        }
+        pathSquares[pathSize++] = square;
+    }
+
+    public void clear () {
+        size = 0;
+        pathSize = 0;
+    }
+
+    // Drops the last move added.
+    void removeLast () {
+        if (size == 0) return;
+        size--;
+        pathSize = pathStart[size];
+    }
+
+    public int size () {
+        return size;
+    }
+
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    public int getFrom (int index) {
+        return header(index) & SQUARE_BITS;
+    }
+
+    public int getTo (int index) {
+        return (header(index) >>> TO_SHIFT) & SQUARE_BITS;
+    }
+
+    public boolean isPromotion (int index) {
+        return (header(index) & PROMOTION_FLAG) != 0;
+    }
+
+    public boolean isCapture (int index) {
+        checkIndex(index);
+        int base = index * words;
+        for (int w = 0; w < words; w++) {
+            if (captured[base + w] != 0) return true;
+        }
+        return false;
+    }
+
+    // One word of the captured mask.
+    public long getCapturedMask (int index, int word) {
+        checkIndex(index);
+        return captured[index * words + word];
+    }
+
+    // Number of landing squares in the move, 1 for a simple move or single jump.
+    public int getPathLength (int index) {
+        checkIndex(index);
+        return (index + 1 < size ? pathStart[index + 1] : pathSize) - pathStart[index];
+    }
+
+    // The step'th landing square of the move, step 0 is the first hop.
+    public int getPathSquare (int index, int step) {
+        if (step < 0 || step >= getPathLength(index)) {
+            throw new IndexOutOfBoundsException("Step " + step + " out of bounds for move " + index + ".");
+        }
+        return pathSquares[pathStart[index] + step];
+    }
+
+    // True if the move has the same from square, to square and captures as move other of list.
+    boolean sameAs (int index, MoveList list, int other) {
+        if (header(index) != list.header(other)) return false;
+        for (int w = 0; w < words; w++) {
+            if (captured[index * words + w] != list.captured[other * words + w]) return false;
+        }
+        return true;
+    }
+
+    private int header (int index) {
+        checkIndex(index);
+        return headers[index];
+    }
+
+    private void checkIndex (int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Move index " + index + " out of bounds for " + size + " moves.");
+        }
+    }
+
+    @Override
+    public String toString () {
+        StringBuilder sb = new StringBuilder("MoveList[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(geometry.positionOf(getFrom(i)));
+            for (int step = 0; step < getPathLength(i); step++) {
+                sb.append(isCapture(i) ? 'x' : '-').append(geometry.positionOf(getPathSquare(i, step)));
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,235 @@
+package chkMVC.chModel.Checkers;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * OpeningBook
+ * <p>
+ * The moves played from common early positions in recorded games, read from a file made by OpeningBookBuilder.
+ * Like EndgameDatabase the file is mapped with FileChannel.map and never read onto the heap. Entries are sorted by
+ * position key, so a lookup is a binary search over the mapping that touches a couple of dozen entries at most.
+ * <p>
+ * A book is for one variant. Every entry is a move played from a position, how many games played it and how they
+ * went for the side that played it, so a bot can pick between the popular moves and a hint can show how they score.
+ * <p>
+ * File layout (big endian):
+ * MAGIC, version, variant ordinal, board size, plies the builder read per game, entry count, then ENTRY_BYTES per entry
+ * (position key, games, score, from square, path length, then up to MAX_PATH landing squares, unused ones 0),
+ * sorted by key and most played first within a key.
+ * <p>
+ * Thread safe, the mapping is shared and read only.
+ */
+public final class OpeningBook implements AutoCloseable {
+
+    static final long MAGIC = 0x434B424F4F4B0001L; // "CKBOOK" then 0x0001
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int ENTRY_BYTES = 24;
+    // Longest move path an entry holds, longer captures are left out of the book
+    static final int MAX_PATH = 8;
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment file;
+    private final RULE_VARIANT variant;
+    private final int maxPly;
+    private final long entries;
+
+    private OpeningBook (Arena arena, MemorySegment file) {
+        this.arena = arena;
+        this.file = file;
+        if (file.byteSize() < HEADER_BYTES || file.get(LONG, 0) != MAGIC) {
+            throw new IllegalArgumentException("Not an opening book file.");
+        }
+        if (file.get(INT, 8) != VERSION) {
+            throw new IllegalArgumentException("Unsupported opening book version " + file.get(INT, 8) + ".");
+        }
+        int ordinal = file.get(INT, 12);
+        RULE_VARIANT[] variants = RULE_VARIANT.values();
+        if (ordinal < 0 || ordinal >= variants.length || variants[ordinal].getGeometry().getSize() != file.get(INT, 16)) {
+            throw new IllegalArgumentException("Opening book for an unknown variant (" + ordinal + ", board " + file.get(INT, 16) + ").");
+        }
+        this.variant = variants[ordinal];
+        this.maxPly = file.get(INT, 20);
+        this.entries = file.get(LONG, 24);
+        if (entries < 0 || HEADER_BYTES + entries * ENTRY_BYTES > file.byteSize()) {
+            throw new IllegalArgumentException("Corrupt opening book header.");
+        }
+    }
+
+    /**
+     * Maps the book file read only.
+     *
+     * @throws IOException              if the file can't be opened.
+     * @throws IllegalArgumentException if it isn't a book file this version can read.
+     */
+    public static OpeningBook open (Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new OpeningBook(arena, file);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    public RULE_VARIANT getVariant () {
+        return variant;
+    }
+
+    // How many plies into each game the builder looked, nothing deeper is in the book.
+    public int getMaxPly () {
+        return maxPly;
+    }
+
+    public long getEntryCount () {
+        return entries;
+    }
+
+    // The book moves for the game's position, most played first. Empty if it is another variant or isn't in the book.
+    public List<BookMove> lookup (CheckersGameModel gameModel) {
+        if (gameModel.getVariant() != variant) return List.of();
+        MoveList legalMoves = new MoveList(gameModel.getBoardModel().getGeometry());
+        gameModel.generateLegalMoves(legalMoves);
+        return lookup(gameModel.getBoardModel(), legalMoves);
+    }
+
+    /**
+     * The book moves for board, most played first, assuming this book's rules.
+     * legalMoves must be the legal moves in board, each BookMove says which of them it is,
+     * and book moves that aren't among them (a key collision) are left out.
+     */
+    public List<BookMove> lookup (BoardModel board, MoveList legalMoves) {
+        if (board.getGeometry() != variant.getGeometry() || entries == 0) return List.of();
+        long key = board.positionKey();
+        List<BookMove> found = new ArrayList<>(4);
+        for (long entry = firstEntry(key); entry < entries && keyAt(entry) == key; entry++) {
+            int index = findLegal(entry, legalMoves);
+            if (index >= 0) {
+                long at = HEADER_BYTES + entry * ENTRY_BYTES;
+                found.add(new BookMove(legalMoves, index, file.get(INT, at + 8), file.get(SHORT, at + 12)));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Picks one of moves at random, weighted by how often each was played, so a bot doesn't play the same game every time.
+     *
+     * @return null if moves is empty.
+     */
+    public static BookMove pick (List<BookMove> moves, RandomGenerator random) {
+        long total = 0;
+        for (BookMove move : moves) total += move.getGames();
+        if (total == 0) return null;
+        long roll = random.nextLong(total);
+        for (BookMove move : moves) {
+            roll -= move.getGames();
+            if (roll < 0) return move;
+        }
+        return moves.getLast();
+    }
+
+    // Unmaps the file. Looking up after this throws.
+    @Override
+    public void close () {
+        arena.close();
+    }
+
+    // First entry with a key of at least key (entries if there is none).
+    private long firstEntry (long key) {
+        long low = 0;
+        long high = entries;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt (long entry) {
+        return file.get(LONG, HEADER_BYTES + entry * ENTRY_BYTES);
+    }
+
+    // Index of the legal move with the entry's from square and path, -1 if there is none.
+    private int findLegal (long entry, MoveList legalMoves) {
+        long at = HEADER_BYTES + entry * ENTRY_BYTES;
+        int from = file.get(ValueLayout.JAVA_BYTE, at + 14) & 0xFF;
+        int length = file.get(ValueLayout.JAVA_BYTE, at + 15) & 0xFF;
+        for (int i = 0; i < legalMoves.size(); i++) {
+            if (legalMoves.getFrom(i) != from || legalMoves.getPathLength(i) != length) continue;
+            boolean same = true;
+            for (int step = 0; step < length && same; step++) {
+                same = legalMoves.getPathSquare(i, step) == (file.get(ValueLayout.JAVA_BYTE, at + 16 + step) & 0xFF);
+            }
+            if (same) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * One book move: which of the legal moves it is, how many games played it
+     * and how they went for the side that played it.
+     */
+    public static final class BookMove {
+        private final int moveIndex;
+        private final List<Position> path;
+        private final int games;
+        private final int score;
+
+        BookMove (MoveList legalMoves, int moveIndex, int games, int score) {
+            this.moveIndex = moveIndex;
+            this.games = games;
+            this.score = score;
+            BoardGeometry geometry = legalMoves.getGeometry();
+            List<Position> squares = new ArrayList<>(legalMoves.getPathLength(moveIndex) + 1);
+            squares.add(geometry.positionOf(legalMoves.getFrom(moveIndex)));
+            for (int step = 0; step < legalMoves.getPathLength(moveIndex); step++) {
+                squares.add(geometry.positionOf(legalMoves.getPathSquare(moveIndex, step)));
+            }
+            this.path = List.copyOf(squares);
+        }
+
+        // Index of the move in the legal move list given to lookup.
+        public int getMoveIndex () {
+            return moveIndex;
+        }
+
+        // The move as a path, from square first, like makeMove takes.
+        public List<Position> getPath () {
+            return path;
+        }
+
+        public int getGames () {
+            return games;
+        }
+
+        // -1000 (every game with a known result lost) to 1000 (all won) for the side that played it, draws count 0.
+        public int getScore () {
+            return score;
+        }
+
+        @Override
+        public String toString () {
+            return path + " (" + games + " games, score " + score + ")";
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package chkMVC.chModel.Checkers;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OpeningBookBuilder
+ * <p>
+ * Reads recorded games and writes the OpeningBook file. Every game is replayed (with GameReplayValidator, so a game
+ * with an illegal move is left out) for its first maxPly plies, and each position and move played is counted along
+ * with how the game ended for the side that played it. write() sorts the moves by position key and writes the ones
+ * played often enough.
+ * <p>
+ * Not thread safe, one builder per import.
+ */
+public final class OpeningBookBuilder {
+
+    public static final int DEFAULT_MAX_PLY = 16;
+
+    private final RULE_VARIANT variant;
+    private final int maxPly;
+    private final GameReplayValidator replayer = new GameReplayValidator();
+    // By position and move: games, games with a known result, wins minus losses for the side that played it
+    private final Map<BookKey, int[]> counts = new HashMap<>();
+    private int gamesAdded;
+    private int gamesRejected;
+
+    public OpeningBookBuilder (RULE_VARIANT variant, int maxPly) {
+        if (maxPly < 1) {
+            throw new IllegalArgumentException("maxPly has to be at least 1, not " + maxPly);
+        }
+        this.variant = variant;
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Counts the game's first maxPly moves.
+     *
+     * @return false if the game has an illegal move in those plies, nothing from it is counted then.
+     * @throws IllegalArgumentException if the game is another variant.
+     */
+    public boolean add (GameReplayValidator.Game game) {
+        if (game.getVariant() != variant) {
+            throw new IllegalArgumentException("Book is for " + variant + ", the game is " + game.getVariant());
+        }
+        PIECE_TEAM winner = game.getWinner();
+        boolean scored = winner != null || game.isDraw();
+        List<BookKey> played = new ArrayList<>(maxPly);
+        List<PIECE_TEAM> movers = new ArrayList<>(maxPly);
+        GameReplayValidator.Result result = replayer.validate(game, (ply, board, moves, index) -> {
+            if (ply >= maxPly) return false;
+            if (moves.getPathLength(index) <= OpeningBook.MAX_PATH) {
+                played.add(new BookKey(board.positionKey(), moves, index));
+                movers.add(board.getSideToMove());
+            }
+            return true;
+        });
+        if (!result.isValid()) {
+            gamesRejected++;
+            return false;
+        }
+
+        for (int i = 0; i < played.size(); i++) {
+            int[] count = counts.computeIfAbsent(played.get(i), k -> new int[3]);
+            count[0]++;
+            if (scored) {
+                count[1]++;
+                if (winner != null) count[2] += winner == movers.get(i) ? 1 : -1;
+            }
+        }
+        gamesAdded++;
+        return true;
+    }
+
+    /**
+     * Adds every game in PDN text: [Tag "value"] lines, then the move text, for as many games as there are.
+     * A [FEN] tag sets the start position, and [Result] is used if the move text doesn't end with one.
+     *
+     * @return how many games were added, games with illegal moves aren't.
+     */
+    public int addPdn (Reader in) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        Map<String, String> tags = new HashMap<>();
+        StringBuilder moveText = new StringBuilder();
+        int added = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.startsWith("[")) {
+                // Tags after move text start the next game
+                if (!moveText.isEmpty()) {
+                    if (addPdnGame(tags, moveText)) added++;
+                    tags.clear();
+                    moveText.setLength(0);
+                }
+                int quote = line.indexOf('"');
+                int end = line.lastIndexOf('"');
+                if (quote > 1 && end > quote) {
+                    tags.put(line.substring(1, quote).trim(), line.substring(quote + 1, end));
+                }
+            } else if (!line.isEmpty()) {
+                moveText.append(line).append(' ');
+            }
+        }
+        if (!moveText.isEmpty() && addPdnGame(tags, moveText)) added++;
+        return added;
+    }
+
+    private boolean addPdnGame (Map<String, String> tags, StringBuilder moveText) {
+        String id = tags.getOrDefault("Event", "game") + " " + (gamesAdded + gamesRejected + 1);
+        GameReplayValidator.Game game = GameReplayValidator.Game.fromPdn(id, variant, tags.get("FEN"), moveText.toString());
+        if (game.getResult() == null && tags.containsKey("Result") && !tags.get("Result").equals("*")) {
+            game = new GameReplayValidator.Game(id, variant, game.getStartFen(), game.getMoves(), tags.get("Result"));
+        }
+        return add(game);
+    }
+
+    public int getGamesAdded () {
+        return gamesAdded;
+    }
+
+    public int getGamesRejected () {
+        return gamesRejected;
+    }
+
+    // Different position and move pairs seen so far.
+    public int getMovesSeen () {
+        return counts.size();
+    }
+
+    /**
+     * Writes the book with every move played in at least minGames games.
+     *
+     * @return how many entries were written.
+     */
+    public int write (Path out, int minGames) throws IOException {
+        List<Map.Entry<BookKey, int[]>> kept = new ArrayList<>();
+        for (Map.Entry<BookKey, int[]> entry : counts.entrySet()) {
+            if (entry.getValue()[0] >= minGames) kept.add(entry);
+        }
+        // By key for the binary search, then most played first
+        kept.sort((a, b) -> {
+            int byKey = Long.compare(a.getKey().key, b.getKey().key);
+            if (byKey != 0) return byKey;
+            int byGames = Integer.compare(b.getValue()[0], a.getValue()[0]);
+            return byGames != 0 ? byGames : Long.compare(a.getKey().path, b.getKey().path);
+        });
+
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out), 1 << 16))) {
+            data.writeLong(OpeningBook.MAGIC);
+            data.writeInt(OpeningBook.VERSION);
+            data.writeInt(variant.ordinal());
+            data.writeInt(variant.getGeometry().getSize());
+            data.writeInt(maxPly);
+            data.writeLong(kept.size());
+            for (Map.Entry<BookKey, int[]> entry : kept) {
+                BookKey move = entry.getKey();
+                int[] count = entry.getValue();
+                data.writeLong(move.key);
+                data.writeInt(count[0]);
+                data.writeShort(count[1] == 0 ? 0 : count[2] * 1000 / count[1]);
+                data.writeByte(move.from);
+                data.writeByte(move.length);
+                data.writeLong(move.path);
+            }
+        }
+        return kept.size();
+    }
+
+    // A position and a move from it, the path packed a square per byte, first landing square highest.
+    private static final class BookKey {
+        private final long key;
+        private final int from;
+        private final int length;
+        private final long path;
+
+        BookKey (long key, MoveList moves, int index) {
+            this.key = key;
+            this.from = moves.getFrom(index);
+            this.length = moves.getPathLength(index);
+            long packed = 0;
+            for (int step = 0; step < OpeningBook.MAX_PATH; step++) {
+                packed = packed << 8 | (step < length ? moves.getPathSquare(index, step) : 0);
+            }
+            this.path = packed;
+        }
+
+        @Override
+        public boolean equals (Object o) {
+            if (!(o instanceof BookKey other)) return false;
+            return key == other.key && from == other.from && length == other.length && path == other.path;
+        }
+
+        @Override
+        public int hashCode () {
+            return Long.hashCode(key * 31 + path) * 31 + from;
+        }
+    }
+}
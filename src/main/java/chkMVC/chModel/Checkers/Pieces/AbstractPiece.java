@@ -1,30 +1,42 @@
 package chkMVC.chModel.Checkers.Pieces;
 
-import chkGameUtil.IncrementerSingleton;
-import chkMVC.chModel.Checkers.BoardModel;
 import chkMVC.chModel.Checkers.PIECE_TEAM;
-import chkMVC.chModel.Checkers.Position;
-import chkMVC.chModel.Math.Vector2i;
-
-import java.util.ArrayList;
-import java.util.List;
 
 //Note: abstract pieces were originally planned to be used for when
 //moves are recommended by the machine.
 //However, that became difficult to implement.
 //So it is underutilized.
+//The board now stores pieces as PieceCode bytes, these objects are only a view of a code
+//for code that still wants objects (like the GUI). AbstractPiece.of hands out shared instances.
 public abstract class AbstractPiece {
-    private int id;
-    protected PIECE_TEAM team;
+    private static final AbstractPiece WHITE_MAN_VIEW = new SerfPiece(PIECE_TEAM.WHITE);
+    private static final AbstractPiece BLACK_MAN_VIEW = new SerfPiece(PIECE_TEAM.BLACK);
+    private static final AbstractPiece WHITE_KING_VIEW = new KingPiece(PIECE_TEAM.WHITE);
+    private static final AbstractPiece BLACK_KING_VIEW = new KingPiece(PIECE_TEAM.BLACK);
+
+    protected final PIECE_TEAM team;
+    private final byte code;
 
 
-    AbstractPiece (PIECE_TEAM team) {
-        this.id = IncrementerSingleton.getInstance().increment();
+    AbstractPiece (PIECE_TEAM team, boolean king) {
         this.team = team;
+        this.code = PieceCode.of(team, king);
+    }
+
+    // Shared piece for a code, or null for an empty square.
+    public static AbstractPiece of (byte code) {
+        return switch (code) {
+            case PieceCode.WHITE_MAN -> WHITE_MAN_VIEW;
+            case PieceCode.BLACK_MAN -> BLACK_MAN_VIEW;
+            case PieceCode.WHITE_KING -> WHITE_KING_VIEW;
+            case PieceCode.BLACK_KING -> BLACK_KING_VIEW;
+            case PieceCode.EMPTY -> null;
+            default -> throw new IllegalArgumentException("Unknown piece code: " + code);
+        };
     }
 
-    public int getId () {
-        return id;
+    public byte getCode () {
+        return code;
     }
 
     public PIECE_TEAM getTeam () {
@@ -37,7 +49,10 @@ public abstract class AbstractPiece {
 
     public abstract AbstractPiece promote ();
 
+    public boolean isKing () {
+        return PieceCode.isKing(code);
+    }
 
-}
 
+}
 
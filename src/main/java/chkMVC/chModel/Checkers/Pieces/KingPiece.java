@@ -4,7 +4,7 @@ import chkMVC.chModel.Checkers.PIECE_TEAM;
 
 public class KingPiece extends AbstractPiece {
     public KingPiece (PIECE_TEAM team) {
-        super(team);
+        super(team, true);
     }
 
     @Override
@@ -0,0 +1,67 @@
+package chkMVC.chModel.Checkers.Pieces;
+
+import chkMVC.chModel.Checkers.PIECE_TEAM;
+
+/**
+ * PieceCode
+ * <p>
+ * Pieces stored as a single byte instead of an object.
+ * Bit 0 is set for white, bit 1 for black and bit 2 for a king,
+ * so the code for a square can be read straight out of the board masks.
+ * 0 means the square is empty.
+ */
+public final class PieceCode {
+
+    public static final byte EMPTY = 0;
+    public static final byte WHITE_MAN = 0b001;
+    public static final byte BLACK_MAN = 0b010;
+    public static final byte WHITE_KING = 0b101;
+    public static final byte BLACK_KING = 0b110;
+
+    public static final int WHITE_BIT = 0b001;
+    public static final int BLACK_BIT = 0b010;
+    public static final int KING_BIT = 0b100;
+
+    private PieceCode () {
+    }
+
+    public static byte of (PIECE_TEAM team, boolean king) {
+        int code = switch (team) {
+            case WHITE -> WHITE_BIT;
+            case BLACK -> BLACK_BIT;
+            default -> throw new IllegalArgumentException("Pieces must be white or black: " + team);
+        };
+        return (byte) (king ? code | KING_BIT : code);
+    }
+
+    public static boolean isEmpty (byte code) {
+        return code == EMPTY;
+    }
+
+    public static boolean isWhite (byte code) {
+        return (code & WHITE_BIT) != 0;
+    }
+
+    public static boolean isBlack (byte code) {
+        return (code & BLACK_BIT) != 0;
+    }
+
+    public static boolean isKing (byte code) {
+        return (code & KING_BIT) != 0;
+    }
+
+    // Team of the piece, SPECTATOR for an empty square.
+    public static PIECE_TEAM team (byte code) {
+        if ((code & WHITE_BIT) != 0) return PIECE_TEAM.WHITE;
+        if ((code & BLACK_BIT) != 0) return PIECE_TEAM.BLACK;
+        return PIECE_TEAM.SPECTATOR;
+    }
+
+    public static byte promote (byte code) {
+        return code == EMPTY ? EMPTY : (byte) (code | KING_BIT);
+    }
+
+    public static boolean isValid (byte code) {
+        return code == EMPTY || code == WHITE_MAN || code == BLACK_MAN || code == WHITE_KING || code == BLACK_KING;
+    }
+}
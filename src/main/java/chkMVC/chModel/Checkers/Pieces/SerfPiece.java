@@ -5,11 +5,11 @@ import chkMVC.chModel.Checkers.PIECE_TEAM;
 public class SerfPiece extends AbstractPiece {
 
     public SerfPiece (PIECE_TEAM team) {
-        super(team);
+        super(team, false);
     }
 
     @Override
     public AbstractPiece promote () {
-        return new KingPiece(team);
+        return AbstractPiece.of(PieceCode.promote(getCode()));
     }
-}
\ No newline at end of file
+}
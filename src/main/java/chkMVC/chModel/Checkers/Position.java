@@ -2,81 +2,104 @@ package chkMVC.chModel.Checkers;
 
 import chkMVC.chModel.Math.Vector2i;
 
-import java.util.Objects; // Use Objects.hash
-
-public class Position {
-    private final Vector2i position;
+//Positions are interned, there is exactly one instance for each square of the biggest board (12x12).
+//Get them through Position.of / Position.ofIndex / Position.fromString, they never allocate.
+//Whether a position is actually on a smaller board is up to the BoardGeometry.
+public final class Position {
 
     static final int MIN_BOARD_HEIGHT = 8;
-    static final int MAX_BOARD_HEIGHT = 8;
+    static final int MAX_BOARD_HEIGHT = BoardGeometry.MAX_SIZE;
+
+    // All the positions, indexed by y * MAX_BOARD_HEIGHT + x
+    private static final Position[] POSITIONS = new Position[MAX_BOARD_HEIGHT * MAX_BOARD_HEIGHT];
+
+    static {
+        for (int y = 0; y < MAX_BOARD_HEIGHT; y++) {
+            for (int x = 0; x < MAX_BOARD_HEIGHT; x++) {
+                POSITIONS[y * MAX_BOARD_HEIGHT + x] = new Position(x, y);
+            }
+        }
+    }
+
+    private final int x;
+    private final int y;
+    private final int index; // y * MAX_BOARD_HEIGHT + x
+    private final int hash;
+    private final String name; // Algebraic name, e.g. "A1"
+
+
+    private Position (int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.index = y * MAX_BOARD_HEIGHT + x;
+        // Same value Objects.hash(x, y) used to give, without boxing every call.
+        this.hash = 31 * (31 + x) + y;
+        // Convert x to letters (A, B, ...) and y to the 1-based row.
+        this.name = String.valueOf((char) ('A' + x)) + (y + 1);
+    }
 
 
     /**
-     * Creates a new Position.
+     * Gets the Position for a square.
      *
-     * @param x The x-coordinate (column), 1-based.
-     * @param y The y-coordinate (row), 1-based.
+     * @param x The x-coordinate (column), 0-based.
+     * @param y The y-coordinate (row), 0-based.
      * @throws IllegalArgumentException if x or y are out of board bounds [0, width/height -1].
      */
-    public Position (int x, int y) {
-
+    public static Position of (int x, int y) {
         if (!isValidCoordinate(x)) {
-            throw new IllegalArgumentException(String.format(
-                    "Invalid x position: %d. Must be from 1 and %d.", x, 8));
+            throw new IllegalArgumentException("Invalid x position: " + x + ". Must be from 0 to " + (MAX_BOARD_HEIGHT - 1) + ".");
         }
         if (!isValidCoordinate(y)) {
-            throw new IllegalArgumentException(String.format(
-                    "Invalid y position: %d. Must be from 1 and %d.", y, 8));
+            throw new IllegalArgumentException("Invalid y position: " + y + ". Must be from 0 to " + (MAX_BOARD_HEIGHT - 1) + ".");
         }
-
-        this.position = new Vector2i(x, y);
+        return POSITIONS[y * MAX_BOARD_HEIGHT + x];
     }
 
 
     /**
-     * Creates a new Position using Vector2i for coordinates and dimensions.
+     * Gets the Position using Vector2i for coordinates.
      *
      * @param positionVector Vector containing 0-based x and y coordinates.
      * @throws IllegalArgumentException if coordinates are out of bounds.
      */
-    public Position (Vector2i positionVector) {
-        this(positionVector.x, positionVector.y);
+    public static Position of (Vector2i positionVector) {
+        return of(positionVector.x, positionVector.y);
     }
 
-    // Private helper for coordinate validation
-    private boolean isValidCoordinate (int value) {
-        return value >= 0 && value < 8;
+
+    /**
+     * Gets the Position with the given square index (see getIndex()).
+     *
+     * @throws IllegalArgumentException if the index is not on the board.
+     */
+    public static Position ofIndex (int index) {
+        if (index < 0 || index >= POSITIONS.length) {
+            throw new IllegalArgumentException("Invalid position index: " + index);
+        }
+        return POSITIONS[index];
     }
 
-    // No setters needed as fields are final, promoting immutability
+    // Private helper for coordinate validation
+    private static boolean isValidCoordinate (int value) {
+        return value >= 0 && value < MAX_BOARD_HEIGHT;
+    }
 
+    // Only one instance exists per square, so identity is equality.
     @Override
     public boolean equals (Object obj) {
-        if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        Position other = (Position) obj;
-        // Positions are equal if coordinates are the same.
-        // Board dimensions don't strictly need to match for equality,
-        // but logically they should represent the same conceptual square.
-        return this.getX() == other.getX() && this.getY() == other.getY();
-        // Optional stricter check: && this.boardWidth == other.boardWidth && this.boardHeight == other.boardHeight;
+        return this == obj;
     }
 
     @Override
     public int hashCode () {
-        // Hash code depends only on coordinates for map lookups.
-        return Objects.hash(this.getX(), this.getY());
-        // Optional stricter hash: return Objects.hash(this.getX(), this.getY(), this.boardWidth, this.boardHeight);
+        return hash;
     }
 
     @Override
     public String toString () {
-        // Convert x to letters (A, B, ...)
-        char column = (char) ('A' + this.getX()); // Adjust for 1-based index
-        // Row is just the Y value
-        int row = this.getY() + 1;
-        // Return standard algebraic notation e.g., "A1", "H8"
-        return String.format("%c%d", column, row);
+        // Standard algebraic notation e.g., "A1", "H8"
+        return name;
     }
 
     public static Position fromString (String input) {
@@ -85,25 +108,34 @@ public class Position {
         }
 
         // First char is column letter (e.g., 'A' → 0)
-        char colChar = Character.toUpperCase(input.charAt(0));
-        int x = colChar - 'A';
+        int x = Character.toUpperCase(input.charAt(0)) - 'A';
 
         // Rest of string is the row number (e.g., "8")
-        int y;
-        try {
-            y = Integer.parseInt(input.substring(1)) - 1;
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid row number in: " + input);
+        int row = 0;
+        for (int i = 1; i < input.length(); i++) {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || row > MAX_BOARD_HEIGHT) {
+                throw new IllegalArgumentException("Invalid row number in: " + input);
+            }
+            row = row * 10 + digit;
         }
 
-        return new Position(x, y);
+        if (!isValidCoordinate(x) || !isValidCoordinate(row - 1)) {
+            throw new IllegalArgumentException("Invalid position string: " + input);
+        }
+        return POSITIONS[(row - 1) * MAX_BOARD_HEIGHT + x];
     }
 
     public int getY () {
-        return this.position.y;
+        return this.y;
     }
 
     public int getX () {
-        return this.position.x;
+        return this.x;
+    }
+
+    // Square index of this position, y * 12 + x. Position.ofIndex gives it back.
+    public int getIndex () {
+        return this.index;
     }
-}
\ No newline at end of file
+}
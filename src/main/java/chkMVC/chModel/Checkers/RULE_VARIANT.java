@@ -0,0 +1,36 @@
+package chkMVC.chModel.Checkers;
+
+
+//The rule variants a game can be played with, and the board each one is played on.
+public enum RULE_VARIANT {
+    ENGLISH(BoardGeometry.EIGHT),       // Also American checkers
+    INTERNATIONAL(BoardGeometry.TEN),
+    RUSSIAN(BoardGeometry.EIGHT),
+    BRAZILIAN(BoardGeometry.EIGHT),     // International rules on the small board
+    ITALIAN(BoardGeometry.EIGHT);
+
+    private final BoardGeometry geometry;
+
+    RULE_VARIANT (BoardGeometry geometry) {
+        this.geometry = geometry;
+    }
+
+    public BoardGeometry getGeometry () {
+        return geometry;
+    }
+
+    // True if kings move and take from any distance along a diagonal.
+    public boolean hasFlyingKings () {
+        return this == INTERNATIONAL || this == RUSSIAN || this == BRAZILIAN;
+    }
+
+    // A new move generator for this variant. It keeps scratch state, so one per game model (or thread).
+    public RuleSet newRuleSet () {
+        return switch (this) {
+            case ENGLISH -> new EnglishRuleSet(geometry);
+            case INTERNATIONAL, BRAZILIAN -> new InternationalRuleSet(this, geometry);
+            case RUSSIAN -> new RussianRuleSet(geometry);
+            case ITALIAN -> new ItalianRuleSet(geometry);
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package chkMVC.chModel.Checkers;
+
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
+
+/**
+ * RuleSet
+ * <p>
+ * The move rules for one variant (see RULE_VARIANT): writes every legal move for the side to move into a MoveList.
+ * Everything else (doMove/undoMove, draws, listeners) lives in CheckersGameModel and is the same for every variant.
+ * <p>
+ * Each variant is its own final class with its own generate loop, and a game model keeps the one rule set it was made with,
+ * so a game only ever makes one virtual call per generate() and the rest is straight code the JIT can inline.
+ * The shared bits below are all final or static.
+ * <p>
+ * Nothing is allocated while generating, all the scratch space lives in the rule set.
+ * That also means one rule set can only be used by one thread at a time.
+ */
+public abstract class RuleSet {
+
+    final RULE_VARIANT variant;
+    final BoardGeometry geometry;
+
+    // Scratch state, filled at the start of every call
+    final long[] occupied = new long[2]; // Every piece except the one moving
+    final long[] enemies = new long[2];
+    final long[] captured = new long[2]; // Pieces jumped so far in the current chain
+    final int[] path;
+    private final MoveList scratch;
+
+    MoveList out;
+    int fromSquare;
+    int promotionRow;
+    int chainStart; // First move added for the current piece, for dropping duplicate chains
+
+    RuleSet (RULE_VARIANT variant, BoardGeometry geometry) {
+        this.variant = variant;
+        this.geometry = geometry;
+        this.path = new int[geometry.getSquareCount()];
+        this.scratch = new MoveList(geometry);
+    }
+
+    public final RULE_VARIANT getVariant () {
+        return variant;
+    }
+
+    public final BoardGeometry getGeometry () {
+        return geometry;
+    }
+
+    /**
+     * Clears out and fills it with the legal moves for the side to move.
+     *
+     * @return the number of moves.
+     */
+    public abstract int generate (BoardModel board, MoveList out);
+
+    // True if the side to move has at least one legal move.
+    public final boolean hasLegalMove (BoardModel board) {
+        return generate(board, scratch) > 0;
+    }
+
+    // True if a man that lands on its far row in the middle of a capture is crowned right there (Russian).
+    // Everywhere else it is only crowned if the move ends on that row.
+    public boolean crownsDuringCapture () {
+        return false;
+    }
+
+    final void prepare (BoardModel board, PIECE_TEAM side, MoveList out) {
+        out.clear();
+        this.out = out;
+        this.promotionRow = geometry.promotionRow(side);
+        for (int w = 0; w < board.getWords(); w++) {
+            occupied[w] = board.getWhiteMask(w) | board.getBlackMask(w);
+            enemies[w] = side == PIECE_TEAM.WHITE ? board.getBlackMask(w) : board.getWhiteMask(w);
+            captured[w] = 0L;
+        }
+    }
+
+    static long own (BoardModel board, PIECE_TEAM side, int word) {
+        return side == PIECE_TEAM.WHITE ? board.getWhiteMask(word) : board.getBlackMask(word);
+    }
+
+    static boolean isSet (long[] mask, int square) {
+        return (mask[square >>> 6] & (1L << square)) != 0;
+    }
+
+    // Moves a man (forward only) or a short king (any way) one square.
+    final void addSteps (BoardModel board, int square) {
+        byte piece = board.getPieceCode(square);
+        boolean king = PieceCode.isKing(piece);
+        PIECE_TEAM directions = king ? PIECE_TEAM.SPECTATOR : PieceCode.team(piece);
+        for (int w = 0; w < board.getWords(); w++) {
+            for (long targets = geometry.stepMask(square, directions, w) & ~occupied[w]; targets != 0; targets &= targets - 1) {
+                int to = (w << 6) + Long.numberOfTrailingZeros(targets);
+                out.add(square, to, 0L, 0L, !king && geometry.getY(to) == promotionRow);
+            }
+        }
+    }
+
+    // Moves a flying king any number of empty squares along each diagonal.
+    final void addSlides (int square) {
+        for (int dir = 0; dir < BoardGeometry.DIRECTIONS; dir++) {
+            for (int to = geometry.neighbour(square, dir); to >= 0 && !isSet(occupied, to); to = geometry.neighbour(to, dir)) {
+                out.add(square, to, 0L, 0L, false);
+            }
+        }
+    }
+
+    // First piece along dir from square, skipping empty squares, or -1 if it runs off the board.
+    final int firstPieceFrom (int square, int dir) {
+        int at = geometry.neighbour(square, dir);
+        while (at >= 0 && !isSet(occupied, at)) {
+            at = geometry.neighbour(at, dir);
+        }
+        return at;
+    }
+
+    // True if a flying king on square has something to take: an enemy not jumped yet, with an empty square behind it.
+    final boolean flyingKingCanCapture (int square) {
+        for (int dir = 0; dir < BoardGeometry.DIRECTIONS; dir++) {
+            int over = firstPieceFrom(square, dir);
+            if (over < 0 || !isSet(enemies, over) || isSet(captured, over)) continue;
+            int land = geometry.neighbour(over, dir);
+            if (land >= 0 && !isSet(occupied, land)) return true;
+        }
+        return false;
+    }
+
+    // True if a man on square can take something in any direction.
+    final boolean manCanCaptureAnyWay (int square) {
+        for (int dir = 0; dir < BoardGeometry.DIRECTIONS; dir++) {
+            int over = geometry.neighbour(square, dir);
+            if (over < 0 || !isSet(enemies, over) || isSet(captured, over)) continue;
+            int land = geometry.jumpLanding(square, dir);
+            if (land >= 0 && !isSet(occupied, land)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds the chain in path (pathLength landing squares, capturing everything in captured) as a move.
+     * Two routes to the same square over the same pieces are the same move, so those are dropped.
+     *
+     * @return the index of the move, or -1 if it was a duplicate.
+     */
+    final int record (int pathLength, boolean promotes) {
+        int index = out.add(fromSquare, path, pathLength, captured[0], captured[1], promotes);
+        for (int i = chainStart; i < index; i++) {
+            if (out.sameAs(i, out, index)) {
+                out.removeLast();
+                return -1;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public String toString () {
+        return variant + " rules on " + geometry;
+    }
+}
@@ -0,0 +1,117 @@
+package chkMVC.chModel.Checkers;
+
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
+
+/**
+ * RussianRuleSet
+ * <p>
+ * The Russian rules: men move forward but capture both ways and kings fly, like International,
+ * but any capture may be chosen (no majority rule). A man that reaches the far row in the middle of a capture
+ * is crowned right there and carries on capturing as a king.
+ * <p>
+ * Jumped pieces stay on the board until the move is over (Turkish strike), so they block the way and can't be jumped twice.
+ */
+public final class RussianRuleSet extends RuleSet {
+
+    RussianRuleSet (BoardGeometry geometry) {
+        super(RULE_VARIANT.RUSSIAN, geometry);
+    }
+
+    @Override
+    public boolean crownsDuringCapture () {
+        return true;
+    }
+
+    @Override
+    public int generate (BoardModel board, MoveList out) {
+        PIECE_TEAM side = board.getSideToMove();
+        prepare(board, side, out);
+
+        int words = board.getWords();
+        for (int w = 0; w < words; w++) {
+            for (long rest = own(board, side, w); rest != 0; rest &= rest - 1) {
+                int square = (w << 6) + Long.numberOfTrailingZeros(rest);
+                addCaptures(board, square);
+            }
+        }
+        if (out.size() > 0) return out.size();
+
+        for (int w = 0; w < words; w++) {
+            for (long rest = own(board, side, w); rest != 0; rest &= rest - 1) {
+                int square = (w << 6) + Long.numberOfTrailingZeros(rest);
+                if ((board.getKingMask(w) & (1L << square)) != 0) {
+                    addSlides(square);
+                } else {
+                    addSteps(board, square);
+                }
+            }
+        }
+        return out.size();
+    }
+
+    private void addCaptures (BoardModel board, int square) {
+        fromSquare = square;
+        chainStart = out.size();
+        // The piece has left its square, a chain is allowed to pass back over it
+        occupied[square >>> 6] &= ~(1L << square);
+        if (PieceCode.isKing(board.getPieceCode(square))) {
+            searchKingCaptures(square, 0, false);
+        } else {
+            searchManCaptures(square, 0);
+        }
+        occupied[square >>> 6] |= 1L << square;
+    }
+
+    private void searchManCaptures (int square, int depth) {
+        boolean extended = false;
+        for (int dir = 0; dir < BoardGeometry.DIRECTIONS; dir++) {
+            int over = geometry.neighbour(square, dir);
+            if (over < 0 || !isSet(enemies, over) || isSet(captured, over)) continue;
+            int land = geometry.jumpLanding(square, dir);
+            if (land < 0 || isSet(occupied, land)) continue;
+
+            extended = true;
+            captured[over >>> 6] |= 1L << over;
+            path[depth] = land;
+            if (geometry.getY(land) == promotionRow) {
+                searchKingCaptures(land, depth + 1, true); // Crowned, the rest of the move is played as a king
+            } else {
+                searchManCaptures(land, depth + 1);
+            }
+            captured[over >>> 6] &= ~(1L << over);
+        }
+        if (!extended && depth > 0) {
+            record(depth, false);
+        }
+    }
+
+    private void searchKingCaptures (int square, int depth, boolean crowned) {
+        boolean extended = false;
+        for (int dir = 0; dir < BoardGeometry.DIRECTIONS; dir++) {
+            int over = firstPieceFrom(square, dir);
+            if (over < 0 || !isSet(enemies, over) || isSet(captured, over)) continue;
+            int first = geometry.neighbour(over, dir);
+            if (first < 0 || isSet(occupied, first)) continue;
+
+            extended = true;
+            captured[over >>> 6] |= 1L << over;
+            // If the capture can go on from some of the squares behind the piece, the king has to stop on one of those
+            boolean canContinue = false;
+            for (int land = first; land >= 0 && !isSet(occupied, land) && !canContinue; land = geometry.neighbour(land, dir)) {
+                canContinue = flyingKingCanCapture(land);
+            }
+            for (int land = first; land >= 0 && !isSet(occupied, land); land = geometry.neighbour(land, dir)) {
+                path[depth] = land;
+                if (!canContinue) {
+                    record(depth + 1, crowned);
+                } else if (flyingKingCanCapture(land)) {
+                    searchKingCaptures(land, depth + 1, crowned);
+                }
+            }
+            captured[over >>> 6] &= ~(1L << over);
+        }
+        if (!extended && depth > 0) {
+            record(depth, crowned);
+        }
+    }
+}
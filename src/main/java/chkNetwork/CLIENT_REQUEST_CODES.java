@@ -17,10 +17,12 @@ public enum CLIENT_REQUEST_CODES {
     //host specific commands. These each are only for the host so expect that.
     HOST_BEGIN_GAME(1200),
     HOST_ASSIGN_TEAM(1201),
+    HOST_ASSIGN_BOT(1202),   // Payload: team, then optional think time in ms and node limit
 
     //Play Commands. (right now its only needed that the piece can be moved since we are not doing move validations.
     MOVE_PIECE(1300),      // Move a piece (normal or jump)
     RESIGN_GAME(1301),     // Player resigns from the game
+    HINT(1302),            // Anyone in the room asks for the best move in the current position, answered with HINT
 
     //Other Error stuff:
     UNKNOWN_ERROR(1901);
@@ -1,9 +1,9 @@
 package chkNetwork.Client;
 
-import chkMVC.chModel.Checkers.BoardModel;
 import chkMVC.chModel.Checkers.CheckersGameModel;
 import chkMVC.chModel.Checkers.PIECE_TEAM;
 import chkMVC.chModel.Checkers.Position;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
 import chkNetwork.CLIENT_REQUEST_CODES;
 import chkNetwork.Client.gui.CheckersGameGUI;
 import chkNetwork.Client.gui.LobbyWindow;
@@ -83,7 +83,14 @@ public class ApplicationController implements ClientEventListener {
         clientModel.sendClientRequest(CLIENT_REQUEST_CODES.HOST_ASSIGN_TEAM, List.of(targetUsername, team.name())); // Use enum name
     }
 
-    public void attemptMove (Position from, Position to) {
+    // Asks the server to put a bot in the team's seat, it thinks for BotPlayer.DEFAULT_TIME_MS per move.
+    public void requestAssignBot (PIECE_TEAM team) {
+        System.out.println("Controller requesting a bot for " + team);
+        clientModel.sendClientRequest(CLIENT_REQUEST_CODES.HOST_ASSIGN_BOT, List.of(team.name()));
+    }
+
+    // Sends the whole move (start square then every landing square) in one MOVE_PIECE request, e.g. "A3,C5,E7".
+    public void attemptMove (List<Position> path) {
         if (clientTeam == PIECE_TEAM.SPECTATOR) {
             if (gameGUI != null) {
                 gameGUI.showError("Move Error", "Spectators cannot move pieces."); // Delegate error display
@@ -92,8 +99,46 @@ public class ApplicationController implements ClientEventListener {
             return;
         }
 
-        System.out.println("Controller sending MOVE_PIECE request for " + from + " -> " + to);
-        clientModel.sendClientRequest(CLIENT_REQUEST_CODES.MOVE_PIECE, List.of(from.toString(), to.toString()));
+        StringBuilder squares = new StringBuilder();
+        for (Position position : path) {
+            if (!squares.isEmpty()) squares.append(',');
+            squares.append(position);
+        }
+
+        System.out.println("Controller sending MOVE_PIECE request for " + squares);
+        clientModel.sendClientRequest(CLIENT_REQUEST_CODES.MOVE_PIECE, List.of(squares.toString()));
+    }
+
+    // True if the local model says path is the start of a multi jump that needs more squares.
+    // The server still checks the finished move, this is only so the GUI knows to keep collecting clicks.
+    public boolean isPartialMove (List<Position> path) {
+        return checkersGameModel != null
+                && checkersGameModel.getCurrentTurn() == clientTeam
+                && checkersGameModel.isLegalPathPrefix(path)
+                && !checkersGameModel.canMakeMove(path);
+    }
+
+    // Asks the server for the best move in the current position, the answer comes back through onHint.
+    public void requestHint () {
+        if (checkersGameModel == null) return;
+        System.out.println("Controller sending HINT request");
+        clientModel.sendClientRequest(CLIENT_REQUEST_CODES.HINT);
+    }
+
+    @Override
+    public void onHint (List<Position> path, int score, String source) {
+        // A move may have come in since it was asked for, only show it while it still fits the board
+        if (checkersGameModel == null || gameGUI == null || !checkersGameModel.canMakeMove(path)) {
+            System.out.println("Dropping stale hint " + path);
+            return;
+        }
+        StringBuilder move = new StringBuilder();
+        for (Position position : path) {
+            if (!move.isEmpty()) move.append('-');
+            move.append(position);
+        }
+        String from = "book".equals(source) ? "opening book" : "depth " + source;
+        gameGUI.showHint(path, String.format("Hint: %s (%+.2f for %s, %s)", move, score / 100.0, checkersGameModel.getCurrentTurn(), from));
     }
 
     //Close out the clientMOde.
@@ -104,8 +149,8 @@ public class ApplicationController implements ClientEventListener {
 
     //Implementation of gameEventListener.
     @Override
-    public void onGameStart () {
-        System.out.println("ApplicationController: Received onGameStart");
+    public void onGameStart (RULE_VARIANT variant) {
+        System.out.println("ApplicationController: Received onGameStart (" + variant + " rules)");
         if (gameGUI != null) {
             System.out.println("Game already seems to be started.");
             return;
@@ -114,18 +159,17 @@ public class ApplicationController implements ClientEventListener {
         // Create game components
         SwingUtilities.invokeLater(() -> {
             System.out.println("Initializing game components...");
-            BoardModel boardModel = new BoardModel(8); // Standard 8x8 board
-            checkersGameModel = new CheckersGameModel(boardModel); // Initialize with setup
+            checkersGameModel = new CheckersGameModel(variant); // Same rules (and board size) as the server
 
 
             // Create the Game GUI, passing the controller needed for user actions
-            gameGUI = new CheckersGameGUI(this); // Pass ApplicationController for board clicks
+            gameGUI = new CheckersGameGUI(this, variant.getGeometry().getSize()); // Pass ApplicationController for board clicks
 
             //Add the gui to the boardModel as a listener.
             checkersGameModel.addListener(gameGUI.getEventListener());
 
             // Initial board update
-            checkersGameModel.notifyGameListeners(l -> l.onBoardUpdate(checkersGameModel.getBoardModel().getAllPieces()));
+            checkersGameModel.notifyGameListeners(l -> l.onBoardUpdate(checkersGameModel.getSnapshot()));
             checkersGameModel.notifyGameListeners(l -> l.onTurnChange(checkersGameModel.getCurrentTurn()));
 
 
@@ -224,15 +268,15 @@ public class ApplicationController implements ClientEventListener {
     // *** Implement the crucial move confirmation ***
     // This method belongs to ClientEventListener interface (add it if missing from previous step)
     @Override
-    public void onServerMoveConfirmed (Position from, Position to) {
-        System.out.println("ApplicationController: Received onServerMoveConfirmed: " + from + " -> " + to);
+    public void onServerMoveConfirmed (List<Position> path) {
+        System.out.println("ApplicationController: Received onServerMoveConfirmed: " + path);
         if (checkersGameModel != null && gameGUI != null) {
             // Apply the move to the local game model
             SwingUtilities.invokeLater(() -> {
                 try {
                     System.out.println("Applying server confirmed move to local model...");
-                    // This should now handle piece removal/promotion internally if applicable
-                    checkersGameModel.applyServerConfirmedMove(from, to);
+                    // Removes the jumped pieces and crowns the piece from the path
+                    checkersGameModel.applyServerConfirmedMove(path);
 
                     System.out.println("Applied server move and notified game listeners (implicitly via model).");
                 } catch (Exception e) {
@@ -251,28 +295,6 @@ public class ApplicationController implements ClientEventListener {
         checkersGameModel.updateNewTurn(nextTurn);
     }
 
-    @Override
-    public void onServerRemoveConfirmed (Position removePosition) {
-        if (checkersGameModel != null && gameGUI != null) {
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    System.out.println("Applying server confirmed move to local model...");
-
-                    checkersGameModel.applyServerRemovePiece(removePosition);
-
-                    System.out.println("Applied server move and notified game listeners (implicitly via model).");
-                } catch (Exception e) {
-                    System.err.println("Error applying server confirmed move in Controller: " + e.getMessage());
-                    e.printStackTrace();
-                    showErrorMessage("Game Error", "Failed to update board after server move: " + e.getMessage());
-                }
-            });
-        } else {
-            System.err.println("Controller received onServerMoveConfirmed but game components are null.");
-        }
-
-    }
-
     @Override
     public void onGameEnd (PIECE_TEAM team) {
         SwingUtilities.invokeLater(() -> {
@@ -3,13 +3,15 @@ package chkNetwork.Client;
 import chkMVC.chModel.Checkers.PIECE_TEAM;
 import chkMVC.chModel.Checkers.Pieces.AbstractPiece;
 import chkMVC.chModel.Checkers.Position;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
 
 import java.util.HashMap;
 import java.util.List;
 
 public interface ClientEventListener {
 
-    default void onGameStart () {
+    // variant is the rules the server started the game with.
+    default void onGameStart (RULE_VARIANT variant) {
     }
 
     default void onTeamAssign (PIECE_TEAM team) {
@@ -31,14 +33,17 @@ public interface ClientEventListener {
     default void setHostView (boolean state) {
     }
 
+    // The server's suggested move. score is for the side to move (100 is a man), source is the depth searched or "book".
+    default void onHint (List<Position> path, int score, String source) {
+    }
+
 
     void onDisconnect ();
 
-    void onServerMoveConfirmed (Position from, Position to);
+    // path is the start square then every landing square of the move.
+    void onServerMoveConfirmed (List<Position> path);
 
     void onRoundUpdate (PIECE_TEAM nextTurn);
 
-    void onServerRemoveConfirmed (Position removePosition);
-
     void onGameEnd (PIECE_TEAM team);
 }
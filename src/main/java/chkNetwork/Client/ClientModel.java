@@ -11,6 +11,7 @@ import java.util.function.Consumer;
 
 import chkMVC.chModel.Checkers.PIECE_TEAM;
 import chkMVC.chModel.Checkers.Position;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
 import chkNetwork.Server.ServerResponse;
 import chkNetwork.CLIENT_REQUEST_CODES;
 import com.google.gson.Gson;
@@ -259,7 +260,7 @@ public class ClientModel {
 
                 case GAME_START:
                     System.out.println("Received GAME_START");
-                    handleGameStart(); // This will call notifyListenersOnEDT
+                    handleGameStart(response.getPayload()); // This will call notifyListenersOnEDT
                     break;
 
                 case MOVE_PIECE:
@@ -271,7 +272,9 @@ public class ClientModel {
                 case GAME_END:
                     System.out.println("Received GAME_END: " + response.getPayload());
 
-                    PIECE_TEAM team = PIECE_TEAM.valueOf(response.getPayload().getFirst());
+                    // "DRAW" instead of a team means nobody won, listeners get null for that
+                    String result = response.getPayload().getFirst();
+                    PIECE_TEAM team = "DRAW".equals(result) ? null : PIECE_TEAM.valueOf(result);
                     notifyListenersOnEDT(l -> l.onGameEnd(team));
                     break;
 
@@ -282,9 +285,9 @@ public class ClientModel {
                     System.out.println("Received ROUND_UPDATE: " + response.getPayload());
                     break;
 
-                case REMOVE_PIECE:
-                    handleRemovePiece(response);
-                    System.out.println("Received REMOVE_PIECE: " + response.getPayload());
+                case HINT:
+                    System.out.println("Received HINT: " + response.getPayload());
+                    handleHint(response.getPayload());
                     break;
 
                 //case GAME_END:
@@ -302,16 +305,6 @@ public class ClientModel {
         }
     }
 
-    private void handleRemovePiece (ServerResponse response) {
-
-        Position removePosition = Position.fromString(response.getPayload().getFirst());
-
-        System.out.println("Removing Piece @ " + removePosition.toString());
-
-        notifyListeners(l -> l.onServerRemoveConfirmed(removePosition));
-
-    }
-
     private void handleRoundUpdate (ServerResponse response) {
         List<String> turnInfo = response.getPayload();
         if (turnInfo != null && !turnInfo.isEmpty()) {
@@ -377,13 +370,16 @@ public class ClientModel {
 
         try {
 
-            Position from = Position.fromString(payload.get(0));
-            Position to = Position.fromString(payload.get(1));
+            // The whole move comes at once: start square then every landing square.
+            List<Position> path = new ArrayList<>(payload.size());
+            for (String square : payload) {
+                path.add(Position.fromString(square));
+            }
 
-            System.out.println("Parsed server move: " + from + " -> " + to);
+            System.out.println("Parsed server move: " + path);
 
             //Notify the movement on the event thread.
-            notifyListenersOnEDT(l -> l.onServerMoveConfirmed(from, to));
+            notifyListenersOnEDT(l -> l.onServerMoveConfirmed(path));
 
         } catch (IllegalArgumentException e) {
             System.err.println("Error parsing position strings in MOVE_PIECE payload '" + payload + "': " + e.getMessage());
@@ -396,9 +392,30 @@ public class ClientModel {
     }
 
 
-    // Notifies listener (on EDT) that game should start
-    private void handleGameStart () {
-        notifyListenersOnEDT(ClientEventListener::onGameStart);
+    // Payload is the path ("C3,D4"), the score, then the depth or "book".
+    private void handleHint (List<String> payload) {
+        if (payload == null || payload.size() < 3) {
+            System.err.println("Received malformed HINT payload: " + payload);
+            return;
+        }
+        try {
+            List<Position> path = new ArrayList<>();
+            for (String square : payload.getFirst().split(",")) {
+                path.add(Position.fromString(square.trim()));
+            }
+            int score = Integer.parseInt(payload.get(1));
+            String source = payload.get(2);
+            notifyListenersOnEDT(l -> l.onHint(path, score, source));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error parsing HINT payload '" + payload + "': " + e.getMessage());
+        }
+    }
+
+    // Notifies listener (on EDT) that game should start. The payload is the first turn then the rule variant
+    // (older servers only send the turn, that means English).
+    private void handleGameStart (List<String> payload) {
+        RULE_VARIANT variant = payload != null && payload.size() > 1 ? RULE_VARIANT.valueOf(payload.get(1)) : RULE_VARIANT.ENGLISH;
+        notifyListenersOnEDT(l -> l.onGameStart(variant));
     }
 
     // REMOVED assignTeam and assignHost - logic is now inside handleRoleAssign
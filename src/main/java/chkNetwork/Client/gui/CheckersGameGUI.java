@@ -1,9 +1,10 @@
 package chkNetwork.Client.gui;
 
+import chkMVC.chModel.Checkers.BoardGeometry;
+import chkMVC.chModel.Checkers.BoardSnapshot;
 import chkMVC.chModel.Checkers.GameEventListener;
 import chkMVC.chModel.Checkers.PIECE_TEAM;
 import chkMVC.chModel.Checkers.Pieces.AbstractPiece;
-import chkMVC.chModel.Checkers.Pieces.KingPiece;
 import chkMVC.chModel.Checkers.Position;
 import chkNetwork.Client.ApplicationController; // Import
 
@@ -12,7 +13,9 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,6 +33,8 @@ public class CheckersGameGUI {
 
     private final Map<Position, JBoardCellButton> buttonMap = new HashMap<>();
     private JBoardCellButton firstButtonSelected = null;
+    // Squares clicked so far for the move being built, multi jumps take a click per landing square.
+    private final List<JBoardCellButton> selectedPath = new ArrayList<>();
     private final GameEventListener listener;
 
     private final ApplicationController appController;
@@ -38,10 +43,16 @@ public class CheckersGameGUI {
     private JLabel statusLabel; // For turn/team info
     private JToggleButton viewChatButton;
     private JButton resignButton;
+    private JLabel hintLabel;
     private boolean lobbyVisible = true;
 
     // Take in the Application Controller.
     public CheckersGameGUI (ApplicationController appController) {
+        this(appController, 8);
+    }
+
+    // boardSize is the number of squares along a side (8 for English, 10 for International).
+    public CheckersGameGUI (ApplicationController appController, int boardSize) {
         this.appController = appController;
 
         // Listener implementation remains the same - it updates THIS GUI based on GAME MODEL events
@@ -51,39 +62,43 @@ public class CheckersGameGUI {
             @Override
             public void onGameComplete (PIECE_TEAM winningTeam) {
                 SwingUtilities.invokeLater(() -> {
-                    updateStatus("Game Over! Winner: " + winningTeam);
-                    JOptionPane.showMessageDialog(frame, "Game Over! Winner: " + winningTeam, "Game Finished", JOptionPane.INFORMATION_MESSAGE);
+                    String result = winningTeam == null ? "Game Over! It's a draw." : "Game Over! Winner: " + winningTeam;
+                    updateStatus(result);
+                    JOptionPane.showMessageDialog(frame, result, "Game Finished", JOptionPane.INFORMATION_MESSAGE);
                     // Disable board interaction maybe
                 });
             }
 
             @Override
-            public void onMoveMade (Position from, Position to) {
+            public void onMoveMade (List<Position> path) {
                 // This is triggered by the *local* game model AFTER a move is applied.
                 // We might not need specific UI action here if onBoardUpdate and onTurnChange cover it.
-                System.out.println("GameGUI Listener: Move processed internally " + from + " -> " + to);
+                System.out.println("GameGUI Listener: Move processed internally " + path);
             }
 
             @Override
-            public void onBoardUpdate (Map<Position, AbstractPiece> boardState) {
+            public void onBoardUpdate (BoardSnapshot boardState) {
 
-                System.err.println(boardState.size());
+                System.err.println(boardState.getNumberOfPieces());
 
-                // This seems correct - updates button appearances based on model state
+                // The snapshot never changes, so it is fine to read it later on the EDT.
                 SwingUtilities.invokeLater(() -> {
                     System.out.println("GameGUI Listener: Updating board display...");
+                    hintLabel.setText(""); // Any hint was for the last position
                     for (JBoardCellButton button : buttonMap.values()) {
                         button.clearPiece(); // Clear all first
                         button.setSelected(false); // Clear visual selection if any
                         button.setBorder(UIManager.getBorder("Button.border")); // Reset border
                     }
                     if (boardState != null) {
-                        for (Map.Entry<Position, AbstractPiece> entry : boardState.entrySet()) {
-                            Position p = entry.getKey();
-                            AbstractPiece pieceInfo = entry.getValue();
+                        BoardGeometry geometry = boardState.getGeometry();
+                        for (int square = 0; square < geometry.getSquareCount(); square++) {
+                            Position p = geometry.positionOf(square);
+                            AbstractPiece pieceInfo = boardState.getPieceAt(p);
+                            if (pieceInfo == null) continue;
                             JBoardCellButton button = buttonMap.get(p);
                             if (button != null && pieceInfo != null) {
-                                button.setPieceInfo(pieceInfo.getTeam(), pieceInfo instanceof KingPiece);
+                                button.setPieceInfo(pieceInfo.getTeam(), pieceInfo.isKing());
                             } else {
                                 System.err.println("Board update warning: Null button or piece for position " + p);
                             }
@@ -104,24 +119,15 @@ public class CheckersGameGUI {
 
                     System.out.println("GameGUI Listener: Turn changed to " + currentTurn);
                     // Clear selection when turn changes
-                    if (firstButtonSelected != null) {
-                        firstButtonSelected.setSelected(false);
-                        firstButtonSelected.setBorder(UIManager.getBorder("Button.border")); // Reset border
-                        firstButtonSelected = null;
-                    }
+                    clearSelection();
                 });
             }
-
-            @Override
-            public void onPieceRemoved (Position position) {
-                System.out.println("Gui got a message that " + position + " Should be removed.");
-            }
         };
 
-        createAndShowGUI();
+        createAndShowGUI(boardSize);
     }
 
-    private void createAndShowGUI () {
+    private void createAndShowGUI (int boardSize) {
         this.frame = new JFrame("Checkers Game");
         frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE); // Controller handles close
         frame.setLayout(new BorderLayout());
@@ -153,14 +159,21 @@ public class CheckersGameGUI {
         resignButton = new JButton("Resign");
         resignButton.addActionListener(e -> appController.resignGame());
 
+        // Hint button, anyone can ask, the server answers with a move that gets outlined on the board
+        JButton hintButton = new JButton("Hint");
+        hintButton.addActionListener(e -> appController.requestHint());
+        hintLabel = new JLabel("");
+
         topPanel.add(statusLabel);
         topPanel.add(viewChatButton);
         topPanel.add(resignButton);
+        topPanel.add(hintButton);
+        topPanel.add(hintLabel);
 
         frame.add(topPanel, BorderLayout.NORTH);
 
 
-        JPanel boardPanel = buildBoardPanel(8);
+        JPanel boardPanel = buildBoardPanel(boardSize);
         JPanel paddedPanel = new JPanel(new BorderLayout());
         paddedPanel.setBorder(new EmptyBorder(PADDING, PADDING, PADDING, PADDING));
         paddedPanel.add(boardPanel, BorderLayout.CENTER);
@@ -199,8 +212,8 @@ public class CheckersGameGUI {
         for (int row = size - 1; row >= 0; row--) { // Iterate rows 7 down to 0 for standard board layout
             for (int col = 0; col < size; col++) { // Iterate cols 0 to 7
                 try {
-                    // Position constructor expects 0-based index now based on its code
-                    Position position = new Position(col, row);
+                    // Position.of expects 0-based indexes
+                    Position position = Position.of(col, row);
                     JBoardCellButton button = new JBoardCellButton(position);
                     button.addActionListener(e -> handleButtonClick(button));
                     boardPanel.add(button);
@@ -217,7 +230,7 @@ public class CheckersGameGUI {
 
 
     private void handleButtonClick (JBoardCellButton clickedButton) {
-        // Logic for selecting first/second piece and calling controller
+        // Logic for selecting the piece, then each square it lands on, and calling controller
         Position clickedPos = clickedButton.getPosition();
         System.out.println("Board click at: " + clickedPos);
 
@@ -226,29 +239,46 @@ public class CheckersGameGUI {
 
             // Select the first piece
             firstButtonSelected = clickedButton;
-            firstButtonSelected.setSelected(true); // Visually indicate selection (optional)
-            firstButtonSelected.setBorder(BorderFactory.createLineBorder(COLOR_SELECTION_HIGHLIGHT, 3));
+            selectButton(clickedButton);
             System.out.println("Selected piece at " + clickedPos);
-            // TODO: Optionally highlight valid moves from here? (Requires game logic access)
+            return;
+        }
+
+        selectButton(clickedButton);
+        List<Position> path = new ArrayList<>(selectedPath.size());
+        for (JBoardCellButton button : selectedPath) {
+            path.add(button.getPosition());
+        }
 
-        } else {
-            // Second click: Attempt the move via the controller
-            Position from = firstButtonSelected.getPosition();
-            Position to = clickedPos;
+        // The local generator knows if this is a multi jump with more squares to come, if so keep collecting.
+        if (appController.isPartialMove(path)) {
+            System.out.println("Partial jump " + path + ", pick the next square");
+            return;
+        }
 
-            System.out.println("Attempting move from " + from + " to " + to);
+        System.out.println("Attempting move " + path);
 
-            // Reset visual selection immediately (server confirmation will update board state)
-            firstButtonSelected.setSelected(false);
-            firstButtonSelected.setBorder(UIManager.getBorder("Button.border")); // Reset border
+        // Reset visual selection immediately (server confirmation will update board state)
+        clearSelection();
 
+        // *** Call the ApplicationController to send the move request ***
+        appController.attemptMove(path);
+    }
 
-            // *** Call the ApplicationController to send the move request ***
-            appController.attemptMove(from, to);
+    private void selectButton (JBoardCellButton button) {
+        selectedPath.add(button);
+        button.setSelected(true); // Visually indicate selection (optional)
+        button.setBorder(BorderFactory.createLineBorder(COLOR_SELECTION_HIGHLIGHT, 3));
+    }
 
-            // Clear selection regardless of move validity (wait for server)
-            firstButtonSelected = null;
+    // Clear selection regardless of move validity (wait for server)
+    private void clearSelection () {
+        for (JBoardCellButton button : selectedPath) {
+            button.setSelected(false);
+            button.setBorder(UIManager.getBorder("Button.border")); // Reset border
         }
+        selectedPath.clear();
+        firstButtonSelected = null;
     }
 
 
@@ -289,6 +319,17 @@ public class CheckersGameGUI {
         });
     }
 
+    // Outlines the squares of a suggested move until the board changes.
+    public void showHint (List<Position> path, String text) {
+        SwingUtilities.invokeLater(() -> {
+            for (Position position : path) {
+                JBoardCellButton button = buttonMap.get(position);
+                if (button != null) button.setBorder(BorderFactory.createLineBorder(COLOR_HINT_HIGHLIGHT, 3));
+            }
+            hintLabel.setText(text);
+        });
+    }
+
     public void showError (String title, String message) {
         SwingUtilities.invokeLater(() -> {
             if (frame != null && frame.isDisplayable()) {
@@ -305,6 +346,7 @@ public class CheckersGameGUI {
 
 
     private static final Color COLOR_SELECTION_HIGHLIGHT = Color.CYAN;
+    private static final Color COLOR_HINT_HIGHLIGHT = Color.GREEN;
     private static final int PADDING = 10;
     private static final Dimension DEFAULT_FRAME_SIZE = new Dimension(700, 750);
 
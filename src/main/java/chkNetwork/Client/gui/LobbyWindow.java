@@ -96,6 +96,10 @@ public class LobbyWindow {
         buttonPanel.add(startGameButton);
         buttonPanel.add(assignWhiteButton);
         buttonPanel.add(assignBlackButton);
+        JButton botWhiteButton = new JButton("Bot White");
+        JButton botBlackButton = new JButton("Bot Black");
+        buttonPanel.add(botWhiteButton);
+        buttonPanel.add(botBlackButton);
         buttonPanel.setVisible(false); // Initially hidden
 
         // Add components to frame
@@ -113,6 +117,8 @@ public class LobbyWindow {
         startGameButton.addActionListener(e -> controller.requestStartGame());
         assignWhiteButton.addActionListener(e -> controller.requestAssignTeam(userList.getSelectedValue(), PIECE_TEAM.WHITE));
         assignBlackButton.addActionListener(e -> controller.requestAssignTeam(userList.getSelectedValue(), PIECE_TEAM.BLACK));
+        botWhiteButton.addActionListener(e -> controller.requestAssignBot(PIECE_TEAM.WHITE));
+        botBlackButton.addActionListener(e -> controller.requestAssignBot(PIECE_TEAM.BLACK));
 
         frame.addWindowListener(new WindowAdapter() {
             @Override
@@ -24,7 +24,12 @@ public enum SERVER_RESPONSE_CODES {
      * Usage: [CODE] (sender, Position1, Position2)
      */
     MOVE_PIECE(2505),
-    REMOVE_PIECE(2506),
+
+    /**
+     * Usage: [CODE] (path as "C3,D4", score for the side to move, depth searched or "book")
+     * Sent only to the client that asked.
+     */
+    HINT(2507),
 
     /**
      * Usage: [Code] (sender, message)
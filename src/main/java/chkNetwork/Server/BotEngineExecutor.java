@@ -0,0 +1,101 @@
+package chkNetwork.Server;
+
+import chkEngine.ParallelSearch;
+import chkEngine.SearchLimits;
+import chkEngine.SearchResult;
+import chkEngine.TranspositionTable;
+import chkMVC.chModel.Checkers.BoardCodec;
+import chkMVC.chModel.Checkers.BoardModel;
+import chkMVC.chModel.Checkers.OpeningBook;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * BotEngineExecutor
+ * <p>
+ * The threads every bot seat thinks on. A fixed number of engine threads and a bounded queue, shared by every
+ * CheckerNetworkService in the process (see shared()), so a hundred bot rooms cost a hundred queued searches, not a
+ * hundred threads. Each thread keeps its own engine per variant, all on one shared TranspositionTable.
+ * <p>
+ * Searches get a copy of the position, never the game itself, so they run without any game lock held.
+ * With an opening book loaded (useOpeningBook) bots play book moves in the positions it has, without searching.
+ */
+public final class BotEngineExecutor implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE = 1024;
+    public static final int DEFAULT_TABLE_MB = 64;
+
+    private final ThreadPoolExecutor executor;
+    private final ParallelSearch search;
+
+    public BotEngineExecutor (int threads, int queueCapacity, int tableMB) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "bot-engine-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // One thread per search, the pool already keeps every core busy across rooms
+        this.search = new ParallelSearch(new TranspositionTable(tableMB), 0);
+    }
+
+    // The executor all servers in this process share, made on first use with one thread per core.
+    public static BotEngineExecutor shared () {
+        return SharedHolder.SHARED;
+    }
+
+    private static final class SharedHolder {
+        private static final BotEngineExecutor SHARED = new BotEngineExecutor(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE, DEFAULT_TABLE_MB);
+    }
+
+    /**
+     * Queues a search of position (BoardCodec binary form) and hands the result to onResult on the engine thread.
+     * If anything in the task throws (reading the position, the search or onResult itself) onFailure gets the
+     * exception instead, so the caller always hears back and a bot is never left waiting on a search that died.
+     *
+     * @return false if the queue is full and nothing was queued.
+     */
+    public boolean submit (RULE_VARIANT variant, byte[] position, SearchLimits limits, Consumer<SearchResult> onResult,
+                           Consumer<RuntimeException> onFailure) {
+        try {
+            executor.execute(() -> {
+                try {
+                    BoardModel board = BoardCodec.fromBinary(position, variant.getGeometry());
+                    onResult.accept(search.search(variant, board, limits, 1));
+                } catch (RuntimeException e) {
+                    System.err.println("Bot search failed: " + e);
+                    onFailure.accept(e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    // Bots playing the book's variant take their moves from it while the position is in it.
+    public void useOpeningBook (OpeningBook book) {
+        search.useOpeningBook(book);
+    }
+
+    // Searches waiting for an engine thread.
+    public int getQueued () {
+        return executor.getQueue().size();
+    }
+
+    public TranspositionTable getTable () {
+        return search.getTable();
+    }
+
+    @Override
+    public void close () {
+        executor.shutdownNow();
+        search.close();
+    }
+}
@@ -0,0 +1,46 @@
+package chkNetwork.Server;
+
+import chkEngine.SearchLimits;
+import chkMVC.chModel.Checkers.PIECE_TEAM;
+
+/**
+ * BotPlayer
+ * <p>
+ * A computer player sitting in the white or black seat. It has no connection of its own: when it is its turn the
+ * server queues a search on the BotEngineExecutor and plays the result through attemptMove like any other move.
+ * Immutable, a new seat assignment makes a new one.
+ */
+public final class BotPlayer {
+
+    public static final long DEFAULT_TIME_MS = 250;
+    public static final long MAX_TIME_MS = 10_000;
+
+    private final PIECE_TEAM team;
+    private final SearchLimits limits;
+
+    public BotPlayer (PIECE_TEAM team, SearchLimits limits) {
+        if (team != PIECE_TEAM.WHITE && team != PIECE_TEAM.BLACK) {
+            throw new IllegalArgumentException("A bot can only play white or black, not " + team);
+        }
+        this.team = team;
+        this.limits = limits;
+    }
+
+    public PIECE_TEAM getTeam () {
+        return team;
+    }
+
+    public SearchLimits getLimits () {
+        return limits;
+    }
+
+    // Name shown in the user list, never a valid username since it has a space in it.
+    public String getName () {
+        return "Bot " + (team == PIECE_TEAM.WHITE ? "White" : "Black");
+    }
+
+    @Override
+    public String toString () {
+        return getName() + " (" + limits + ")";
+    }
+}
@@ -1,9 +1,11 @@
 package chkNetwork.Server;
 
-import chkMVC.chModel.Checkers.BoardModel;
+import chkEngine.SearchResult;
+import chkMVC.chModel.Checkers.BoardCodec;
 import chkMVC.chModel.Checkers.CheckersGameModel;
 import chkMVC.chModel.Checkers.PIECE_TEAM;
-import chkMVC.chModel.Checkers.Pieces.AbstractPiece;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
 import chkMVC.chModel.Checkers.Position;
 import chkNetwork.SERVER_RESPONSE_CODES;
 
@@ -20,19 +22,35 @@ public class CheckerNetworkService {
     private final Set<ClientHandlerThread> clientHandlers = Collections.synchronizedSet(new HashSet<>());
     private final Map<String, ClientHandlerThread> clients = Collections.synchronizedMap(new HashMap<>());
 
-    //Keep a reference to specific Client handler threads.
+    //Keep a reference to specific Client handler threads. Seats (these and the bots) are only changed under gameLock.
     private volatile ClientHandlerThread host = null;
     private volatile ClientHandlerThread white = null;
     private volatile ClientHandlerThread black = null;
+    // Bot seats. A seat has a bot or a client (or nobody), never both.
+    private volatile BotPlayer whiteBot = null;
+    private volatile BotPlayer blackBot = null;
+    private final BotEngineExecutor botExecutor;
+    private final HintService hintService;
 
 
     private CheckersGameModel authGameModel; // Keep track of an internal game
     private boolean isGameActive;
     private final Object gameLock = new Object(); //A lock for game state listener;.
+    private final LegalMoveCache legalMoveCache = new LegalMoveCache(); // Legal moves of recently seen positions
 
     //Initializer Method.
     public CheckerNetworkService (int port) {
+        this(port, BotEngineExecutor.shared());
+    }
+
+    public CheckerNetworkService (int port, BotEngineExecutor botExecutor) {
+        this(port, botExecutor, HintService.shared());
+    }
+
+    public CheckerNetworkService (int port, BotEngineExecutor botExecutor, HintService hintService) {
         this.port = port;
+        this.botExecutor = botExecutor;
+        this.hintService = hintService;
     }
 
     //Have a start function. this opens up the server for accepting connections.
@@ -174,29 +192,37 @@ public class CheckerNetworkService {
             System.out.println("Attempted to unregister a client that was already removed: " + (username != null ? username : "unknown user (" + handler.hashCode() + ")"));
         }
 
-        //If the server is now empty restart the game.
+        //If the server is now empty restart the game, and send the bots home too.
+        //The reset happens outside the clientHandlers lock, moves take gameLock first and clientHandlers second.
+        boolean empty;
         synchronized (clientHandlers) {
-            if (clientHandlers.size() <= 0) {
-                resetAuthGameModel();
+            empty = clientHandlers.size() <= 0;
+        }
+        if (empty) {
+            resetAuthGameModel();
+            synchronized (gameLock) {
+                whiteBot = null;
+                blackBot = null;
             }
-
         }
 
     }
 
     // releasing roles from the network:
-    private synchronized void releaseRoles (ClientHandlerThread handler) {
-        if (handler == host) {
-            host = null;
-            System.out.println((handler.getUsername() != null ? handler.getUsername() : "User") + " released host role.");
-        }
-        if (handler == white) {
-            white = null;
-            System.out.println((handler.getUsername() != null ? handler.getUsername() : "User") + " released white role.");
-        }
-        if (handler == black) {
-            black = null;
-            System.out.println((handler.getUsername() != null ? handler.getUsername() : "User") + " released black role.");
+    private void releaseRoles (ClientHandlerThread handler) {
+        synchronized (gameLock) {
+            if (handler == host) {
+                host = null;
+                System.out.println((handler.getUsername() != null ? handler.getUsername() : "User") + " released host role.");
+            }
+            if (handler == white) {
+                white = null;
+                System.out.println((handler.getUsername() != null ? handler.getUsername() : "User") + " released white role.");
+            }
+            if (handler == black) {
+                black = null;
+                System.out.println((handler.getUsername() != null ? handler.getUsername() : "User") + " released black role.");
+            }
         }
     }
 
@@ -230,24 +256,27 @@ public class CheckerNetworkService {
 
     //Assigning roles to the threads. this allows things like only the host starting a game.
     //And also only a client moving certain pieces.
-    private synchronized void assignRoles (ClientHandlerThread newHandler) {
-        if (host == null) {
-            host = newHandler;
-            newHandler.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("H")));
-            System.out.println(newHandler.getUsername() + " assigned as host.");
-        }
-
-        if (white == null) {
-            white = newHandler;
-            newHandler.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("W")));
-            System.out.println(newHandler.getUsername() + " assigned as White.");
-        } else if (black == null) {
-            black = newHandler;
-            newHandler.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("B")));
-            System.out.println(newHandler.getUsername() + " assigned as Black.");
-        } else {
-            newHandler.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("S")));
-            System.out.println(newHandler.getUsername() + " is spectating.");
+    private void assignRoles (ClientHandlerThread newHandler) {
+        synchronized (gameLock) {
+            if (host == null) {
+                host = newHandler;
+                newHandler.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("H")));
+                System.out.println(newHandler.getUsername() + " assigned as host.");
+            }
+
+            // A seat with a bot in it is taken too
+            if (white == null && whiteBot == null) {
+                white = newHandler;
+                newHandler.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("W")));
+                System.out.println(newHandler.getUsername() + " assigned as White.");
+            } else if (black == null && blackBot == null) {
+                black = newHandler;
+                newHandler.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("B")));
+                System.out.println(newHandler.getUsername() + " assigned as Black.");
+            } else {
+                newHandler.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("S")));
+                System.out.println(newHandler.getUsername() + " is spectating.");
+            }
         }
     }
 
@@ -281,6 +310,8 @@ public class CheckerNetworkService {
 
                 alteredClientList.add(label.toString());
             }
+            if (whiteBot != null) alteredClientList.add(whiteBot.getName() + " (White)");
+            if (blackBot != null) alteredClientList.add(blackBot.getName() + " (Black)");
 
             return alteredClientList;
         }
@@ -304,39 +335,176 @@ public class CheckerNetworkService {
         return host != null ? host.getUsername() : null;
     }
 
+    // Number of seats (0 to 2) taken by bots.
+    public int getBotCount () {
+        return (whiteBot != null ? 1 : 0) + (blackBot != null ? 1 : 0);
+    }
 
-    public void assignRole (String player, PIECE_TEAM newTeamRole) {
 
-        if (clients.containsKey(player)) System.out.println("Player is a client. can assign " + newTeamRole.toString());
+    public void assignRole (String player, PIECE_TEAM newTeamRole) {
 
-        if (newTeamRole == PIECE_TEAM.WHITE) {
-            if (white != null)
-                white.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("S"), "assign as spectator."));
-            this.white = clients.get(player);
-            white.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("W"), "assign new one as color"));
+        if (!clients.containsKey(player)) {
+            // Bots are seated with assignBot, and their names aren't usernames
+            System.err.println("Can't assign " + player + " to " + newTeamRole + ", not a connected client.");
+            return;
         }
 
-        if (newTeamRole == PIECE_TEAM.BLACK) {
-            if (black != null)
-                black.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("S"), "assign as spectator."));
-            this.black = clients.get(player);
-            black.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("B"), "assign new one as color"));
+        synchronized (gameLock) {
+            if (newTeamRole == PIECE_TEAM.WHITE) {
+                if (white != null)
+                    white.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("S"), "assign as spectator."));
+                this.white = clients.get(player);
+                this.whiteBot = null;
+                white.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("W"), "assign new one as color"));
+            }
+
+            if (newTeamRole == PIECE_TEAM.BLACK) {
+                if (black != null)
+                    black.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("S"), "assign as spectator."));
+                this.black = clients.get(player);
+                this.blackBot = null;
+                black.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("B"), "assign new one as color"));
+            }
         }
 
         broadcastUserListUpdate("roles changed.");
 
     }
 
+    /**
+     * Puts a bot in the team's seat, the client sitting there becomes a spectator.
+     * If the game is on and it is that team's turn the bot starts thinking straight away.
+     */
+    public void assignBot (PIECE_TEAM team, BotPlayer bot) {
+        synchronized (gameLock) {
+            if (team == PIECE_TEAM.WHITE) {
+                if (white != null)
+                    white.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("S"), "assign as spectator."));
+                white = null;
+                whiteBot = bot;
+            } else if (team == PIECE_TEAM.BLACK) {
+                if (black != null)
+                    black.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ROLE_ASSIGN, List.of("S"), "assign as spectator."));
+                black = null;
+                blackBot = bot;
+            } else {
+                throw new IllegalArgumentException("Bots can only sit in the white or black seat.");
+            }
+            System.out.println(bot + " assigned as " + team + ".");
+            scheduleBotMove();
+        }
+        broadcastUserListUpdate("bot assigned.");
+    }
+
+    private BotPlayer botFor (PIECE_TEAM team) {
+        return team == PIECE_TEAM.WHITE ? whiteBot : team == PIECE_TEAM.BLACK ? blackBot : null;
+    }
+
+    // If a bot is to move, queues its search. Caller holds gameLock. The search itself runs on the bot executor
+    // against a copy of the board, the lock is only taken again to play the move it finds.
+    private void scheduleBotMove () {
+        if (!isGameActive || authGameModel == null) return;
+        BotPlayer bot = botFor(authGameModel.getCurrentTurn());
+        if (bot == null) return;
+
+        CheckersGameModel game = authGameModel;
+        long positionKey = game.getBoardModel().positionKey();
+        byte[] position = BoardCodec.toBinary(game.getBoardModel());
+        boolean queued = botExecutor.submit(game.getVariant(), position, bot.getLimits(),
+                result -> playBotMove(bot, game, positionKey, result),
+                error -> resignBot(bot, game, positionKey));
+        if (!queued) {
+            // Every engine is busy and the queue is full: better to give the game up than leave it hanging
+            System.err.println("Bot engine queue full, " + bot.getName() + " resigns.");
+            endGameDueToResignation(bot.getTeam() == PIECE_TEAM.WHITE ? PIECE_TEAM.BLACK : PIECE_TEAM.WHITE);
+        }
+    }
+
+    // Runs on a bot engine thread once the search is done.
+    private void playBotMove (BotPlayer bot, CheckersGameModel game, long positionKey, SearchResult result) {
+        if (!result.hasMove()) return; // No moves, the game is already over
+        ServerResponse response = attemptMove(bot, game, positionKey, result.getBestPath());
+        if (response.getType() != SERVER_RESPONSE_CODES.SUCCESS) {
+            System.out.println(bot.getName() + " move dropped: " + response.getPayload());
+        }
+    }
+
+    /**
+     * Asks the hint service for the best move in the current game, for requester alone. Only copying the position
+     * happens here (under gameLock), the answer is sent from a hint thread, or straight away if it was cached.
+     */
+    public void requestHint (ClientHandlerThread requester) {
+        RULE_VARIANT variant;
+        byte[] position;
+        long positionKey;
+        synchronized (gameLock) {
+            if (!isGameActive || authGameModel == null) {
+                variant = null;
+                position = null;
+                positionKey = 0;
+            } else {
+                variant = authGameModel.getVariant();
+                position = BoardCodec.toBinary(authGameModel.getBoardModel());
+                positionKey = authGameModel.getBoardModel().positionKey();
+            }
+        }
+        if (position == null) {
+            requester.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Hint Error", "There is no game to give a hint for.")));
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + HintService.DEFAULT_DEADLINE_MS;
+        hintService.request(variant, position, positionKey, deadline, result -> sendHint(requester, result));
+    }
+
+    private void sendHint (ClientHandlerThread requester, SearchResult result) {
+        if (result == null) {
+            requester.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Hint Error", "No hint in time, the server is busy. Try again.")));
+            return;
+        }
+        if (!result.hasMove()) {
+            requester.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Hint Error", "There are no legal moves.")));
+            return;
+        }
+        StringBuilder squares = new StringBuilder();
+        for (Position position : result.getBestPath()) {
+            if (!squares.isEmpty()) squares.append(',');
+            squares.append(position);
+        }
+        requester.sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.HINT, List.of(squares.toString(),
+                String.valueOf(result.getScore()), result.isFromBook() ? "book" : String.valueOf(result.getDepth()))));
+    }
+
+    // Runs on a bot engine thread when the search failed. The bot gives the game up rather than leave it stuck,
+    // unless the game has moved on without it anyway.
+    private void resignBot (BotPlayer bot, CheckersGameModel game, long positionKey) {
+        synchronized (gameLock) {
+            if (!isBotThinking(bot, game, positionKey)) return;
+            System.err.println(bot.getName() + " couldn't find a move and resigns.");
+            endGameDueToResignation(bot.getTeam() == PIECE_TEAM.WHITE ? PIECE_TEAM.BLACK : PIECE_TEAM.WHITE);
+        }
+    }
+
+    // True if the bot is still seated and its game is still waiting on it in the position it searched. Caller holds gameLock.
+    private boolean isBotThinking (BotPlayer bot, CheckersGameModel game, long positionKey) {
+        return isGameActive && authGameModel == game && botFor(bot.getTeam()) == bot
+                && game.getBoardModel().positionKey() == positionKey;
+    }
+
     void startGame () {
+        startGame(RULE_VARIANT.ENGLISH);
+    }
+
+    // Starts a game with the given rules, the board size comes with the variant.
+    void startGame (RULE_VARIANT variant) {
         synchronized (gameLock) {
             if (isGameActive) {
                 System.out.println("Game Already Started");
                 return;
             }
 
-            System.out.println("Initializing Server-Side game model.");
-            BoardModel boardModel = new BoardModel(8);
-            this.authGameModel = new CheckersGameModel(boardModel);
+            System.out.println("Initializing Server-Side game model (" + variant + " rules).");
+            this.authGameModel = new CheckersGameModel(variant);
 
 
             ServerGameListener serverGameListener = new ServerGameListener(this);
@@ -347,15 +515,25 @@ public class CheckerNetworkService {
 
             System.out.println("Server-side game initialzied. ");
 
-            List<String> startPayload = List.of(authGameModel.getCurrentTurn().name());
+            // The clients need the variant to build the same board and apply moves the same way
+            List<String> startPayload = List.of(authGameModel.getCurrentTurn().name(), variant.name());
 
             broadcastMessage(ServerResponse.create(SERVER_RESPONSE_CODES.GAME_START, startPayload), null);
+            scheduleBotMove();
         }
     }
 
-    //The AttemptMove function looks over a high level check of the move in question.
-    //It will check
     public ServerResponse attemptMove (String requestingUsername, Position from, Position to) {
+        return attemptMove(requestingUsername, List.of(from, to));
+    }
+
+    //The AttemptMove function looks over a high level check of the move in question.
+    //It will check the game is on, it is the player's turn and piece, and that the whole path is a legal move.
+    //The path is the start square then every landing square (e.g. A3, C5, E7), it is played all at once or not at all.
+    public ServerResponse attemptMove (String requestingUsername, List<Position> path) {
+        if (path == null || path.size() < 2) {
+            return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Invalid Move", "A move needs a start square and at least one more."));
+        }
 
         synchronized (gameLock) {
 
@@ -366,9 +544,6 @@ public class CheckerNetworkService {
             }
 
 
-            PIECE_TEAM expectedTurn = authGameModel.getCurrentTurn();
-
-
             ClientHandlerThread requestingHandler = clients.get(requestingUsername);
             PIECE_TEAM requestingPlayerTeam = PIECE_TEAM.SPECTATOR;
 
@@ -384,35 +559,56 @@ public class CheckerNetworkService {
                 requestingPlayerTeam = PIECE_TEAM.BLACK;
             }
 
-            if (requestingPlayerTeam != expectedTurn) {
-                System.err.println("Move Rejected: Out of turn; " + expectedTurn.toString() + " <- expected this team to go.");
-                return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Wait For your turn!", "It wasnt yet your turn. wait for the other player to go!"));
-            }
+            return playMove(requestingPlayerTeam, path);
+        }
+    }
 
-            Optional<AbstractPiece> pieceOptional = authGameModel.getBoardModel().getPieceOptional(from);
-            if (pieceOptional.isEmpty()) {
-                System.err.println("Error: peice does not exist. ");
-                return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("This Piece Doesnt Exist!", "You tried moving an empty piece..."));
+    /**
+     * A bot's move, searched from the position with key positionKey in game.
+     * Goes through the same checks as a client's move, and is dropped if the position has changed since
+     * (the game was reset, someone resigned, or the bot was swapped out while it was thinking).
+     */
+    ServerResponse attemptMove (BotPlayer bot, CheckersGameModel game, long positionKey, List<Position> path) {
+        synchronized (gameLock) {
+            if (!isBotThinking(bot, game, positionKey)) {
+                return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Stale Move", "The game moved on while the bot was thinking."));
             }
+            return playMove(bot.getTeam(), path);
+        }
+    }
 
-            if (!validatePieceOwnership(pieceOptional.get(), requestingPlayerTeam)) {
-                System.err.println("Error: piece is not on expected team.");
-                return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Not your piece!", "You dont own that piece...."));
-            }
+    // The checks and the move itself, for a client or a bot playing for requestingPlayerTeam. Caller holds gameLock.
+    private ServerResponse playMove (PIECE_TEAM requestingPlayerTeam, List<Position> path) {
+        Position from = path.getFirst();
+        PIECE_TEAM expectedTurn = authGameModel.getCurrentTurn();
 
+        if (requestingPlayerTeam != expectedTurn) {
+            System.err.println("Move Rejected: Out of turn; " + expectedTurn.toString() + " <- expected this team to go.");
+            return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Wait For your turn!", "It wasnt yet your turn. wait for the other player to go!"));
+        }
 
-            boolean isValidMove = authGameModel.canMakeMove(from, to);
+        byte piece = authGameModel.getBoardModel().getPieceCode(from);
+        if (piece == PieceCode.EMPTY) {
+            System.err.println("Error: peice does not exist. ");
+            return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("This Piece Doesnt Exist!", "You tried moving an empty piece..."));
+        }
 
-            if (!isValidMove) {
-                System.err.println("Error move is not a valid move.");
-                return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Invalid Move", "Something About the game didnt like your move... try again?"));
-            }
+        if (!validatePieceOwnership(piece, requestingPlayerTeam)) {
+            System.err.println("Error: piece is not on expected team.");
+            return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Not your piece!", "You dont own that piece...."));
+        }
 
-            authGameModel.makeMove(from, to);
 
+        // Checked and played from the cache, the legal moves of a position are only generated once
+        boolean isValidMove = legalMoveCache.play(authGameModel, path);
 
+        if (!isValidMove) {
+            System.err.println("Error move is not a valid move.");
+            return ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Invalid Move", "Something About the game didnt like your move... try again?"));
         }
 
+        scheduleBotMove(); // The other seat might be a bot
+
 
         return ServerResponse.create(SERVER_RESPONSE_CODES.SUCCESS, List.of("Move Success!", "You Made your move!"));
 
@@ -420,11 +616,15 @@ public class CheckerNetworkService {
     }
 
 
-    boolean validatePieceOwnership (AbstractPiece piece, PIECE_TEAM team) {
-        return piece.getTeam() == team;
+    boolean validatePieceOwnership (byte piece, PIECE_TEAM team) {
+        return PieceCode.team(piece) == team;
     }
 
 
+    public LegalMoveCache getLegalMoveCache () {
+        return this.legalMoveCache;
+    }
+
     public CheckersGameModel getAuthGameModel () {
         return this.authGameModel;
     }
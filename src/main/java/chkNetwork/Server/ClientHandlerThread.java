@@ -1,6 +1,8 @@
 package chkNetwork.Server;
 
+import chkEngine.SearchLimits;
 import chkMVC.chModel.Checkers.PIECE_TEAM;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
 import chkMVC.chModel.Checkers.Position;
 import chkNetwork.CLIENT_REQUEST_CODES;
 import chkNetwork.Client.ClientRequest;
@@ -166,23 +168,35 @@ class ClientHandlerThread implements Runnable {
                 break;
 
             case MOVE_PIECE:
-                //Moving a piece takes in the initial and the final positions,
+                //Moving a piece takes in the whole path, start square then every landing square.
+                //Either as one entry ("A3,C5,E7") or one entry per square.
                 //Then it attempts the move under the networkservice.
 
                 synchronized (networkService) {
-                    List<String> payload = clientRequest.getPayload();
-
-                    Position from = Position.fromString(payload.get(1));
-                    Position to = Position.fromString(payload.get(2));
-
+                    List<Position> path;
+                    try {
+                        path = parseMovePath(clientRequest.getPayload());
+                    } catch (IllegalArgumentException e) {
+                        sendServerResponse(ServerResponse.create(SERVER_RESPONSE_CODES.ERROR, List.of("Invalid Move", "Couldnt read that move: " + e.getMessage())));
+                        break;
+                    }
 
-                    ServerResponse request = networkService.attemptMove(this.username, from, to);
+                    ServerResponse request = networkService.attemptMove(this.username, path);
                     if (request.getType() != SERVER_RESPONSE_CODES.SUCCESS)
                         sendServerResponse(request);
                 }
 
                 break;
 
+            case HINT:
+                //Not under the service lock, the search runs on the hint threads and answers when it's done.
+                networkService.requestHint(this);
+                break;
+
+            case HOST_ASSIGN_BOT:
+                handleHostAssignBotRequest(clientRequest);
+                break;
+
             case HOST_ASSIGN_TEAM:
                 synchronized (networkService) {
                     List<String> requestPayload = clientRequest.getPayload();
@@ -260,18 +274,57 @@ class ClientHandlerThread implements Runnable {
                 return;
             }
 
-            if (networkService.getUserCount() < 2) {
+            // A bot in a seat counts as a player
+            if (networkService.getUserCount() + networkService.getBotCount() < 2) {
                 this.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ERROR, List.of("Error: there are not enough players to start the game."), "Error message: not enough players"));
                 return;
             }
 
+            // The host can pick the rules after their name, English if they don't
+            RULE_VARIANT variant = RULE_VARIANT.ENGLISH;
+            if (hostname.size() > 1) {
+                try {
+                    variant = RULE_VARIANT.valueOf(hostname.get(1).trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    this.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ERROR, List.of("Error: unknown rule variant " + hostname.get(1)), "Error message: bad variant"));
+                    return;
+                }
+            }
+
             //Otherwise you can ask the network to start the game...
-            networkService.startGame();
+            networkService.startGame(variant);
 
 
         }
     }
 
+    // Host puts a bot in a seat. Payload is [hostname, WHITE or BLACK, think time in ms (optional), node limit (optional)].
+    private void handleHostAssignBotRequest (ClientRequest clientRequest) {
+        synchronized (networkService) {
+            List<String> payload = clientRequest.getPayload();
+            if (!ValidateAsHOST(payload.getFirst())) {
+                this.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ERROR, List.of("Host Error", "You are not the host."), "host error message."));
+                return;
+            }
+
+            BotPlayer bot;
+            try {
+                PIECE_TEAM team = PIECE_TEAM.valueOf(payload.get(1).trim().toUpperCase());
+                long timeMs = payload.size() > 2 ? Long.parseLong(payload.get(2).trim()) : BotPlayer.DEFAULT_TIME_MS;
+                long nodes = payload.size() > 3 ? Long.parseLong(payload.get(3).trim()) : 0;
+                if (timeMs <= 0 || timeMs > BotPlayer.MAX_TIME_MS) {
+                    throw new IllegalArgumentException("think time has to be 1 to " + BotPlayer.MAX_TIME_MS + " ms");
+                }
+                bot = new BotPlayer(team, new SearchLimits(0, timeMs, nodes));
+            } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                this.sendServerResponse(new ServerResponse(SERVER_RESPONSE_CODES.ERROR, List.of("Bot Error", "Couldnt make that bot: " + e.getMessage()), "bot error message."));
+                return;
+            }
+
+            networkService.assignBot(bot.getTeam(), bot);
+        }
+    }
+
     private void handleResignGameRequest () {
         synchronized (networkService) {
             System.out.println("Received resign request from " + username);
@@ -284,6 +337,22 @@ class ClientHandlerThread implements Runnable {
         }
     }
 
+    // Payload is [username, squares...], each entry can hold one square or a comma separated list of them.
+    static List<Position> parseMovePath (List<String> payload) {
+        List<Position> path = new ArrayList<>();
+        for (int i = 1; i < payload.size(); i++) {
+            String entry = payload.get(i);
+            int start = 0;
+            while (start <= entry.length()) {
+                int comma = entry.indexOf(',', start);
+                int end = comma < 0 ? entry.length() : comma;
+                path.add(Position.fromString(entry.substring(start, end).trim()));
+                start = end + 1;
+            }
+        }
+        return path;
+    }
+
     // Handle move piece request
     private void handleMovePieceRequest (ClientRequest clientRequest) {
         synchronized (networkService) {
@@ -0,0 +1,243 @@
+package chkNetwork.Server;
+
+import chkEngine.ParallelSearch;
+import chkEngine.SearchLimits;
+import chkEngine.SearchResult;
+import chkEngine.TranspositionTable;
+import chkMVC.chModel.Checkers.BoardCodec;
+import chkMVC.chModel.Checkers.OpeningBook;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * HintService
+ * <p>
+ * Works out hints (the best move and its score) on its own analysis threads, away from the client read loops
+ * and the game lock. Like BotEngineExecutor it only ever sees a copy of the position.
+ * <p>
+ * Answers are cached by position (LRU, cacheCapacity positions), and a position that is already being searched
+ * is never searched twice: every request for it waits on the one search. So a room full of spectators pressing
+ * hint on the same move costs one search, and everyone after that gets the cached answer straight away.
+ * <p>
+ * Every request has a deadline. A request still waiting when its deadline passes gets null, whether or not the search
+ * it was waiting on carries on for others. A queued search runs until the latest deadline of everyone waiting on it,
+ * so the first request's deadline doesn't cut it short for the rest. A search that only starts after that (the queue
+ * was long) is skipped, and one that starts with less than searchMillis left still answers its requests but isn't
+ * cached, so a shallow answer is never handed to everyone who asks later. A request with more time than such a
+ * short search has doesn't wait on it, it starts a search of its own.
+ */
+public final class HintService implements AutoCloseable {
+
+    public static final long DEFAULT_SEARCH_MS = 500;
+    public static final long DEFAULT_DEADLINE_MS = 3000;
+    public static final int DEFAULT_QUEUE = 256;
+    public static final int DEFAULT_CACHE = 1024;
+    public static final int DEFAULT_TABLE_MB = 32;
+
+    private final ThreadPoolExecutor executor;
+    private final ParallelSearch search;
+    private final long searchMillis;
+    private final Map<Long, Hint> cache; // Guarded by itself
+    private final Map<Long, Pending> running = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+
+    // A finished hint and the position it is for, so a key collision is a miss and not a wrong answer.
+    private static final class Hint {
+        final byte[] position;
+        final SearchResult result;
+
+        Hint (byte[] position, SearchResult result) {
+            this.position = position;
+            this.result = result;
+        }
+    }
+
+    // A search asked for or running, and how long the requests waiting on it give it.
+    private static final class Pending {
+        final CompletableFuture<SearchResult> future = new CompletableFuture<>();
+        private long deadlineMillis; // Latest deadline of the waiting requests, then when the search stops once it started
+        private boolean started;
+        private boolean full;        // Started with all of searchMillis left, so its answer gets cached
+
+        Pending (long deadlineMillis) {
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        // Waits on this search, unless it already started too short of time to answer at full depth
+        // and a request with a later deadline can get a better answer from a new search.
+        synchronized boolean join (long deadline) {
+            if (!started) {
+                deadlineMillis = Math.max(deadlineMillis, deadline);
+                return true;
+            }
+            return full || deadline <= deadlineMillis;
+        }
+
+        // The time the search gets, searchMillis or whatever is left before the latest deadline. Fixed from here on.
+        synchronized long start (long searchMillis) {
+            long now = System.currentTimeMillis();
+            long millis = Math.min(searchMillis, deadlineMillis - now);
+            started = true;
+            full = millis == searchMillis;
+            deadlineMillis = now + millis;
+            return millis;
+        }
+    }
+
+    public HintService (int threads, int queueCapacity, int cacheCapacity, int tableMB, long searchMillis) {
+        if (cacheCapacity <= 0 || searchMillis <= 0) {
+            throw new IllegalArgumentException("Cache capacity and search time must be positive: " + cacheCapacity + ", " + searchMillis);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "hint-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.search = new ParallelSearch(new TranspositionTable(tableMB), 0);
+        this.searchMillis = searchMillis;
+        // Access ordered, so the least recently asked position is dropped first
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<Long, Hint> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    // The service all servers in this process share, half the cores (at least one) so bots still get theirs.
+    public static HintService shared () {
+        return SharedHolder.SHARED;
+    }
+
+    private static final class SharedHolder {
+        private static final HintService SHARED = new HintService(Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                DEFAULT_QUEUE, DEFAULT_CACHE, DEFAULT_TABLE_MB, DEFAULT_SEARCH_MS);
+    }
+
+    // Positions of the book's variant that are in it are answered from it without searching.
+    public void useOpeningBook (OpeningBook book) {
+        search.useOpeningBook(book);
+    }
+
+    /**
+     * Asks for a hint in position (BoardCodec binary form, its key is positionKey). onResult gets the result once,
+     * either straight away from the cache or later on a hint thread, or null if there was no answer by deadlineMillis
+     * (System.currentTimeMillis() time) or the queue is full. It must not block.
+     */
+    public void request (RULE_VARIANT variant, byte[] position, long positionKey, long deadlineMillis, Consumer<SearchResult> onResult) {
+        requests.increment();
+        long key = positionKey ^ (variant.ordinal() + 1) * 0x9E3779B97F4A7C15L;
+        SearchResult cached = cached(key, position);
+        if (cached != null) {
+            cacheHits.increment();
+            onResult.accept(cached);
+            return;
+        }
+        long remaining = deadlineMillis - System.currentTimeMillis();
+        if (remaining <= 0) {
+            onResult.accept(null);
+            return;
+        }
+
+        Pending created = new Pending(deadlineMillis);
+        Pending pending = running.compute(key, (k, current) -> current != null && current.join(deadlineMillis) ? current : created);
+        if (pending == created) {
+            // A search for this position may have finished (cached, then left running) since the miss above
+            cached = cached(key, position);
+            if (cached != null) {
+                running.remove(key, created);
+                created.future.complete(cached);
+                cacheHits.increment();
+                onResult.accept(cached);
+                return;
+            }
+            start(variant, position, key, created);
+        } else {
+            joined.increment();
+        }
+        // A copy, so this request's deadline only ever times out this request
+        pending.future.copy().orTimeout(remaining, TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> onResult.accept(error == null ? result : null));
+    }
+
+    private void start (RULE_VARIANT variant, byte[] position, long key, Pending pending) {
+        try {
+            executor.execute(() -> {
+                SearchResult result = null;
+                try {
+                    long millis = pending.start(searchMillis);
+                    if (millis > 0) {
+                        searches.increment();
+                        result = search.search(variant, BoardCodec.fromBinary(position, variant.getGeometry()),
+                                SearchLimits.time(millis), 1);
+                        // Only a search that got its full time is good enough for everyone else
+                        if (millis == searchMillis) {
+                            synchronized (cache) {
+                                cache.put(key, new Hint(position, result));
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Hint search failed: " + e.getMessage());
+                } finally {
+                    // Cached first, so nobody starts this search again in between
+                    running.remove(key, pending);
+                    pending.future.complete(result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.remove(key, pending);
+            pending.future.complete(null);
+        }
+    }
+
+    private SearchResult cached (long key, byte[] position) {
+        synchronized (cache) {
+            Hint hint = cache.get(key);
+            return hint != null && Arrays.equals(hint.position, position) ? hint.result : null;
+        }
+    }
+
+    // Every request so far.
+    public long getRequests () {
+        return requests.sum();
+    }
+
+    // Requests answered from the cache.
+    public long getCacheHits () {
+        return cacheHits.sum();
+    }
+
+    // Requests that waited on a search someone else started.
+    public long getJoined () {
+        return joined.sum();
+    }
+
+    // Searches actually run.
+    public long getSearches () {
+        return searches.sum();
+    }
+
+    @Override
+    public void close () {
+        executor.shutdownNow();
+        search.close();
+    }
+}
@@ -0,0 +1,141 @@
+package chkNetwork.Server;
+
+import chkMVC.chModel.Checkers.BoardModel;
+import chkMVC.chModel.Checkers.BoardSnapshot;
+import chkMVC.chModel.Checkers.CheckersGameModel;
+import chkMVC.chModel.Checkers.MoveList;
+import chkMVC.chModel.Checkers.Position;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+
+import java.util.*;
+
+/**
+ * LegalMoveCache
+ * <p>
+ * A small LRU cache from a position to its legal moves, by path.
+ * It is keyed by BoardModel.positionKey(), which already has the side to move folded in.
+ * When the same position gets lots of move requests (retries, bots trying things) only the first one
+ * runs the move generator, the rest are a map lookup. play() then makes the move with the cached move index,
+ * so an accepted move doesn't generate the legal moves again either.
+ * <p>
+ * Every entry keeps a snapshot of the board it was made for and is checked against the live board,
+ * so a key collision just counts as a miss instead of answering for the wrong position.
+ */
+public class LegalMoveCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // Never changed once made, so it can be used outside the lock.
+    private static final class Entry {
+        final BoardSnapshot snapshot;
+        final RULE_VARIANT variant; // The same board has different moves under different rules
+        final MoveList moves;
+        final Map<List<Position>, Integer> indexByPath;
+
+        Entry (BoardSnapshot snapshot, RULE_VARIANT variant, MoveList moves, Map<List<Position>, Integer> indexByPath) {
+            this.snapshot = snapshot;
+            this.variant = variant;
+            this.moves = moves;
+            this.indexByPath = indexByPath;
+        }
+    }
+
+    private final Map<Long, Entry> entries;
+    private long hits;
+    private long misses;
+
+    public LegalMoveCache () {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LegalMoveCache (int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        // Access ordered, so the least recently used position is dropped first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // True if path is a legal move for the side to move in the game's current position.
+    public boolean isLegal (CheckersGameModel gameModel, List<Position> path) {
+        return indexOf(gameModel, entry(gameModel), path) >= 0;
+    }
+
+    /**
+     * Plays path on the game if it is a legal move, with the cached move so nothing is generated on a hit.
+     * The caller holds whatever lock guards the game, like for makeMove.
+     *
+     * @return false, with nothing played, if path isn't a legal move.
+     */
+    public boolean play (CheckersGameModel gameModel, List<Position> path) {
+        Entry entry = entry(gameModel);
+        int index = indexOf(gameModel, entry, path);
+        if (index < 0) return false;
+        gameModel.makeMove(entry.moves, index);
+        return true;
+    }
+
+    // Only one route of captures with the same start, end and pieces is kept, other routes are checked on the model.
+    private static int indexOf (CheckersGameModel gameModel, Entry entry, List<Position> path) {
+        Integer index = entry.indexByPath.get(path);
+        return index != null ? index : gameModel.findCaptureRoute(entry.moves, path);
+    }
+
+    // Set of legal move paths (start square then every landing square) in the game's current position,
+    // one route per capture (see CheckersGameModel.findCaptureRoute).
+    public Set<List<Position>> legalPaths (CheckersGameModel gameModel) {
+        return entry(gameModel).indexByPath.keySet();
+    }
+
+    private synchronized Entry entry (CheckersGameModel gameModel) {
+        BoardModel board = gameModel.getBoardModel();
+        long key = board.positionKey();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.variant == gameModel.getVariant() && entry.snapshot.matches(board)) {
+            hits++;
+            return entry;
+        }
+
+        misses++;
+        MoveList moves = new MoveList(board.getGeometry());
+        int count = gameModel.generateLegalMoves(moves);
+        Map<List<Position>, Integer> indexByPath = new HashMap<>(Math.max(4, count * 2));
+        for (int i = 0; i < count; i++) {
+            Position[] path = new Position[moves.getPathLength(i) + 1];
+            path[0] = board.positionOf(moves.getFrom(i));
+            for (int step = 1; step < path.length; step++) {
+                path[step] = board.positionOf(moves.getPathSquare(i, step - 1));
+            }
+            indexByPath.put(List.of(path), i);
+        }
+        entry = new Entry(board.snapshot(), gameModel.getVariant(), moves, Collections.unmodifiableMap(indexByPath));
+        entries.put(key, entry);
+        return entry;
+    }
+
+    public synchronized long getHits () {
+        return hits;
+    }
+
+    public synchronized long getMisses () {
+        return misses;
+    }
+
+    public synchronized int size () {
+        return entries.size();
+    }
+
+    public synchronized void clear () {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized String toString () {
+        return "LegalMoveCache{size=" + entries.size() + ", hits=" + hits + ", misses=" + misses + "}";
+    }
+}
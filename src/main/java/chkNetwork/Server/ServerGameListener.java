@@ -1,16 +1,19 @@
 package chkNetwork.Server;
 
+import chkMVC.chModel.Checkers.BoardSnapshot;
 import chkMVC.chModel.Checkers.GameEventListener;
 import chkMVC.chModel.Checkers.PIECE_TEAM;
-import chkMVC.chModel.Checkers.Pieces.AbstractPiece;
 import chkMVC.chModel.Checkers.Position;
 import chkNetwork.SERVER_RESPONSE_CODES;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class ServerGameListener implements GameEventListener {
 
+    // GAME_END payload when nobody won
+    public static final String DRAW = "DRAW";
+
     private final CheckerNetworkService networkService;
 
     public ServerGameListener (CheckerNetworkService networkService) {
@@ -21,9 +24,11 @@ public class ServerGameListener implements GameEventListener {
     @Override
     public void onGameComplete (PIECE_TEAM currentTurn) {
 
-        System.out.println("Game Completed AND WON by " + currentTurn.toString());
+        // A null team is a draw (repetition or the move limit)
+        String result = currentTurn == null ? DRAW : currentTurn.toString();
+        System.out.println(currentTurn == null ? "Game Completed as a draw" : "Game Completed AND WON by " + result);
 
-        ServerResponse gameFinishMessage = ServerResponse.create(SERVER_RESPONSE_CODES.GAME_END, List.of(currentTurn.toString()));
+        ServerResponse gameFinishMessage = ServerResponse.create(SERVER_RESPONSE_CODES.GAME_END, List.of(result));
 
         networkService.broadcastMessage(gameFinishMessage, null);
 
@@ -32,11 +37,14 @@ public class ServerGameListener implements GameEventListener {
     }
 
     @Override
-    public void onMoveMade (Position from, Position to) {
-        System.out.println("Server Listener: move confirmed from " + from + " to " + to);
-
+    public void onMoveMade (List<Position> path) {
+        System.out.println("Server Listener: move confirmed along " + path);
 
-        List<String> movePayload = List.of(from.toString(), to.toString());
+        // One message for the whole move, the clients work out the jumped pieces and crowning from the path.
+        List<String> movePayload = new ArrayList<>(path.size());
+        for (Position position : path) {
+            movePayload.add(position.toString());
+        }
 
         ServerResponse moveUpdate = ServerResponse.create(SERVER_RESPONSE_CODES.MOVE_PIECE, movePayload);
 
@@ -51,7 +59,7 @@ public class ServerGameListener implements GameEventListener {
     }
 
     @Override
-    public void onBoardUpdate (Map<Position, AbstractPiece> boardState) {
+    public void onBoardUpdate (BoardSnapshot boardState) {
 
     }
 
@@ -60,16 +68,4 @@ public class ServerGameListener implements GameEventListener {
         networkService.broadcastMessage(ServerResponse.create(SERVER_RESPONSE_CODES.ROUND_UPDATE, List.of(currentTurn.toString())), null);
 
     }
-
-    @Override
-    public void onPieceRemoved (Position position) {
-        System.out.println("Piece Removed from: " + position.toString());
-
-        List<String> payload = List.of(position.toString());
-
-        ServerResponse removeUpdate = ServerResponse.create(SERVER_RESPONSE_CODES.REMOVE_PIECE, payload);
-
-        networkService.broadcastMessage(removeUpdate, null);
-
-    }
 }
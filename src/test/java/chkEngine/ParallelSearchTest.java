@@ -0,0 +1,86 @@
+package chkEngine;
+
+import chkMVC.chModel.Checkers.BoardCodec;
+import chkMVC.chModel.Checkers.BoardGeometry;
+import chkMVC.chModel.Checkers.CheckersGameModel;
+import chkMVC.chModel.Checkers.OpeningBook;
+import chkMVC.chModel.Checkers.OpeningBookBuilder;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSearchTest {
+
+    @Test
+    void helpersShareTheTableAndGoBack () throws Exception {
+        try (ParallelSearch search = new ParallelSearch(new TranspositionTable(4), 3)) {
+            CheckersGameModel game = new CheckersGameModel(RULE_VARIANT.ENGLISH);
+            SearchResult result = search.search(game, SearchLimits.depth(9), 4);
+            assertTrue(result.hasMove());
+            assertEquals(9, result.getDepth());
+            assertTrue(game.canMakeMove(result.getBestPath()));
+            assertTrue(search.getTable().getStores() > 0);
+            assertEquals(3, search.getIdleHelpers());
+
+            // Still finds forced wins with helpers running
+            SearchResult win = search.search(RULE_VARIANT.ENGLISH, BoardCodec.fromFen("W:WK27,K19:BK32", BoardGeometry.EIGHT), SearchLimits.depth(8), 4);
+            assertEquals(SearchEngine.WIN - 3, win.getScore());
+        }
+    }
+
+    @Test
+    void manySearchesStayUnderTheCap () throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try (ParallelSearch search = new ParallelSearch(new TranspositionTable(4), 2)) {
+            List<Future<SearchResult>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                RULE_VARIANT variant = i % 2 == 0 ? RULE_VARIANT.ENGLISH : RULE_VARIANT.RUSSIAN;
+                results.add(callers.submit(() -> {
+                    assertTrue(search.getIdleHelpers() >= 0);
+                    return search.search(new CheckersGameModel(variant), new SearchLimits(7, 2000, 0), 3);
+                }));
+            }
+            for (Future<SearchResult> result : results) {
+                assertTrue(result.get().hasMove());
+            }
+            assertEquals(2, search.getIdleHelpers());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void playsBookMovesWithoutSearching (@TempDir Path tempDir) throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder(RULE_VARIANT.ENGLISH, 2);
+        builder.addPdn(new StringReader("1. 23-20 12-15 1-0\n\n[Event \"b\"]\n1. 23-19 9-13 1-0\n"));
+        Path file = tempDir.resolve("english.book");
+        builder.write(file, 1);
+        try (OpeningBook book = OpeningBook.open(file); ParallelSearch search = new ParallelSearch(new TranspositionTable(4), 1)) {
+            search.useOpeningBook(book);
+            CheckersGameModel game = new CheckersGameModel(RULE_VARIANT.ENGLISH);
+            SearchResult result = search.search(game, SearchLimits.depth(9), 2);
+            assertTrue(result.isFromBook());
+            assertEquals(0, result.getNodes());
+            assertEquals(Evaluator.MAN, result.getScore());
+            assertTrue(book.lookup(game).stream().anyMatch(move -> move.getPath().equals(result.getBestPath())));
+
+            // Out of the book it searches as usual, other variants never use it
+            game.makeMove(result.getBestPath());
+            game.makeMove(book.lookup(game).get(0).getPath());
+            SearchResult searched = search.search(game, SearchLimits.depth(5), 2);
+            assertFalse(searched.isFromBook());
+            assertEquals(5, searched.getDepth());
+            assertFalse(search.search(new CheckersGameModel(RULE_VARIANT.RUSSIAN), SearchLimits.depth(3), 1).isFromBook());
+        }
+    }
+}
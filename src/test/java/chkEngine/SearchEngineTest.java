@@ -0,0 +1,115 @@
+package chkEngine;
+
+import chkMVC.chModel.Checkers.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Checks the search returns legal lines and sees forced results. Squares in fens are PDN numbers, see BoardCodec.
+class SearchEngineTest {
+
+    @Test
+    void principalVariationIsLegal () {
+        for (RULE_VARIANT variant : RULE_VARIANT.values()) {
+            SearchEngine engine = new SearchEngine(variant);
+            CheckersGameModel game = new CheckersGameModel(variant);
+            SearchResult result = engine.search(game, SearchLimits.depth(6));
+            assertTrue(result.hasMove(), variant.name());
+            assertEquals(6, result.getDepth(), variant.name());
+
+            // Play the whole line on the game, every move has to be one of the legal ones
+            MoveList line = result.getPrincipalVariation();
+            MoveList legal = new MoveList(variant.getGeometry());
+            for (int ply = 0; ply < line.size(); ply++) {
+                int count = game.generateLegalMoves(legal);
+                int found = -1;
+                for (int i = 0; i < count && found < 0; i++) {
+                    if (SearchEngine.sameMove(legal, i, line, ply)) found = i;
+                }
+                assertTrue(found >= 0, variant + " ply " + ply + " of " + line);
+                game.doMove(legal, found);
+            }
+            assertTrue(new CheckersGameModel(variant).canMakeMove(result.getBestPath()), variant.name());
+        }
+    }
+
+    @Test
+    void findsShortWins () {
+        SearchEngine engine = new SearchEngine(RULE_VARIANT.ENGLISH);
+        // White pins the black king in the corner and takes it
+        SearchResult win = engine.search(BoardCodec.fromFen("W:WK27,K19:BK32", BoardGeometry.EIGHT), SearchLimits.depth(8));
+        assertTrue(win.isWin());
+        assertEquals(SearchEngine.WIN - 3, win.getScore());
+        assertEquals(3, win.getPrincipalVariationLength());
+
+        // The black man is blocked, nothing to move, the game is lost already
+        SearchResult lost = engine.search(BoardCodec.fromFen("B:W31,32:B28", BoardGeometry.EIGHT), SearchLimits.depth(8));
+        assertFalse(lost.hasMove());
+        assertTrue(lost.isLoss());
+        assertThrows(IllegalStateException.class, lost::getBestPath);
+    }
+
+    @Test
+    void respectsTheNodeBudget () {
+        SearchEngine engine = new SearchEngine(RULE_VARIANT.ENGLISH);
+        CheckersGameModel game = new CheckersGameModel(RULE_VARIANT.ENGLISH);
+        SearchResult result = engine.search(game, new SearchLimits(0, 0, 20_000));
+        assertTrue(result.hasMove());
+        assertTrue(result.getDepth() >= 1);
+        assertTrue(result.getNodes() <= 20_000 + 1024, "searched " + result.getNodes());
+
+        // The game's own board is left alone
+        assertEquals(BoardCodec.toFen(new CheckersGameModel(RULE_VARIANT.ENGLISH).getBoardModel()), BoardCodec.toFen(game.getBoardModel()));
+        assertThrows(IllegalArgumentException.class, () -> engine.search(new CheckersGameModel(RULE_VARIANT.RUSSIAN), SearchLimits.depth(1)));
+    }
+
+    @Test
+    void forcedResultsAgreeWithTheEndgameDatabase (@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("endgame3.db");
+        EndgameDatabaseBuilder.build(3, file, null);
+        SearchEngine engine = new SearchEngine(RULE_VARIANT.ENGLISH);
+        Random random = new Random(20);
+        int forced = 0;
+
+        try (EndgameDatabase database = EndgameDatabase.open(file)) {
+            for (int sample = 0; sample < 300; sample++) {
+                BoardModel board = BoardCodec.fromFen(randomFen(random), BoardGeometry.EIGHT);
+                SearchResult result = engine.search(board, SearchLimits.depth(8));
+                ENDGAME_RESULT known = database.probe(board);
+                if (result.isWin()) {
+                    assertEquals(ENDGAME_RESULT.WIN, known, BoardCodec.toFen(board));
+                    forced++;
+                } else if (result.isLoss()) {
+                    assertEquals(ENDGAME_RESULT.LOSS, known, BoardCodec.toFen(board));
+                    forced++;
+                }
+            }
+        }
+        assertTrue(forced > 0, "no forced results seen");
+    }
+
+    // Two or three pieces, at least one each, men never on their crowning row.
+    private static String randomFen (Random random) {
+        StringBuilder white = new StringBuilder("W");
+        StringBuilder black = new StringBuilder("B");
+        boolean[] used = new boolean[33];
+        int pieces = 2 + random.nextInt(2);
+        for (int p = 0; p < pieces; p++) {
+            boolean isWhite = p == 0 || (p > 1 && random.nextBoolean());
+            int number;
+            do number = 1 + random.nextInt(32); while (used[number]);
+            used[number] = true;
+            // White is crowned on 1-4, black on 29-32
+            boolean king = random.nextBoolean() || (isWhite ? number <= 4 : number >= 29);
+            StringBuilder side = isWhite ? white : black;
+            if (side.length() > 1) side.append(',');
+            side.append(king ? "K" : "").append(number);
+        }
+        return (random.nextBoolean() ? "W" : "B") + ":" + white + ":" + black;
+    }
+}
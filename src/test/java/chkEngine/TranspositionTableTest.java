@@ -0,0 +1,96 @@
+package chkEngine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    void storesAndReadsBack () {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(1 << 20, table.getSizeBytes());
+        assertEquals(0, table.probe(42));
+
+        table.store(42, 5 | 9 << 8, 7, TranspositionTable.LOWER, -1234);
+        long data = table.probe(42);
+        assertEquals(5 | 9 << 8, TranspositionTable.getMove(data));
+        assertEquals(7, TranspositionTable.getDepth(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.getBound(data));
+        assertEquals(-1234, TranspositionTable.getScore(data));
+
+        // Same bucket, different key
+        assertEquals(0, table.probe(42 + table.getEntries() / TranspositionTable.BUCKET_ENTRIES));
+        // A store without a move keeps the one already there
+        table.store(42, 0, 8, TranspositionTable.EXACT, SearchEngine.WIN - 3);
+        data = table.probe(42);
+        assertEquals(5 | 9 << 8, TranspositionTable.getMove(data));
+        assertEquals(SearchEngine.WIN - 3, TranspositionTable.getScore(data));
+
+        assertEquals(4, table.getProbes());
+        assertEquals(2, table.getHits());
+        assertEquals(2, table.getStores());
+        table.clear();
+        assertEquals(0, table.probe(42));
+    }
+
+    @Test
+    void replacesShallowAndOldEntriesFirst () {
+        TranspositionTable table = new TranspositionTable(1);
+        long step = table.getEntries() / TranspositionTable.BUCKET_ENTRIES; // Keys this far apart share a bucket
+        for (int i = 0; i < TranspositionTable.BUCKET_ENTRIES; i++) {
+            table.store(1 + i * step, 0, 10 + i, TranspositionTable.EXACT, i);
+        }
+        // Bucket is full, the shallowest one goes
+        table.store(1 + 4 * step, 0, 20, TranspositionTable.EXACT, 4);
+        assertEquals(0, table.probe(1));
+        assertNotEquals(0, table.probe(1 + 4 * step));
+
+        // A few searches later the deep but old entries go before a fresh shallow one
+        for (int i = 0; i < 5; i++) table.newSearch();
+        table.store(1 + 5 * step, 0, 1, TranspositionTable.EXACT, 5);
+        table.store(1 + 6 * step, 0, 1, TranspositionTable.EXACT, 6);
+        assertNotEquals(0, table.probe(1 + 5 * step));
+        assertNotEquals(0, table.probe(1 + 6 * step));
+        assertTrue(table.getFillPermille() >= 0);
+    }
+
+    @Test
+    void sharedWritesNeverReadTorn () throws InterruptedException {
+        // Every thread stores entries whose score is worked out from the key, and checks every hit it reads
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicLong hits = new AtomicLong();
+        AtomicLong bad = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 500_000; i++) {
+                    long key = random.nextLong(1 << 16) * 0x9E3779B97F4A7C15L;
+                    long data = table.probe(key);
+                    if (data != 0) {
+                        hits.incrementAndGet();
+                        if (TranspositionTable.getScore(data) != scoreOf(key) || TranspositionTable.getMove(data) != (int) (key >>> 48)) {
+                            bad.incrementAndGet();
+                        }
+                    }
+                    table.store(key, (int) (key >>> 48), 3, TranspositionTable.EXACT, scoreOf(key));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) thread.join();
+        assertTrue(hits.get() > 0);
+        assertEquals(0, bad.get());
+        assertEquals(4 * 500_000, table.getProbes());
+    }
+
+    private static int scoreOf (long key) {
+        return (int) (key % 20_000);
+    }
+}
@@ -0,0 +1,99 @@
+package chkMVC.chModel.Checkers;
+
+import chkMVC.chModel.Checkers.Pieces.KingPiece;
+import chkMVC.chModel.Checkers.Pieces.SerfPiece;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Checks that the incremental Zobrist key in BoardModel always matches a key worked out from scratch.
+class BoardModelZobristTest {
+
+    @Test
+    void incrementalKeyMatchesRecomputedKey () {
+        Random random = new Random(20250417L);
+
+        for (BoardGeometry geometry : new BoardGeometry[]{BoardGeometry.EIGHT, BoardGeometry.TEN, BoardGeometry.TWELVE}) {
+            int squares = geometry.getSquareCount();
+            for (int game = 0; game < 20; game++) {
+                CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(geometry));
+                BoardModel board = gameModel.getBoardModel();
+                MoveList moves = new MoveList(geometry);
+                assertEquals(board.computePositionKey(), board.positionKey());
+
+                for (int step = 0; step < 400; step++) {
+                    Position square = geometry.positionOf(random.nextInt(squares));
+
+                    switch (random.nextInt(5)) {
+                        case 0 -> {
+                            PIECE_TEAM team = random.nextBoolean() ? PIECE_TEAM.WHITE : PIECE_TEAM.BLACK;
+                            board.addPiece(random.nextBoolean() ? new KingPiece(team) : new SerfPiece(team), square);
+                        }
+                        case 1 -> board.removePiece(square);
+                        case 2 -> {
+                            Position to = geometry.positionOf(random.nextInt(squares));
+                            if (board.isOccupied(square) && !board.isOccupied(to)) {
+                                board.movePiece(square, to);
+                            }
+                        }
+                        case 3 -> board.setSideToMove(random.nextBoolean() ? PIECE_TEAM.WHITE : PIECE_TEAM.BLACK);
+                        default -> {
+                            // A few doMoves of any piece to any empty square, capturing random other pieces,
+                            // then take them all back. Board edits in between would invalidate the undo stack.
+                            long[] keys = new long[4];
+                            int played = 0;
+                            for (int i = 0; i < keys.length; i++) {
+                                int from = random.nextInt(squares);
+                                int to = random.nextInt(squares);
+                                if (!board.isOccupied(from) || board.isOccupied(to)) continue;
+
+                                long[] captured = new long[2];
+                                if (random.nextInt(3) == 0) {
+                                    for (int sq = 0; sq < squares; sq++) {
+                                        if (sq != from && board.isOccupied(sq) && random.nextBoolean()) {
+                                            captured[sq >>> 6] |= 1L << sq;
+                                        }
+                                    }
+                                }
+                                moves.clear();
+                                moves.add(from, to, captured[0], captured[1], random.nextBoolean());
+                                keys[played++] = board.positionKey();
+                                gameModel.doMove(moves, 0);
+                                assertEquals(board.computePositionKey(), board.positionKey());
+                            }
+                            while (played > 0) {
+                                gameModel.undoMove();
+                                assertEquals(keys[--played], board.positionKey());
+                            }
+                        }
+                    }
+                    assertEquals(board.computePositionKey(), board.positionKey(), geometry + " key drifted at step " + step);
+                }
+            }
+        }
+    }
+
+    @Test
+    void samePositionReachedTwoWaysHasSameKey () {
+        BoardModel first = new BoardModel(8);
+        first.addPiece(new SerfPiece(PIECE_TEAM.WHITE), Position.fromString("B1"));
+        first.addPiece(new KingPiece(PIECE_TEAM.BLACK), Position.fromString("C4"));
+        first.movePiece(Position.fromString("B1"), Position.fromString("A2"));
+
+        BoardModel second = new BoardModel(8);
+        second.addPiece(new KingPiece(PIECE_TEAM.BLACK), Position.fromString("C4"));
+        second.addPiece(new SerfPiece(PIECE_TEAM.WHITE), Position.fromString("A2"));
+
+        assertEquals(first.positionKey(), second.positionKey());
+
+        second.setSideToMove(PIECE_TEAM.BLACK);
+        assertNotEquals(first.positionKey(), second.positionKey());
+
+        second.setSideToMove(PIECE_TEAM.WHITE);
+        second.removePiece(Position.fromString("A2"));
+        second.addPiece(new KingPiece(PIECE_TEAM.WHITE), Position.fromString("A2"));
+        assertNotEquals(first.positionKey(), second.positionKey());
+    }
+}
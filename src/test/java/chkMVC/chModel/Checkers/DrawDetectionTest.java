@@ -0,0 +1,129 @@
+package chkMVC.chModel.Checkers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Draw rules in CheckersGameModel: threefold repetition and the move limit.
+class DrawDetectionTest {
+
+    // Kings on 32 (H1) and 1 (A8), each shuffling one square and back.
+    private static final Position WHITE_HOME = Position.of(7, 0);
+    private static final Position WHITE_AWAY = Position.of(6, 1);
+    private static final Position BLACK_HOME = Position.of(0, 7);
+    private static final Position BLACK_AWAY = Position.of(1, 6);
+
+    @Test
+    void threefoldRepetitionIsADraw () {
+        List<PIECE_TEAM> results = new ArrayList<>();
+        CheckersGameModel gameModel = model("W:WK32:BK1", results);
+
+        for (int round = 0; round < 2; round++) {
+            assertFalse(gameModel.isDraw());
+            assertTrue(gameModel.makeMove(WHITE_HOME, WHITE_AWAY));
+            assertTrue(gameModel.makeMove(BLACK_HOME, BLACK_AWAY));
+            assertTrue(gameModel.makeMove(WHITE_AWAY, WHITE_HOME));
+            assertTrue(gameModel.makeMove(BLACK_AWAY, BLACK_HOME));
+        }
+
+        // The start position has now been seen three times
+        assertTrue(gameModel.isThreefoldRepetition());
+        assertEquals(1, results.size());
+        assertNull(results.getFirst(), "a draw has no winner");
+    }
+
+    @Test
+    void manMoveResetsTheCount () {
+        List<PIECE_TEAM> results = new ArrayList<>();
+        CheckersGameModel gameModel = model("W:WK32,21:BK1", results);
+
+        assertTrue(gameModel.makeMove(WHITE_HOME, WHITE_AWAY));
+        assertTrue(gameModel.makeMove(BLACK_HOME, BLACK_AWAY));
+        assertEquals(2, gameModel.getQuietPlies());
+
+        // The man on 21 (B3) steps forward, nothing before it can come back
+        assertTrue(gameModel.makeMove(Position.of(1, 2), Position.of(0, 3)));
+        assertEquals(0, gameModel.getQuietPlies());
+        assertTrue(gameModel.makeMove(BLACK_AWAY, BLACK_HOME));
+        assertTrue(gameModel.makeMove(WHITE_AWAY, WHITE_HOME));
+        assertEquals(2, gameModel.getQuietPlies());
+        assertFalse(gameModel.isDraw());
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    void moveLimitIsADraw () {
+        List<PIECE_TEAM> results = new ArrayList<>();
+        CheckersGameModel gameModel = model("W:WK32,K29:BK1,K4", results);
+        BoardModel board = gameModel.getBoardModel();
+
+        // Find quiet king moves that never bring a position up a third time, then play them for real
+        int limit = 2 * CheckersGameModel.DRAW_MOVE_LIMIT;
+        List<List<Position>> line = new ArrayList<>();
+        Map<Long, Integer> seen = new HashMap<>();
+        seen.put(board.positionKey(), 1);
+        assertTrue(findQuietLine(gameModel, limit, seen, line));
+        while (gameModel.getUndoDepth() > 0) gameModel.undoMove();
+
+        int plies = 0;
+        for (List<Position> path : line) {
+            assertTrue(results.isEmpty(), "game ended after " + plies + " plies");
+            assertTrue(gameModel.makeMove(path));
+            plies++;
+        }
+
+        assertEquals(2 * CheckersGameModel.DRAW_MOVE_LIMIT, plies);
+        assertFalse(gameModel.isThreefoldRepetition());
+        assertNull(results.getFirst());
+    }
+
+    // Depth first, leaves the line on the undo stack and in line.
+    private static boolean findQuietLine (CheckersGameModel gameModel, int plies, Map<Long, Integer> seen, List<List<Position>> line) {
+        if (plies == 0) return true;
+        BoardModel board = gameModel.getBoardModel();
+        MoveList moves = new MoveList();
+        int count = gameModel.generateLegalMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves.isCapture(i)) continue;
+            gameModel.doMove(moves, i);
+            long key = board.positionKey();
+            if (seen.merge(key, 1, Integer::sum) <= 2) {
+                line.add(List.of(board.positionOf(moves.getFrom(i)), board.positionOf(moves.getTo(i))));
+                if (findQuietLine(gameModel, plies - 1, seen, line)) return true;
+                line.removeLast();
+            }
+            seen.merge(key, -1, Integer::sum);
+            gameModel.undoMove();
+        }
+        return false;
+    }
+
+    private static CheckersGameModel model (String fen, List<PIECE_TEAM> results) {
+        CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(8), false);
+        BoardCodec.parseFen(fen, gameModel.getBoardModel());
+        gameModel.addListener(new GameEventListener() {
+            @Override
+            public void onGameComplete (PIECE_TEAM currentTurn) {
+                results.add(currentTurn);
+            }
+
+            @Override
+            public void onMoveMade (List<Position> path) {
+            }
+
+            @Override
+            public void onBoardUpdate (BoardSnapshot boardState) {
+            }
+
+            @Override
+            public void onTurnChange (PIECE_TEAM currentTurn) {
+            }
+        });
+        return gameModel;
+    }
+}
@@ -0,0 +1,94 @@
+package chkMVC.chModel.Checkers;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Builds a small (3 piece) endgame database and checks the lookups. Squares are PDN numbers, see BoardCodec.
+class EndgameDatabaseTest {
+
+    @TempDir
+    static Path tempDir;
+
+    private static EndgameDatabase database;
+
+    @BeforeAll
+    static void build () throws IOException {
+        Path file = tempDir.resolve("endgame3.db");
+        EndgameDatabaseBuilder.build(3, file, null);
+        database = EndgameDatabase.open(file);
+    }
+
+    @AfterAll
+    static void close () {
+        database.close();
+    }
+
+    @Test
+    void knownResults () {
+        assertEquals(3, database.getMaxPieces());
+        // Two kings beat one, whoever is to move
+        assertEquals(ENDGAME_RESULT.WIN, probe("W:WK14,K15:BK30"));
+        assertEquals(ENDGAME_RESULT.LOSS, probe("B:WK14,K15:BK30"));
+        // One king each, both in a double corner, can't be forced
+        assertEquals(ENDGAME_RESULT.DRAW, probe("W:WK29:BK4"));
+        // The man on 22 has to take the last black piece
+        assertEquals(ENDGAME_RESULT.WIN, probe("W:W22:B18"));
+    }
+
+    @Test
+    void outsideTheDatabase () {
+        assertEquals(ENDGAME_RESULT.UNKNOWN, probe("W:W21,22,23:B1,2"));
+        assertEquals(ENDGAME_RESULT.UNKNOWN, database.probe(new CheckersGameModel(RULE_VARIANT.RUSSIAN)));
+        assertEquals(ENDGAME_RESULT.UNKNOWN, database.probe(new BoardModel(10)));
+    }
+
+    @Test
+    void resultsAgreeWithTheirMoves () {
+        // Every stored result has to follow from the results of the moves out of it
+        CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(8), false);
+        BoardModel board = gameModel.getBoardModel();
+        MoveList moves = new MoveList();
+        Random random = new Random(19);
+
+        for (int sample = 0; sample < 3000; sample++) {
+            long white = 0, black = 0, kings = 0, used = 0;
+            int pieces = 2 + random.nextInt(2);
+            for (int p = 0; p < pieces; p++) {
+                int square;
+                do square = random.nextInt(32); while ((used & (1L << square)) != 0);
+                used |= 1L << square;
+                boolean isWhite = p == 0 || (p > 1 && random.nextBoolean()); // One piece each at least
+                boolean king = random.nextBoolean() || (isWhite ? square >= 28 : square < 4);
+                if (isWhite) white |= 1L << square;
+                else black |= 1L << square;
+                if (king) kings |= 1L << square;
+            }
+            board.load(white, black, kings, 0L, 0L, 0L, random.nextBoolean() ? PIECE_TEAM.WHITE : PIECE_TEAM.BLACK);
+
+            ENDGAME_RESULT stored = database.probe(board);
+            int count = gameModel.generateLegalMoves(moves);
+            boolean anyLoss = false, allWins = true;
+            for (int i = 0; i < count; i++) {
+                gameModel.doMove(moves, i);
+                ENDGAME_RESULT reply = database.probe(board);
+                gameModel.undoMove();
+                anyLoss |= reply == ENDGAME_RESULT.LOSS;
+                allWins &= reply == ENDGAME_RESULT.WIN;
+            }
+            ENDGAME_RESULT expected = anyLoss ? ENDGAME_RESULT.WIN : allWins ? ENDGAME_RESULT.LOSS : ENDGAME_RESULT.DRAW;
+            assertEquals(expected, stored, BoardCodec.toFen(board));
+        }
+    }
+
+    private static ENDGAME_RESULT probe (String fen) {
+        return database.probe(BoardCodec.fromFen(fen, BoardGeometry.EIGHT));
+    }
+}
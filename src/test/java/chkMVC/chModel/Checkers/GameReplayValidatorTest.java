@@ -0,0 +1,82 @@
+package chkMVC.chModel.Checkers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Batch replay of recorded games. Square numbers as in BoardCodec (white starts on 21-32 and moves first).
+class GameReplayValidatorTest {
+
+    private static final String GAME = "1. 23-20 12-15 2. 20-16 7-12 3. 16x7 3x12 4. 27-23 10-14 {trade} 5. 21-18 14x21 6. 26x17 12-16 *";
+
+    @Test
+    void legalGame () {
+        GameReplayValidator.Result result = new GameReplayValidator().validate(game("ok", GAME));
+        assertTrue(result.isValid(), result.toString());
+        assertEquals(-1, result.getFirstIllegalPly());
+    }
+
+    @Test
+    void firstIllegalPly () {
+        GameReplayValidator validator = new GameReplayValidator();
+
+        // 16x7 is forced, stepping away instead is illegal
+        GameReplayValidator.Result skippedCapture = validator.validate(game("skip", GAME.replace("16x7 3x12", "16-11 3x12")));
+        assertEquals(4, skippedCapture.getFirstIllegalPly());
+
+        GameReplayValidator.Result garbage = validator.validate(game("garbage", "23-20 12-15 20-16 hello"));
+        assertEquals(3, garbage.getFirstIllegalPly());
+        assertNotNull(garbage.getReason());
+
+        GameReplayValidator.Result badStart = validator.validate(new GameReplayValidator.Game("fen", RULE_VARIANT.ENGLISH, "W:W99", List.of("23-20")));
+        assertEquals(0, badStart.getFirstIllegalPly());
+    }
+
+    @Test
+    void captureShorthand () {
+        // 29 jumps 26 then 19, it may be written with every landing square or just the first and last square
+        String fen = "W:W29:B26,19";
+        GameReplayValidator validator = new GameReplayValidator();
+        assertTrue(validator.validate(new GameReplayValidator.Game("full", RULE_VARIANT.ENGLISH, fen, List.of("29x22x15"))).isValid());
+        assertTrue(validator.validate(new GameReplayValidator.Game("short", RULE_VARIANT.ENGLISH, fen, List.of("29x15"))).isValid());
+        assertFalse(validator.validate(new GameReplayValidator.Game("half", RULE_VARIANT.ENGLISH, fen, List.of("29x22"))).isValid());
+    }
+
+    @Test
+    void parallelBatchKeepsOrder () {
+        List<GameReplayValidator.Game> games = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String moves = i % 3 == 0 ? GAME.replace("26x17", "26-22") : GAME;
+            games.add(game("game " + i, moves));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            GameReplayValidator validator = new GameReplayValidator(pool);
+            List<GameReplayValidator.Result> results = validator.validate(games);
+            assertEquals(games.size(), results.size());
+            for (int i = 0; i < games.size(); i++) {
+                assertSame(games.get(i), results.get(i).getGame());
+                assertEquals(i % 3 == 0 ? 10 : -1, results.get(i).getFirstIllegalPly(), results.get(i).toString());
+            }
+
+            List<GameReplayValidator.Result> streamed = new ArrayList<>();
+            validator.validate(IntStream.range(0, games.size()).mapToObj(games::get), streamed::add);
+            assertEquals(results.size(), streamed.size());
+            for (int i = 0; i < games.size(); i++) {
+                assertEquals(results.get(i).getFirstIllegalPly(), streamed.get(i).getFirstIllegalPly());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static GameReplayValidator.Game game (String id, String moveText) {
+        return GameReplayValidator.Game.fromPdn(id, RULE_VARIANT.ENGLISH, null, moveText);
+    }
+}
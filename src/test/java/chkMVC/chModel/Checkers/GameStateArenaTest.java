@@ -0,0 +1,109 @@
+package chkMVC.chModel.Checkers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Games kept in a GameStateArena: slots, binding a View and the draw counters surviving a round trip.
+class GameStateArenaTest {
+
+    // Kings on 32 (H1) and 1 (A8), each shuffling one square and back, like DrawDetectionTest.
+    private static final List<List<Position>> SHUFFLE = List.of(
+            List.of(Position.of(7, 0), Position.of(6, 1)),
+            List.of(Position.of(0, 7), Position.of(1, 6)),
+            List.of(Position.of(6, 1), Position.of(7, 0)),
+            List.of(Position.of(1, 6), Position.of(0, 7)));
+
+    @Test
+    void movesSurviveFlushAndRebind () {
+        try (GameStateArena arena = new GameStateArena(4)) {
+            int first = arena.allocate(BoardGeometry.EIGHT);
+            int second = arena.allocate(BoardGeometry.EIGHT);
+            assertNotEquals(first, second);
+            assertEquals(2, arena.getUsedSlots());
+            assertTrue(arena.isInUse(first));
+            assertEquals(PIECE_TEAM.WHITE, arena.getSideToMove(first));
+            long start = arena.getPositionKey(first);
+
+            GameStateArena.View view = arena.newView(BoardGeometry.EIGHT);
+            CheckersGameModel gameModel = view.bind(first).getGameModel();
+            assertEquals(start, gameModel.getBoardModel().positionKey());
+            assertTrue(gameModel.makeMove(path(23, 20)));
+            // Nothing reaches the arena before flush
+            assertEquals(start, arena.getPositionKey(first));
+            assertEquals(1, view.getPlyCount());
+            view.flush();
+            long moved = gameModel.getBoardModel().positionKey();
+            assertEquals(moved, arena.getPositionKey(first));
+            assertEquals(PIECE_TEAM.BLACK, arena.getSideToMove(first));
+            assertEquals(1, arena.getPlyCount(first));
+            assertEquals(0, arena.getQuietPlies(first), "a man moved");
+
+            // The other game is untouched, and the first one comes back as it was left
+            view.bind(second);
+            assertEquals(start, gameModel.getBoardModel().positionKey());
+            assertEquals(0, view.getPlyCount());
+            view.bind(first);
+            assertEquals(moved, gameModel.getBoardModel().positionKey());
+            assertEquals(PIECE_TEAM.BLACK, gameModel.getCurrentTurn());
+            assertTrue(gameModel.makeMove(path(12, 15)));
+            view.flush();
+            assertEquals(2, arena.getPlyCount(first));
+        }
+    }
+
+    @Test
+    void moveLimitCountsAcrossBinds () {
+        try (GameStateArena arena = new GameStateArena(2)) {
+            int slot = arena.allocate(BoardGeometry.EIGHT);
+            GameStateArena.View view = arena.newView(BoardGeometry.EIGHT);
+            CheckersGameModel gameModel = view.bind(slot).getGameModel();
+            BoardCodec.parseFen("W:WK32:BK1", gameModel.getBoardModel());
+            gameModel.resetDrawHistory();
+            view.flush();
+
+            // One ply per bind, so the model never sees a repetition and only the stored count can draw the game
+            int limit = 2 * CheckersGameModel.DRAW_MOVE_LIMIT;
+            for (int ply = 0; ply < limit; ply++) {
+                view.bind(slot);
+                assertFalse(gameModel.isDraw(), "drawn after " + ply + " plies");
+                assertTrue(gameModel.makeMove(SHUFFLE.get(ply % SHUFFLE.size())));
+                view.flush();
+                assertEquals(ply + 1, arena.getQuietPlies(slot));
+            }
+            view.bind(slot);
+            assertEquals(limit, view.getQuietPlies());
+            assertEquals(limit, view.getPlyCount());
+            assertTrue(gameModel.isDraw());
+        }
+    }
+
+    @Test
+    void releasedSlotsAreReusedOnce () {
+        try (GameStateArena arena = new GameStateArena(2)) {
+            int slot = arena.allocate(BoardGeometry.EIGHT);
+            arena.allocate(BoardGeometry.EIGHT);
+            assertThrows(IllegalStateException.class, () -> arena.allocate(BoardGeometry.EIGHT));
+
+            arena.release(slot);
+            assertFalse(arena.isInUse(slot));
+            assertEquals(1, arena.getUsedSlots());
+            assertThrows(IllegalStateException.class, () -> arena.release(slot));
+            assertThrows(IllegalStateException.class, () -> arena.newView(BoardGeometry.EIGHT).bind(slot));
+            assertEquals(1, arena.getUsedSlots());
+
+            // Freed once, so handed out once
+            assertEquals(slot, arena.allocate(BoardGeometry.EIGHT));
+            assertThrows(IllegalStateException.class, () -> arena.allocate(BoardGeometry.EIGHT));
+        }
+    }
+
+    private static List<Position> path (int... numbers) {
+        return Arrays.stream(numbers)
+                .mapToObj(number -> BoardGeometry.EIGHT.positionOf(BoardCodec.squareOfNumber(BoardGeometry.EIGHT, number)))
+                .toList();
+    }
+}
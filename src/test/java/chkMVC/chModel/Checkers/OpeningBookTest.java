@@ -0,0 +1,164 @@
+package chkMVC.chModel.Checkers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Builds small books from PDN text and random games and reads them back. Squares are PDN numbers, see BoardCodec.
+class OpeningBookTest {
+
+    private static final String PDN = """
+            [Event "a"]
+            [Result "1-0"]
+            1. 23-20 12-15 2. 20-16 7-12 1-0
+
+            [Event "b"]
+            1. 23-20 12-15 2. 20-16 7-12 0-1
+
+            [Event "c"]
+            [Result "1-0"]
+            1. 23-20 12-15 2. 20-16 7-12
+
+            [Event "d"]
+            1. 23-19 9-13 1/2-1/2
+
+            [Event "illegal"]
+            1. 23-20 12-15 2. 20-17 *
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void countsMovesAndResults () throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(RULE_VARIANT.ENGLISH, 4);
+        assertEquals(4, builder.addPdn(new StringReader(PDN)));
+        assertEquals(1, builder.getGamesRejected());
+
+        Path file = tempDir.resolve("english.book");
+        builder.write(file, 1);
+        try (OpeningBook book = OpeningBook.open(file)) {
+            assertEquals(RULE_VARIANT.ENGLISH, book.getVariant());
+            assertEquals(4, book.getMaxPly());
+
+            CheckersGameModel game = new CheckersGameModel(RULE_VARIANT.ENGLISH);
+            List<OpeningBook.BookMove> start = book.lookup(game);
+            assertEquals(2, start.size());
+            // Most played first, 2 of its 3 games won by white
+            assertEquals(path(23, 20), start.get(0).getPath());
+            assertEquals(3, start.get(0).getGames());
+            assertEquals(333, start.get(0).getScore());
+            assertEquals(path(23, 19), start.get(1).getPath());
+            assertEquals(0, start.get(1).getScore());
+
+            game.makeMove(path(23, 20));
+            List<OpeningBook.BookMove> reply = book.lookup(game);
+            assertEquals(1, reply.size());
+            assertEquals(path(12, 15), reply.get(0).getPath());
+            assertEquals(-333, reply.get(0).getScore());
+
+            // Past maxPly, and other rules, aren't in the book
+            game.makeMove(path(12, 15));
+            game.makeMove(path(20, 16));
+            game.makeMove(path(7, 12));
+            assertTrue(book.lookup(game).isEmpty());
+            assertTrue(book.lookup(new CheckersGameModel(RULE_VARIANT.RUSSIAN)).isEmpty());
+        }
+
+        Path popular = tempDir.resolve("popular.book");
+        assertEquals(4, builder.write(popular, 3));
+        try (OpeningBook book = OpeningBook.open(popular)) {
+            assertEquals(List.of(path(23, 20)), book.lookup(new CheckersGameModel(RULE_VARIANT.ENGLISH)).stream().map(OpeningBook.BookMove::getPath).toList());
+        }
+    }
+
+    @Test
+    void pickIsWeightedByGames () throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(RULE_VARIANT.ENGLISH, 4);
+        builder.addPdn(new StringReader(PDN));
+        Path file = tempDir.resolve("english.book");
+        builder.write(file, 1);
+        try (OpeningBook book = OpeningBook.open(file)) {
+            List<OpeningBook.BookMove> moves = book.lookup(new CheckersGameModel(RULE_VARIANT.ENGLISH));
+            Random random = new Random(24);
+            int mostPlayed = 0;
+            for (int i = 0; i < 4000; i++) {
+                if (OpeningBook.pick(moves, random) == moves.get(0)) mostPlayed++;
+            }
+            assertTrue(mostPlayed > 2800 && mostPlayed < 3200, "picked the 3 game move " + mostPlayed + " times of 4000");
+            assertNull(OpeningBook.pick(List.of(), random));
+        }
+    }
+
+    @Test
+    void everyRecordedMoveIsFound () throws IOException {
+        // Lots of random games, so the lookups binary search over thousands of entries
+        RULE_VARIANT variant = RULE_VARIANT.ENGLISH;
+        BoardGeometry geometry = variant.getGeometry();
+        OpeningBookBuilder builder = new OpeningBookBuilder(variant, 10);
+        CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(geometry), variant.newRuleSet(), false);
+        BoardModel board = gameModel.getBoardModel();
+        MoveList moves = new MoveList(geometry);
+        Random random = new Random(7);
+        String startFen = BoardCodec.toFen(new CheckersGameModel(variant).getBoardModel());
+        List<String> fens = new ArrayList<>();
+        List<List<Position>> played = new ArrayList<>();
+
+        for (int g = 0; g < 500; g++) {
+            BoardCodec.parseFen(startFen, board);
+            List<String> game = new ArrayList<>();
+            for (int ply = 0; ply < 10 && gameModel.generateLegalMoves(moves) > 0; ply++) {
+                int index = random.nextInt(moves.size());
+                StringBuilder move = new StringBuilder().append(BoardCodec.numberOfSquare(geometry, moves.getFrom(index)));
+                List<Position> path = new ArrayList<>();
+                path.add(geometry.positionOf(moves.getFrom(index)));
+                for (int step = 0; step < moves.getPathLength(index); step++) {
+                    move.append(moves.isCapture(index) ? 'x' : '-').append(BoardCodec.numberOfSquare(geometry, moves.getPathSquare(index, step)));
+                    path.add(geometry.positionOf(moves.getPathSquare(index, step)));
+                }
+                fens.add(BoardCodec.toFen(board));
+                played.add(path);
+                game.add(move.toString());
+                gameModel.doMove(moves, index);
+            }
+            assertTrue(builder.add(new GameReplayValidator.Game("random " + g, variant, null, game, "1-0")));
+        }
+
+        Path file = tempDir.resolve("random.book");
+        int entries = builder.write(file, 1);
+        assertTrue(entries > 1000, entries + " entries");
+        try (OpeningBook book = OpeningBook.open(file)) {
+            assertEquals(entries, book.getEntryCount());
+            for (int i = 0; i < fens.size(); i++) {
+                BoardCodec.parseFen(fens.get(i), board);
+                gameModel.generateLegalMoves(moves);
+                List<Position> path = played.get(i);
+                assertTrue(book.lookup(board, moves).stream().anyMatch(move -> move.getPath().equals(path)), "missing " + path + " in " + fens.get(i));
+            }
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles () throws IOException {
+        Path file = tempDir.resolve("not.book");
+        Files.write(file, new byte[64]);
+        assertThrows(IllegalArgumentException.class, () -> OpeningBook.open(file));
+    }
+
+    private static List<Position> path (int... numbers) {
+        List<Position> path = new ArrayList<>();
+        for (int number : numbers) {
+            path.add(BoardGeometry.EIGHT.positionOf(BoardCodec.squareOfNumber(BoardGeometry.EIGHT, number)));
+        }
+        return path;
+    }
+}
@@ -0,0 +1,72 @@
+package chkMVC.chModel.Checkers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Perft counts for the move generator. The start position counts are the published English draughts numbers,
+//the small positions were worked out by hand (squares are PDN numbers, see BoardCodec).
+class PerftTest {
+
+    private static final long[] START_COUNTS = {7, 49, 302, 1469, 7361, 36768, 179740};
+
+    @Test
+    void startPosition () {
+        CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(8));
+        long key = gameModel.getBoardModel().positionKey();
+
+        for (int depth = 1; depth <= START_COUNTS.length; depth++) {
+            assertEquals(START_COUNTS[depth - 1], gameModel.perft(depth), "perft(" + depth + ")");
+        }
+
+        assertEquals(key, gameModel.getBoardModel().positionKey(), "perft should leave the position as it was");
+        assertEquals(0, gameModel.getUndoDepth());
+    }
+
+    @Test
+    void captureIsMandatory () {
+        // D3 could step to E4, but it has to jump C4.
+        assertEquals(1, perft("W:W22:B18", 1));
+        // Nothing left for black after the jump.
+        assertEquals(0, perft("W:W22:B18", 2));
+    }
+
+    @Test
+    void menDoNotCaptureBackwards () {
+        // The black man on C2 is behind the white man on D3, so only the two steps forward.
+        assertEquals(2, perft("W:W22:B26", 1));
+    }
+
+    @Test
+    void multiJumpBranches () {
+        // B1xD3 then either xF5 (over E4) or xB5 (over C4), two moves.
+        assertEquals(2, perft("W:W29:B26,19,18", 1));
+        // Either way black has one man left with two steps.
+        assertEquals(4, perft("W:W29:B26,19,18", 2));
+    }
+
+    @Test
+    void crowningEndsTheMove () {
+        // C6xE8 crowns, and the new king may not carry on over F7 in the same move.
+        assertEquals(1, perft("W:W10:B6,7", 1));
+        // Black's F7 then has its two steps down.
+        assertEquals(2, perft("W:W10:B6,7", 2));
+    }
+
+    @Test
+    void kingsCaptureBackwards () {
+        assertEquals(1, perft("W:WK19:B22", 1));
+    }
+
+    @Test
+    void sameJumpAroundARingCountsOnce () {
+        // The king on D3 can go round E4, E6, C6, C4 either way and ends back on D3, which is one move.
+        assertEquals(1, perft("W:WK22:B19,11,10,18", 1));
+    }
+
+    private static long perft (String fen, int depth) {
+        CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(8), false);
+        BoardCodec.parseFen(fen, gameModel.getBoardModel());
+        return gameModel.perft(depth);
+    }
+}
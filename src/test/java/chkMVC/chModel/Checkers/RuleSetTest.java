@@ -0,0 +1,185 @@
+package chkMVC.chModel.Checkers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The rules that differ between variants. Squares are PDN numbers, see BoardCodec.
+class RuleSetTest {
+
+    private static final long[] INTERNATIONAL_START_COUNTS = {9, 81, 658, 4265, 27117, 167140};
+
+    @Test
+    void internationalStartPosition () {
+        CheckersGameModel gameModel = new CheckersGameModel(RULE_VARIANT.INTERNATIONAL);
+        assertEquals(10, gameModel.getBoardModel().getWidth());
+        for (int depth = 1; depth <= INTERNATIONAL_START_COUNTS.length; depth++) {
+            assertEquals(INTERNATIONAL_START_COUNTS[depth - 1], gameModel.perft(depth), "perft(" + depth + ")");
+        }
+    }
+
+    @Test
+    void majorityCapture () {
+        // 22 can take 18 then 10, or just 19. Only Brazilian/International force the longer one.
+        assertEquals(1, moves(RULE_VARIANT.BRAZILIAN, "W:W22:B18,10,19").size());
+        assertEquals(2, moves(RULE_VARIANT.RUSSIAN, "W:W22:B18,10,19").size());
+        assertEquals(2, moves(RULE_VARIANT.ENGLISH, "W:W22:B18,10,19").size());
+    }
+
+    @Test
+    void flyingKings () {
+        // The king on 29 can slide the whole long diagonal, or take 19 from a distance and stop on any square behind it.
+        assertEquals(7, moves(RULE_VARIANT.BRAZILIAN, "W:WK29:B4").size());
+        assertEquals(2, moves(RULE_VARIANT.ENGLISH, "W:WK29:B4").size());
+
+        MoveList captures = moves(RULE_VARIANT.BRAZILIAN, "W:WK29:B19");
+        assertEquals(3, captures.size());
+        for (int i = 0; i < captures.size(); i++) {
+            assertTrue(captures.isCapture(i));
+        }
+        assertFalse(moves(RULE_VARIANT.ENGLISH, "W:WK29:B19").isCapture(0));
+    }
+
+    @Test
+    void everyRouteOfAFlyingKingCaptureIsLegal () {
+        // The king on 42 takes 37, can stop on 33, 28, 24 or 19 and take on to 10 from there. Those routes all take
+        // the same pieces to the same square, so the generator only keeps one of them, but every one has to be accepted.
+        String fen = "W:WK42:B15,29,37,22,27,40";
+        MoveList generated = moves(RULE_VARIANT.INTERNATIONAL, fen);
+        int routes = 0;
+        for (int i = 0; i < generated.size(); i++) {
+            if (generated.getFrom(i) == square(BoardGeometry.TEN, 42) && generated.getTo(i) == square(BoardGeometry.TEN, 10)) routes++;
+        }
+        assertEquals(1, routes);
+
+        String kept = null;
+        for (int between : new int[]{33, 28, 24, 19}) {
+            CheckersGameModel gameModel = game(RULE_VARIANT.INTERNATIONAL, fen);
+            assertTrue(gameModel.isLegalPathPrefix(path(BoardGeometry.TEN, 42, between)), "42x" + between);
+            assertTrue(gameModel.makeMove(path(BoardGeometry.TEN, 42, between, 10)), "42x" + between + "x10");
+            String after = BoardCodec.toFen(gameModel.getBoardModel());
+            if (kept == null) kept = after;
+            assertEquals(kept, after);
+
+            GameReplayValidator.Game game = new GameReplayValidator.Game("route " + between, RULE_VARIANT.INTERNATIONAL,
+                    fen, List.of("42x" + between + "x10"));
+            assertTrue(new GameReplayValidator().validate(List.of(game)).getFirst().isValid(), "replay 42x" + between + "x10");
+        }
+        // Stopping in front of the piece, or landing on it, is still wrong
+        assertFalse(game(RULE_VARIANT.INTERNATIONAL, fen).canMakeMove(path(BoardGeometry.TEN, 42, 37, 10)));
+        assertFalse(game(RULE_VARIANT.INTERNATIONAL, fen).canMakeMove(path(BoardGeometry.TEN, 42, 33, 15)));
+    }
+
+    @Test
+    void serverPathOverItsOwnStartSquare () {
+        // The king on 28 (F5) goes round and its last hop, H3 to D7, passes back over F5. Only the pieces are taken.
+        String fen = "W:WK28:B23,24,25,35";
+        List<Position> path = Stream.of("F5", "H7", "J5", "H3", "D7").map(Position::fromString).toList();
+        CheckersGameModel server = game(RULE_VARIANT.INTERNATIONAL, fen);
+        assertTrue(server.makeMove(path));
+
+        CheckersGameModel client = game(RULE_VARIANT.INTERNATIONAL, fen);
+        client.applyServerConfirmedMove(path);
+        // The pieces only, the client gets the turn from the server separately
+        assertEquals(BoardCodec.toFen(server.getBoardModel()).substring(1), BoardCodec.toFen(client.getBoardModel()).substring(1));
+    }
+
+    @Test
+    void aManCanGoRoundARingEitherWay () {
+        // Men take backwards here too, so a man can go round four pieces either way and end up back where it started.
+        // The generator keeps one of the two routes, both have to be accepted.
+        assertRingBothWays(RULE_VARIANT.INTERNATIONAL, "W:W42:B26,27,36,37", new int[]{42, 33, 22, 31, 42});
+        assertRingBothWays(RULE_VARIANT.RUSSIAN, "W:W26:B13,14,21,22", new int[]{26, 19, 10, 17, 26});
+        assertRingBothWays(RULE_VARIANT.BRAZILIAN, "W:W26:B13,14,21,22", new int[]{26, 19, 10, 17, 26});
+    }
+
+    private static void assertRingBothWays (RULE_VARIANT variant, String fen, int[] route) {
+        BoardGeometry geometry = variant.getGeometry();
+        int[] reversed = {route[4], route[3], route[2], route[1], route[0]};
+        assertEquals(1, moves(variant, fen).size(), variant.name());
+        String kept = null;
+        for (int[] way : new int[][]{route, reversed}) {
+            CheckersGameModel gameModel = game(variant, fen);
+            assertTrue(gameModel.isLegalPathPrefix(path(geometry, way[0], way[1])), variant.name());
+            assertTrue(gameModel.makeMove(path(geometry, way)), variant + " " + Arrays.toString(way));
+            String after = BoardCodec.toFen(gameModel.getBoardModel());
+            if (kept == null) kept = after;
+            assertEquals(kept, after);
+
+            String pdn = way[0] + "x" + way[1] + "x" + way[2] + "x" + way[3] + "x" + way[4];
+            GameReplayValidator.Game game = new GameReplayValidator.Game(pdn, variant, fen, List.of(pdn));
+            assertTrue(new GameReplayValidator().validate(List.of(game)).getFirst().isValid(), variant + " replay " + pdn);
+        }
+        // A man still can't fly: the same ring with a long first hop is wrong
+        assertFalse(game(variant, fen).canMakeMove(path(geometry, route[0], route[2])), variant.name());
+    }
+
+    @Test
+    void russianManCrownedMidCapture () {
+        // 10 takes 6 and lands on the back row. In Russian it is a king straight away and flies on over 12.
+        MoveList russian = moves(RULE_VARIANT.RUSSIAN, "W:W10:B6,12");
+        assertEquals(1, russian.size());
+        assertEquals(2, russian.getPathLength(0));
+        assertTrue(russian.isPromotion(0));
+
+        // Everywhere else it is still a man until the move ends.
+        MoveList brazilian = moves(RULE_VARIANT.BRAZILIAN, "W:W10:B6,12");
+        assertEquals(1, brazilian.size());
+        assertEquals(1, brazilian.getPathLength(0));
+        assertTrue(brazilian.isPromotion(0));
+    }
+
+    @Test
+    void italianMenCannotTakeKings () {
+        MoveList italian = moves(RULE_VARIANT.ITALIAN, "W:W22:BK18");
+        assertEquals(1, italian.size());
+        assertFalse(italian.isCapture(0));
+        assertTrue(moves(RULE_VARIANT.ENGLISH, "W:W22:BK18").isCapture(0));
+    }
+
+    @Test
+    void italianPrefersCapturingWithAKing () {
+        // The man on 22 can take 18 or 19, the king on 23 can take 19. All take one piece, so the king has to.
+        MoveList italian = moves(RULE_VARIANT.ITALIAN, "W:W22,K23:B18,19");
+        assertEquals(1, italian.size());
+        assertEquals(BoardCodec.squareOfNumber(BoardGeometry.EIGHT, 23), italian.getFrom(0));
+        assertEquals(3, moves(RULE_VARIANT.ENGLISH, "W:W22,K23:B18,19").size());
+    }
+
+    @Test
+    void ruleSetMustMatchTheBoard () {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CheckersGameModel(new BoardModel(8), RULE_VARIANT.INTERNATIONAL.newRuleSet(), true));
+    }
+
+    private static CheckersGameModel game (RULE_VARIANT variant, String fen) {
+        CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(variant.getGeometry()), variant.newRuleSet(), false);
+        BoardCodec.parseFen(fen, gameModel.getBoardModel());
+        return gameModel;
+    }
+
+    private static int square (BoardGeometry geometry, int number) {
+        return BoardCodec.squareOfNumber(geometry, number);
+    }
+
+    private static List<Position> path (BoardGeometry geometry, int... numbers) {
+        List<Position> path = new ArrayList<>();
+        for (int number : numbers) {
+            path.add(geometry.positionOf(square(geometry, number)));
+        }
+        return path;
+    }
+
+    private static MoveList moves (RULE_VARIANT variant, String fen) {
+        CheckersGameModel gameModel = new CheckersGameModel(new BoardModel(variant.getGeometry()), variant.newRuleSet(), false);
+        BoardCodec.parseFen(fen, gameModel.getBoardModel());
+        MoveList moves = new MoveList(variant.getGeometry());
+        gameModel.generateLegalMoves(moves);
+        return moves;
+    }
+}
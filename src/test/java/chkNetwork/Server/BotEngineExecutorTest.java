@@ -0,0 +1,39 @@
+package chkNetwork.Server;
+
+import chkEngine.SearchLimits;
+import chkEngine.SearchResult;
+import chkMVC.chModel.Checkers.BoardCodec;
+import chkMVC.chModel.Checkers.CheckersGameModel;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotEngineExecutorTest {
+
+    @Test
+    void resultOrFailureAlwaysComesBack () throws Exception {
+        try (BotEngineExecutor executor = new BotEngineExecutor(1, 4, 1)) {
+            byte[] start = BoardCodec.toBinary(new CheckersGameModel(RULE_VARIANT.ENGLISH).getBoardModel());
+
+            CompletableFuture<SearchResult> searched = new CompletableFuture<>();
+            assertTrue(executor.submit(RULE_VARIANT.ENGLISH, start, SearchLimits.depth(3), searched::complete, searched::completeExceptionally));
+            assertTrue(searched.get(10, TimeUnit.SECONDS).hasMove());
+
+            // A position that can't be read
+            CompletableFuture<SearchResult> unreadable = new CompletableFuture<>();
+            assertTrue(executor.submit(RULE_VARIANT.ENGLISH, new byte[1], SearchLimits.depth(3), unreadable::complete, unreadable::completeExceptionally));
+            assertThrows(Exception.class, () -> unreadable.get(10, TimeUnit.SECONDS));
+
+            // onResult itself throwing still reaches onFailure
+            CompletableFuture<RuntimeException> failed = new CompletableFuture<>();
+            assertTrue(executor.submit(RULE_VARIANT.ENGLISH, start, SearchLimits.depth(2), result -> {
+                throw new IllegalStateException("boom");
+            }, failed::complete));
+            assertEquals("boom", failed.get(10, TimeUnit.SECONDS).getMessage());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package chkNetwork.Server;
+
+import chkNetwork.CLIENT_REQUEST_CODES;
+import chkNetwork.Client.ClientRequest;
+import chkNetwork.SERVER_RESPONSE_CODES;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs a real server on a free port and talks to it over sockets, the way the client does.
+class BotSeatTest {
+
+    private final Gson gson = new Gson();
+    private final List<Socket> sockets = new ArrayList<>();
+    private CheckerNetworkService server;
+    private int port;
+
+    @BeforeEach
+    void startServer () throws Exception {
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        server = new CheckerNetworkService(port, new BotEngineExecutor(1, 16, 1), new HintService(1, 16, 16, 1, 50));
+        Thread thread = new Thread(() -> {
+            try {
+                server.start();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @AfterEach
+    void stopServer () throws IOException {
+        for (Socket socket : sockets) socket.close();
+        server.stop();
+    }
+
+    @Test
+    void clientJoiningAfterABotDoesNotTakeItsSeat () throws Exception {
+        Client alice = join("alice");
+        assertEquals(List.of("H", "W"), alice.roles());
+
+        alice.send(CLIENT_REQUEST_CODES.HOST_ASSIGN_BOT, "BLACK");
+        awaitBots(1);
+        Client bob = join("bob");
+        assertEquals(List.of("S"), bob.roles());
+
+        // Moving the host over to a bot in white frees nothing for the next client either
+        alice.send(CLIENT_REQUEST_CODES.HOST_ASSIGN_BOT, "WHITE");
+        awaitBots(2);
+        assertEquals(List.of("S"), alice.roles());
+        Client carol = join("carol");
+        assertEquals(List.of("S"), carol.roles());
+
+        assertNull(server.getWhiteUsername());
+        assertNull(server.getBlackUsername());
+        assertEquals(2, server.getBotCount());
+    }
+
+    // Requests are handled on the client's own thread, so wait for the bot to be seated before the next join.
+    private void awaitBots (int count) throws InterruptedException {
+        for (int attempt = 0; server.getBotCount() < count; attempt++) {
+            assertTrue(attempt < 100, "no bot seated");
+            Thread.sleep(20);
+        }
+    }
+
+    private Client join (String username) throws IOException, InterruptedException {
+        Socket socket = null;
+        // The first one might have to wait for the server socket to open
+        for (int attempt = 0; socket == null; attempt++) {
+            try {
+                socket = new Socket("localhost", port);
+            } catch (IOException e) {
+                if (attempt == 100) throw e;
+                Thread.sleep(20);
+            }
+        }
+        sockets.add(socket);
+        socket.setSoTimeout(300);
+        Client client = new Client(username, socket);
+        client.send(CLIENT_REQUEST_CODES.JOIN);
+        return client;
+    }
+
+    private final class Client {
+        private final String username;
+        private final PrintWriter out;
+        private final BufferedReader in;
+
+        Client (String username, Socket socket) throws IOException {
+            this.username = username;
+            this.out = new PrintWriter(socket.getOutputStream(), true);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        }
+
+        void send (CLIENT_REQUEST_CODES code, String... args) {
+            List<String> payload = new ArrayList<>();
+            payload.add(username);
+            payload.addAll(List.of(args));
+            out.println(gson.toJson(new ClientRequest(code, payload)));
+        }
+
+        // Every ROLE_ASSIGN received until the server goes quiet.
+        List<String> roles () throws IOException {
+            List<String> roles = new ArrayList<>();
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    ServerResponse response = gson.fromJson(line, ServerResponse.class);
+                    if (response.getType() == SERVER_RESPONSE_CODES.ROLE_ASSIGN) roles.add(response.getPayload().getFirst());
+                }
+            } catch (SocketTimeoutException e) {
+                // Nothing more for now
+            }
+            return roles;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package chkNetwork.Server;
+
+import chkEngine.SearchResult;
+import chkMVC.chModel.Checkers.BoardCodec;
+import chkMVC.chModel.Checkers.BoardGeometry;
+import chkMVC.chModel.Checkers.BoardModel;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//HintService on one thread with a long search time, so requests overlap on purpose.
+class HintServiceTest {
+
+    private static final long SEARCH_MS = 300;
+    private static final String START = "W:W21,22,23,24,25,26,27,28,29,30,31,32:B1,2,3,4,5,6,7,8,9,10,11,12";
+    private static final String AFTER_23_20 = "B:W20,21,22,24,25,26,27,28,29,30,31,32:B1,2,3,4,5,6,7,8,9,10,11,12";
+
+    private final HintService hints = new HintService(1, 16, 16, 1, SEARCH_MS);
+
+    @AfterEach
+    void close () {
+        hints.close();
+    }
+
+    @Test
+    void oneSearchPerPositionThenCached () throws Exception {
+        BoardModel board = board(START);
+        List<CompletableFuture<SearchResult>> answers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            answers.add(request(board, 10_000));
+        }
+        SearchResult first = answers.getFirst().get(10, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertTrue(first.hasMove());
+        for (CompletableFuture<SearchResult> answer : answers) {
+            assertSame(first, answer.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, hints.getSearches());
+        assertEquals(4, hints.getJoined());
+
+        // Answered on the spot from the cache
+        CompletableFuture<SearchResult> later = request(board, 10_000);
+        assertTrue(later.isDone());
+        assertSame(first, later.get());
+        assertEquals(1, hints.getCacheHits());
+        assertEquals(1, hints.getSearches());
+    }
+
+    @Test
+    void waiterPastItsDeadlineGetsNull () throws Exception {
+        BoardModel board = board(START);
+        CompletableFuture<SearchResult> patient = request(board, 10_000);
+        CompletableFuture<SearchResult> hurried = request(board, 30);
+        // The hurried request gives up, the search carries on for the other one
+        assertNull(hurried.get(10, TimeUnit.SECONDS));
+        assertFalse(patient.isDone());
+        assertNotNull(patient.get(10, TimeUnit.SECONDS));
+        assertEquals(1, hints.getSearches());
+
+        // Past its deadline before it even asked
+        assertNull(request(board(AFTER_23_20), -1).get());
+    }
+
+    @Test
+    void shortSearchIsNotCached () throws Exception {
+        BoardModel busy = board(START);
+        BoardModel queued = board(AFTER_23_20);
+        // The only hint thread searches busy for SEARCH_MS, queued waits behind it and is left with less than that
+        CompletableFuture<SearchResult> first = request(busy, 10_000);
+        CompletableFuture<SearchResult> shallow = request(queued, SEARCH_MS + 100);
+        first.get(10, TimeUnit.SECONDS);
+        shallow.get(10, TimeUnit.SECONDS);
+        Thread.sleep(200); // The short search may still be finishing right at the deadline
+
+        // So the next request for it is searched again, with the full time
+        long searches = hints.getSearches();
+        CompletableFuture<SearchResult> full = request(queued, 10_000);
+        assertFalse(full.isDone());
+        assertNotNull(full.get(10, TimeUnit.SECONDS));
+        assertEquals(searches + 1, hints.getSearches());
+        assertEquals(0, hints.getCacheHits());
+
+        // That one is kept
+        assertTrue(request(queued, 10_000).isDone());
+        assertEquals(1, hints.getCacheHits());
+    }
+
+    @Test
+    void queuedSearchWaitsForTheLatestDeadline () throws Exception {
+        BoardModel busy = board(START);
+        BoardModel queued = board(AFTER_23_20);
+        request(busy, 10_000);
+        // Alone, the first request for queued would leave its search about 100ms once the thread is free
+        CompletableFuture<SearchResult> hurried = request(queued, SEARCH_MS + 100);
+        CompletableFuture<SearchResult> patient = request(queued, 10_000);
+        assertEquals(1, hints.getJoined());
+
+        // So the search gets its full time, too long for the first request but cached for everyone after
+        assertNotNull(patient.get(10, TimeUnit.SECONDS));
+        assertNull(hurried.get(10, TimeUnit.SECONDS));
+        assertEquals(2, hints.getSearches());
+        assertTrue(request(queued, 10_000).isDone());
+        assertEquals(1, hints.getCacheHits());
+    }
+
+    @Test
+    void moreTimeThanARunningShortSearchSearchesAgain () throws Exception {
+        BoardModel busy = board(START);
+        BoardModel queued = board(AFTER_23_20);
+        request(busy, 10_000);
+        // Starts after busy with about 200ms left
+        request(queued, SEARCH_MS + 200);
+        Thread.sleep(SEARCH_MS + 100);
+
+        // Doesn't wait on the short search, gets one of its own with the full time, and that one is kept
+        CompletableFuture<SearchResult> patient = request(queued, 10_000);
+        assertEquals(0, hints.getJoined());
+        assertNotNull(patient.get(10, TimeUnit.SECONDS));
+        assertEquals(3, hints.getSearches());
+        assertTrue(request(queued, 10_000).isDone());
+        assertEquals(1, hints.getCacheHits());
+    }
+
+    private CompletableFuture<SearchResult> request (BoardModel board, long deadlineIn) {
+        CompletableFuture<SearchResult> answer = new CompletableFuture<>();
+        hints.request(RULE_VARIANT.ENGLISH, BoardCodec.toBinary(board), board.positionKey(),
+                System.currentTimeMillis() + deadlineIn, answer::complete);
+        return answer;
+    }
+
+    private static BoardModel board (String fen) {
+        BoardModel board = new BoardModel(BoardGeometry.EIGHT);
+        BoardCodec.parseFen(fen, board);
+        return board;
+    }
+}
@@ -0,0 +1,109 @@
+package chkNetwork.Server;
+
+import chkMVC.chModel.Checkers.BoardGeometry;
+import chkMVC.chModel.Checkers.BoardModel;
+import chkMVC.chModel.Checkers.BoardSnapshot;
+import chkMVC.chModel.Checkers.CheckersGameModel;
+import chkMVC.chModel.Checkers.GameEventListener;
+import chkMVC.chModel.Checkers.PIECE_TEAM;
+import chkMVC.chModel.Checkers.Pieces.PieceCode;
+import chkMVC.chModel.Checkers.Position;
+import chkMVC.chModel.Checkers.RULE_VARIANT;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Hits and misses of the server's legal move cache, and moves played from it.
+class LegalMoveCacheTest {
+
+    @Test
+    void playsCachedMovesWithoutLookingThemUpAgain () {
+        LegalMoveCache cache = new LegalMoveCache(4);
+        CheckersGameModel game = new CheckersGameModel(RULE_VARIANT.ENGLISH);
+        List<List<Position>> played = new ArrayList<>();
+        game.addListener(new MoveRecorder(played));
+
+        Set<List<Position>> legal = cache.legalPaths(game);
+        assertEquals(7, legal.size());
+        List<Position> move = legal.iterator().next();
+        List<Position> nowhere = List.of(move.get(0), move.get(0));
+        assertEquals(1, cache.getMisses());
+
+        assertTrue(cache.isLegal(game, move));
+        assertFalse(cache.isLegal(game, nowhere));
+        assertFalse(cache.play(game, nowhere));
+        assertEquals(PIECE_TEAM.WHITE, game.getCurrentTurn(), "nothing played");
+        assertEquals(3, cache.getHits());
+
+        assertTrue(cache.play(game, move));
+        assertEquals(List.of(move), played);
+        assertEquals(PIECE_TEAM.BLACK, game.getCurrentTurn());
+        assertEquals(1, game.getPliesPlayed());
+        assertEquals(4, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // A new position is a miss
+        assertFalse(cache.isLegal(game, move));
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void otherRulesAreAMiss () {
+        LegalMoveCache cache = new LegalMoveCache();
+        CheckersGameModel english = new CheckersGameModel(RULE_VARIANT.ENGLISH);
+        CheckersGameModel russian = new CheckersGameModel(RULE_VARIANT.RUSSIAN);
+        assertEquals(english.getBoardModel().positionKey(), russian.getBoardModel().positionKey());
+
+        cache.legalPaths(english);
+        cache.legalPaths(russian);
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        cache.legalPaths(russian);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void keyCollisionIsAMiss () {
+        // A king on square 5 of an 8x8 and of a 10x10 board gives the same key, the snapshot tells them apart
+        CheckersGameModel small = kingOnSquare(BoardGeometry.EIGHT, 5);
+        CheckersGameModel large = kingOnSquare(BoardGeometry.TEN, 5);
+        assertEquals(small.getBoardModel().positionKey(), large.getBoardModel().positionKey());
+
+        LegalMoveCache cache = new LegalMoveCache();
+        Set<List<Position>> smallMoves = cache.legalPaths(small);
+        Set<List<Position>> largeMoves = cache.legalPaths(large);
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertNotEquals(smallMoves, largeMoves);
+    }
+
+    private static CheckersGameModel kingOnSquare (BoardGeometry geometry, int square) {
+        BoardModel board = new BoardModel(geometry);
+        board.addPiece(PieceCode.of(PIECE_TEAM.WHITE, true), geometry.positionOf(square));
+        return new CheckersGameModel(board, false);
+    }
+
+    private record MoveRecorder(List<List<Position>> played) implements GameEventListener {
+        @Override
+        public void onMoveMade (List<Position> path) {
+            played.add(path);
+        }
+
+        @Override
+        public void onGameComplete (PIECE_TEAM currentTurn) {
+        }
+
+        @Override
+        public void onBoardUpdate (BoardSnapshot boardState) {
+        }
+
+        @Override
+        public void onTurnChange (PIECE_TEAM currentTurn) {
+        }
+    }
+}